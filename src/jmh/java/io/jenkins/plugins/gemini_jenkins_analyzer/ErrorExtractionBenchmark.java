@@ -0,0 +1,184 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the log extraction paths of {@link ErrorAnalyzer} on log files: the context scan
+ * used by the pipeline step, the bottom-up scan used by the console, their indexed variants and
+ * building the error index. Reports throughput and, through sample time, latency percentiles;
+ * run with {@code -prof gc} (the default of the {@code jmh} profile) for allocation rates.
+ * <p>
+ * Synthetic logs are generated once per size and error rate under {@code target/jmh-logs}.
+ * To measure a recorded console log instead, pass {@code -p recordedLog=/path/to/log -p lines=0 -p errorRate=recorded}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorExtractionBenchmark {
+
+    private static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    // Typical Gradle and Maven failure markers, as configured on non-Unity jobs
+    private static final List<String> CUSTOM_PATTERNS = Arrays.asList(
+            "(?i)^FAILURE:",
+            "^\\[ERROR\\]",
+            "(?i)\\bBUILD FAILED\\b",
+            "(?i)\\berror:",
+            "^Caused by:",
+            "(?i)\\bCould not resolve\\b");
+
+    private static final String[] NOISE = {
+        "[INFO] Compiling 42 source files to /workspace/build/classes",
+        "Refreshing native plugins compatible for Editor in 12.34 ms, found 3 plugins.",
+        "Downloading https://repo.maven.apache.org/maven2/org/example/lib/1.0/lib-1.0.jar",
+        "[12:00:01] Copying Assets/Textures/atlas_01.png to Library/Artifacts/ab/abcdef0123456789",
+        "> Task :app:mergeDebugResources UP-TO-DATE",
+        "Start importing Assets/Prefabs/Player.prefab using Guid(0123456789abcdef0123456789abcdef)",
+        "    at org.example.build.Step.run(Step.java:42)",
+        "warning: [deprecation] getInstance() in Foo has been deprecated",
+    };
+
+    private static final String[] ERRORS = {
+        "Assets/Scripts/Player.cs(42,13): error CS0246: The type or namespace name 'Foo' could not be found",
+        "Error: Build failed with 3 errors",
+        "UnityException: Failed to build player",
+        "FAILURE: Build failed with an exception.",
+        "[ERROR] Failed to execute goal org.apache.maven.plugins:maven-compiler-plugin:3.13.0:compile",
+        "java.lang.IllegalStateException: Could not resolve all files for configuration ':app:debugRuntimeClasspath'",
+    };
+
+    @Param({"10000", "1000000", "10000000"})
+    public int lines;
+
+    @Param({"dense", "sparse"})
+    public String errorRate;
+
+    @Param({"UNITY", "custom"})
+    public String patterns;
+
+    @Param({""})
+    public String recordedLog;
+
+    @Param({"100"})
+    public int maxLines;
+
+    @Param({"3"})
+    public int contextLines;
+
+    private File logFile;
+    private ErrorPatternMatcher matcher;
+    private ErrorIndex index;
+    private int fetchLimit;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        matcher = ErrorPatternMatcher.compile("custom".equals(patterns) ? CUSTOM_PATTERNS : ErrorPatternPreset.UNITY.getPatterns());
+        logFile = recordedLog.isEmpty() ? syntheticLog(lines, errorRate) : new File(recordedLog);
+        fetchLimit = Math.max(maxLines * 10, 10000);
+        index = ErrorIndex.build(logFile, CHARSET, matcher);
+    }
+
+    /**
+     * Context scan of the log tail, as done by the pipeline step without an index.
+     */
+    @Benchmark
+    public String contextBlocks() throws IOException {
+        try (LogLineReader reader = LogLineReader.openTail(logFile, CHARSET, fetchLimit)) {
+            return ErrorAnalyzer.collectBlocks(reader, matcher.newLineMatcher(), new int[matcher.size()], maxLines, contextLines);
+        }
+    }
+
+    /**
+     * Bottom-up scan for the newest matches, as done by the console without an index.
+     */
+    @Benchmark
+    public List<String> newestMatches() throws IOException {
+        try (ReverseLogReader reverse = new ReverseLogReader(logFile, CHARSET)) {
+            return ErrorAnalyzer.collectNewestMatches(reverse, matcher.newLineMatcher(), new int[matcher.size()], maxLines, fetchLimit);
+        }
+    }
+
+    @Benchmark
+    public String indexedContextBlocks() throws IOException {
+        return ErrorAnalyzer.collectIndexedBlocks(CHARSET, logFile, index, matcher.newLineMatcher(),
+                new int[matcher.size()], maxLines, contextLines, fetchLimit);
+    }
+
+    @Benchmark
+    public List<String> indexedMatches() throws IOException {
+        return ErrorAnalyzer.readIndexedLines(CHARSET, logFile, index, matcher.newLineMatcher(),
+                new int[matcher.size()], maxLines, fetchLimit);
+    }
+
+    /**
+     * Full forward scan of the log, done once per build when it is first analyzed.
+     */
+    @Benchmark
+    public ErrorIndex buildIndex() throws IOException {
+        return ErrorIndex.buildSequentially(logFile, CHARSET, matcher);
+    }
+
+    /**
+     * The same scan split into chunks on the shared {@link ParallelLogScanner} pool;
+     * size the pool with {@code -jvmArgs -Dio.jenkins.plugins.gemini_jenkins_analyzer.ParallelLogScanner.parallelism=N}.
+     */
+    @Benchmark
+    public ErrorIndex parallelBuildIndex() throws IOException {
+        return ParallelLogScanner.buildIndex(logFile, CHARSET, matcher);
+    }
+
+    /**
+     * Writes a reproducible log of the given size, or reuses the one written by an earlier run.
+     * Dense logs have an error every 20 lines, sparse logs every 20,000; all end with the failure itself.
+     */
+    private static File syntheticLog(int lines, String errorRate) throws IOException {
+        File dir = new File("target", "jmh-logs");
+        Files.createDirectories(dir.toPath());
+        File file = new File(dir, lines + "-" + errorRate + ".log");
+        if (file.isFile()) {
+            return file;
+        }
+        int errorEvery = "dense".equals(errorRate) ? 20 : 20_000;
+        Random random = new Random(lines * 31L + errorEvery);
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(tmp.toPath(), CHARSET)) {
+            for (int i = 0; i < lines; i++) {
+                if (i == lines - 1) {
+                    out.write(ERRORS[1]);
+                } else if (random.nextInt(errorEvery) == 0) {
+                    out.write(ERRORS[random.nextInt(ERRORS.length)]);
+                } else {
+                    out.write(NOISE[random.nextInt(NOISE.length)]);
+                }
+                out.write('\n');
+            }
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+}
@@ -1,6 +1,7 @@
 package io.jenkins.plugins.gemini_jenkins_analyzer;
 
 import java.io.IOException;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 /**
@@ -27,6 +28,46 @@ public class AIService {
         return delegate.analyzeError(errorLogs);
     }
 
+    /**
+     * Explain error logs, passing the analysis to a listener while it is generated.
+     * @param errorLogs the error logs to explain
+     * @param onPartial receives successive fragments of the analysis, or null
+     * @return the AI analysis
+     * @throws IOException if there's a communication error
+     */
+    public String analyzeError(String errorLogs, Consumer<String> onPartial) throws IOException {
+        return delegate.analyzeError(errorLogs, onPartial);
+    }
+
+    /**
+     * Explain error logs, waiting for a slot in the {@link AnalysisScheduler} with the given priority.
+     * @param errorLogs the error logs to explain
+     * @param onPartial receives successive fragments of the analysis, or null
+     * @param priority priority class of the caller
+     * @return the AI analysis
+     * @throws AnalysisRejectedException if the scheduler turned the call away
+     * @throws IOException if there's a communication error
+     */
+    public String analyzeError(String errorLogs, Consumer<String> onPartial, AnalysisScheduler.Priority priority) throws IOException {
+        return delegate.analyzeError(errorLogs, onPartial, priority);
+    }
+
+    /**
+     * Same as {@link #analyzeError(String, Consumer, AnalysisScheduler.Priority)}, recording how the call went in the trace.
+     */
+    public String analyzeError(String errorLogs, Consumer<String> onPartial, AnalysisScheduler.Priority priority,
+                               AnalysisTrace.Builder trace) throws IOException {
+        return delegate.analyzeError(errorLogs, onPartial, priority, trace);
+    }
+
+    /**
+     * Trims error logs to the configured prompt budget the same way {@link #analyzeError(String)} does.
+     * @return the logs as they will appear in the prompt
+     */
+    public String fitToPromptBudget(String errorLogs) {
+        return delegate.fitToPromptBudget(errorLogs);
+    }
+
     /**
      * Test the connection to the AI service.
      * @return simple text response
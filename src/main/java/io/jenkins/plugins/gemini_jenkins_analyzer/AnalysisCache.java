@@ -0,0 +1,184 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import hudson.util.AtomicFileWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+
+/**
+ * Content-addressed cache of AI analyses.
+ * Builds failing the same way across jobs send the same prompt, so the analysis is looked up
+ * by a hash of the model name and the normalized prompt before calling the provider.
+ * Entries live in memory and in one file each under JENKINS_HOME, so they survive restarts.
+ */
+public class AnalysisCache {
+
+    private static final Logger LOGGER = Logger.getLogger(AnalysisCache.class.getName());
+
+    private static final String SUFFIX = ".txt";
+
+    private static AnalysisCache instance;
+
+    private final File directory;
+    private final Map<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    AnalysisCache(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return the cache stored under {@code JENKINS_HOME/gemini-jenkins-analyzer/analysis-cache}
+     */
+    public static synchronized AnalysisCache get() {
+        if (instance == null) {
+            File root = new File(Jenkins.get().getRootDir(), "gemini-jenkins-analyzer");
+            instance = new AnalysisCache(new File(root, "analysis-cache"));
+        }
+        return instance;
+    }
+
+    /**
+     * Hashes the model name and the prompt with line endings and trailing whitespace normalized.
+     */
+    public static String key(String modelName, String prompt) {
+        StringBuilder normalized = new StringBuilder(Objects.toString(modelName, "")).append('\u0000');
+        for (String line : prompt.split("\r?\n", -1)) {
+            normalized.append(line.stripTrailing()).append('\n');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(normalized.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * @param ttlHours how long entries stay valid
+     * @return the cached analysis, or null if there is none or it has expired
+     */
+    public String lookup(String key, int ttlHours) {
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(ttlHours);
+        synchronized (this) {
+            Entry entry = memory.get(key);
+            if (entry != null) {
+                if (entry.createdAt >= cutoff) {
+                    hits.incrementAndGet();
+                    return entry.analysis;
+                }
+                memory.remove(key);
+            }
+        }
+
+        File file = new File(directory, key + SUFFIX);
+        if (file.isFile()) {
+            if (file.lastModified() >= cutoff) {
+                try {
+                    String analysis = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+                    synchronized (this) {
+                        memory.put(key, new Entry(analysis, file.lastModified()));
+                    }
+                    hits.incrementAndGet();
+                    return analysis;
+                } catch (IOException e) {
+                    LOGGER.log(Level.FINE, "Could not read cached analysis " + file, e);
+                }
+            } else if (!file.delete()) {
+                LOGGER.fine("Could not delete expired analysis " + file);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores an analysis and evicts the oldest entries beyond maxEntries.
+     */
+    public void store(String key, String analysis, int maxEntries) {
+        synchronized (this) {
+            memory.put(key, new Entry(analysis, System.currentTimeMillis()));
+            while (memory.size() > maxEntries) {
+                memory.remove(memory.keySet().iterator().next());
+            }
+        }
+
+        try {
+            Files.createDirectories(directory.toPath());
+            AtomicFileWriter writer = new AtomicFileWriter(new File(directory, key + SUFFIX).toPath(), StandardCharsets.UTF_8);
+            try {
+                writer.write(analysis);
+                writer.commit();
+            } finally {
+                writer.abort();
+            }
+            evictFiles(maxEntries);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not persist analysis cache entry", e);
+        }
+    }
+
+    /**
+     * Removes all entries from memory and disk.
+     */
+    public synchronized void clear() {
+        memory.clear();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    LOGGER.fine("Could not delete cached analysis " + file);
+                }
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private synchronized void evictFiles(int maxEntries) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null || files.length <= maxEntries) {
+            return;
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (int i = 0; i < files.length - maxEntries; i++) {
+            if (!files[i].delete()) {
+                LOGGER.fine("Could not evict cached analysis " + files[i]);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String analysis;
+        private final long createdAt;
+
+        Entry(String analysis, long createdAt) {
+            this.analysis = analysis;
+            this.createdAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+
+/**
+ * Creates the executors that run analyses. An analysis spends nearly all its time waiting on
+ * the AI provider, so on Java 21 and later each analysis gets its own virtual thread and
+ * thousands can be outstanding without as many platform threads; a limit on running tasks is
+ * kept with a semaphore. Older JVMs, or the {@code platform} mode, get platform thread pools
+ * instead. Either way the number of provider calls running at once is limited by the
+ * {@link AnalysisScheduler}.
+ * <p>
+ * The mode is set with the system property {@code AnalysisExecutors.mode}:
+ * {@code auto} (default), {@code virtual} or {@code platform}.
+ */
+public final class AnalysisExecutors {
+
+    private static final Logger LOGGER = Logger.getLogger(AnalysisExecutors.class.getName());
+
+    private static final String MODE = SystemProperties.getString(AnalysisExecutors.class.getName() + ".mode", "auto");
+
+    // Virtual threads are Java 21 API and the plugin builds for older releases, so they are looked up reflectively
+    private static final VirtualThreads VIRTUAL_THREADS = resolveVirtualThreads();
+
+    // Each step used to get its own thread from Jenkins, so running steps are not limited here either
+    private static final ExecutorService STEP_EXECUTOR = newExecutor("Gemini error analysis step", 0);
+
+    private AnalysisExecutors() {
+    }
+
+    /**
+     * @return whether new executors run their tasks on virtual threads
+     */
+    public static boolean isVirtual() {
+        return VIRTUAL_THREADS != null;
+    }
+
+    /**
+     * @return the executor for analyses started by the pipeline step
+     */
+    public static ExecutorService stepExecutor() {
+        return STEP_EXECUTOR;
+    }
+
+    /**
+     * @param name prefix of the thread names
+     * @param maxRunning maximum number of tasks running at once, 0 for no limit; further tasks wait in order
+     * @return an executor starting a virtual thread per task, or a pool of daemon platform threads
+     */
+    public static ExecutorService newExecutor(String name, int maxRunning) {
+        if (VIRTUAL_THREADS != null) {
+            ExecutorService executor = VIRTUAL_THREADS.newExecutor(name);
+            if (executor != null) {
+                return maxRunning > 0 ? new BoundedExecutor(executor, maxRunning) : executor;
+            }
+        }
+        return newPlatformExecutor(name, maxRunning);
+    }
+
+    static ExecutorService newPlatformExecutor(String name, int maxRunning) {
+        ThreadPoolExecutor pool = maxRunning > 0
+                ? new ThreadPoolExecutor(maxRunning, maxRunning, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>())
+                : new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+        pool.setThreadFactory(new NamingThreadFactory(new DaemonThreadFactory(), name));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static VirtualThreads resolveVirtualThreads() {
+        if ("platform".equalsIgnoreCase(MODE)) {
+            return null;
+        }
+        VirtualThreads virtualThreads = VirtualThreads.lookup();
+        if (virtualThreads == null && "virtual".equalsIgnoreCase(MODE)) {
+            LOGGER.warning("Virtual threads were requested but this JVM does not support them, using platform threads");
+        }
+        return virtualThreads;
+    }
+
+    /**
+     * Runs each task on its own thread of the delegate once one of a fixed number of permits is free.
+     * Tasks waiting for a permit only hold a parked virtual thread.
+     */
+    static final class BoundedExecutor extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+
+        BoundedExecutor(ExecutorService delegate, int maxRunning) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxRunning, true);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    // Shut down while waiting
+                    return;
+                }
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+
+    /**
+     * Reflective access to {@code Thread.ofVirtual()} and {@code Executors.newThreadPerTaskExecutor}.
+     */
+    static final class VirtualThreads {
+
+        private final Method ofVirtual;
+        private final Method name;
+        private final Method factory;
+        private final Method newThreadPerTaskExecutor;
+
+        private VirtualThreads(Method ofVirtual, Method name, Method factory, Method newThreadPerTaskExecutor) {
+            this.ofVirtual = ofVirtual;
+            this.name = name;
+            this.factory = factory;
+            this.newThreadPerTaskExecutor = newThreadPerTaskExecutor;
+        }
+
+        /**
+         * @return access to virtual threads, or null if the JVM does not have them
+         */
+        static VirtualThreads lookup() {
+            try {
+                Class<?> builder = Class.forName("java.lang.Thread$Builder");
+                VirtualThreads virtualThreads = new VirtualThreads(
+                        Thread.class.getMethod("ofVirtual"),
+                        builder.getMethod("name", String.class, long.class),
+                        builder.getMethod("factory"),
+                        Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class));
+                // Fails on Java 19 and 20 unless preview features are enabled
+                virtualThreads.ofVirtual.invoke(null);
+                LOGGER.fine("Running AI analyses on virtual threads");
+                return virtualThreads;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                LOGGER.fine("Virtual threads are not available, running AI analyses on platform threads");
+                return null;
+            }
+        }
+
+        /**
+         * @return an executor starting a virtual thread named {@code name-N} per task, or null if that fails
+         */
+        ExecutorService newExecutor(String threadName) {
+            try {
+                Object builder = name.invoke(ofVirtual.invoke(null), threadName + "-", 0L);
+                ThreadFactory threadFactory = (ThreadFactory) factory.invoke(builder);
+                return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not create virtual thread executor, using platform threads", e);
+                return null;
+            }
+        }
+    }
+}
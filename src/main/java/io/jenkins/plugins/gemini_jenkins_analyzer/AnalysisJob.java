@@ -0,0 +1,146 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Handle for an error analysis running in the background.
+ * Console requests get the id of this handle back immediately and poll it for the result.
+ */
+public class AnalysisJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED, REJECTED
+    }
+
+    /**
+     * Work run for a job; may report partial results through {@link #appendPartial}.
+     */
+    public interface Task {
+        String run(AnalysisJob job) throws Exception;
+    }
+
+    private final String id;
+    private final String runId;
+    private final long createdAt;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Status status = Status.QUEUED;
+    private volatile String result;
+    private volatile String error;
+    private volatile long finishedAt;
+    private final StringBuilder partial = new StringBuilder();
+
+    AnalysisJob(String id, String runId) {
+        this.id = id;
+        this.runId = runId;
+        this.createdAt = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return externalizable id of the build this analysis belongs to
+     */
+    public String getRunId() {
+        return runId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isDone() {
+        return status == Status.COMPLETED || status == Status.FAILED || status == Status.REJECTED;
+    }
+
+    /**
+     * @return the analysis text once completed, otherwise null
+     */
+    public String getResult() {
+        return result;
+    }
+
+    /**
+     * @return the failure or rejection message once failed or rejected, otherwise null
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Appends a fragment of the analysis as the AI provider streams it.
+     */
+    public void appendPartial(String fragment) {
+        synchronized (partial) {
+            partial.append(fragment);
+        }
+    }
+
+    /**
+     * @param offset number of characters the caller already has
+     * @return the streamed text after the offset, empty if there is nothing new
+     */
+    public String getPartial(int offset) {
+        synchronized (partial) {
+            return offset >= 0 && offset < partial.length() ? partial.substring(offset) : "";
+        }
+    }
+
+    /**
+     * @return number of characters streamed so far
+     */
+    public int getPartialLength() {
+        synchronized (partial) {
+            return partial.length();
+        }
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return when the job completed or failed, or 0 while it is still pending
+     */
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Waits for the job to finish.
+     * @return true if the job is done
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void complete(String result) {
+        this.result = result;
+        finish(Status.COMPLETED);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish(Status.FAILED);
+    }
+
+    /**
+     * Marks the job as turned away by the {@link AnalysisScheduler}; nothing was sent to the AI provider.
+     */
+    void reject(String reason) {
+        this.error = reason;
+        finish(Status.REJECTED);
+    }
+
+    private void finish(Status finalStatus) {
+        finishedAt = System.currentTimeMillis();
+        status = finalStatus;
+        done.countDown();
+    }
+}
@@ -0,0 +1,111 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+
+/**
+ * Runs console error analyses on a dedicated executor so HTTP request threads
+ * return immediately with a job id instead of waiting for the AI provider.
+ * At most {@code threads} jobs run at once, on virtual threads where available (see {@link AnalysisExecutors}).
+ * Finished jobs are kept for a while so the console page can pick up the result.
+ * Requests for an analysis that is already queued or running join the existing job.
+ */
+public class AnalysisJobManager {
+
+    private static final Logger LOGGER = Logger.getLogger(AnalysisJobManager.class.getName());
+
+    static final int DEFAULT_THREADS = 4;
+
+    static final long DEFAULT_RETENTION_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final AnalysisJobManager INSTANCE = new AnalysisJobManager(
+            SystemProperties.getInteger(AnalysisJobManager.class.getName() + ".threads", DEFAULT_THREADS),
+            SystemProperties.getLong(AnalysisJobManager.class.getName() + ".retentionMillis", DEFAULT_RETENTION_MILLIS));
+
+    private final ExecutorService executor;
+    private final long retentionMillis;
+    private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, AnalysisJob> pendingByKey = new ConcurrentHashMap<>();
+
+    AnalysisJobManager(int threads, long retentionMillis) {
+        this.executor = AnalysisExecutors.newExecutor("Gemini error analysis", threads);
+        this.retentionMillis = retentionMillis;
+    }
+
+    public static AnalysisJobManager get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Queues an analysis for a build, or returns the unfinished job already queued under the same key.
+     * @param runId externalizable id of the build, used to check ownership when polling
+     * @param key identifies equivalent analyses of the build
+     * @param task produces the analysis text
+     * @return the handle to poll
+     */
+    public AnalysisJob submit(String runId, String key, AnalysisJob.Task task) {
+        purgeExpired();
+        String pendingKey = runId + "\u0000" + key;
+        AnalysisJob[] created = new AnalysisJob[1];
+        AnalysisJob job = pendingByKey.computeIfAbsent(pendingKey, k -> {
+            created[0] = new AnalysisJob(UUID.randomUUID().toString(), runId);
+            return created[0];
+        });
+        if (created[0] == null) {
+            LOGGER.fine("Joining pending error analysis " + job.getId() + " for " + runId);
+            return job;
+        }
+        jobs.put(job.getId(), job);
+        executor.execute(() -> {
+            job.markRunning();
+            String result = null;
+            Throwable failure = null;
+            try {
+                result = task.run(job);
+            } catch (AnalysisRejectedException e) {
+                LOGGER.info("Error analysis rejected for " + runId + ": " + e.getMessage());
+                failure = e;
+            } catch (Exception | LinkageError e) {
+                LOGGER.log(Level.WARNING, "Error analysis failed for " + runId, e);
+                failure = e;
+            }
+            // Stop accepting joiners before waking up pollers of the finished job
+            pendingByKey.remove(pendingKey, job);
+            if (failure == null) {
+                job.complete(result);
+            } else if (failure instanceof AnalysisRejectedException) {
+                job.reject(failure.getMessage());
+            } else {
+                job.fail(failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName());
+            }
+        });
+        return job;
+    }
+
+    /**
+     * @return the job with the given id, or null if it is unknown or has expired
+     */
+    public AnalysisJob getJob(String jobId) {
+        purgeExpired();
+        return jobId != null ? jobs.get(jobId) : null;
+    }
+
+    int size() {
+        return jobs.size();
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void purgeExpired() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        jobs.values().removeIf(job -> job.isDone() && job.getFinishedAt() < cutoff);
+    }
+}
@@ -0,0 +1,197 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import hudson.PluginWrapper;
+import hudson.model.Run;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+
+/**
+ * Records timings and counts of each analysis stage: log reading, pattern matching, prompt size,
+ * provider latency, retries, failures by cause and cache hits. They are published in the registry
+ * of the Metrics plugin, and so by its Prometheus and JMX exporters, under {@code gemini-analyzer.*}.
+ * Without the Metrics plugin recording does nothing.
+ * <p>
+ * Dropwizard metrics have no tags, so figures per job are kept per top-level item (the folder, or
+ * the job when it is not in a folder) under {@code gemini-analyzer.folder.<name>.*}. At most
+ * {@value #MAX_FOLDERS} items are tracked; further items are counted under {@code other}.
+ */
+public final class AnalysisMetrics {
+
+    private static final Logger LOGGER = Logger.getLogger(AnalysisMetrics.class.getName());
+
+    static final String PREFIX = "gemini-analyzer.";
+
+    static final int MAX_FOLDERS = 200;
+
+    static final String OTHER_FOLDER = "other";
+
+    /**
+     * Where metrics are recorded.
+     */
+    interface Sink {
+        void count(String name, long increment);
+
+        void time(String name, long nanos);
+
+        void update(String name, long value);
+    }
+
+    private static final Sink NONE = new Sink() {
+        @Override
+        public void count(String name, long increment) {
+        }
+
+        @Override
+        public void time(String name, long nanos) {
+        }
+
+        @Override
+        public void update(String name, long value) {
+        }
+    };
+
+    private static volatile Sink sink;
+
+    private static final Set<String> FOLDERS = ConcurrentHashMap.newKeySet();
+
+    private AnalysisMetrics() {
+    }
+
+    /**
+     * Records reading the log and matching its lines.
+     * @param nanos time spent extracting the error logs
+     * @param bytes bytes of log read
+     * @param lineMatcher matcher used for the scan, or null if the log was not filtered
+     */
+    public static void extraction(Run<?, ?> run, long nanos, long bytes, ErrorPatternMatcher.LineMatcher lineMatcher) {
+        Sink sink = sink();
+        sink.time(PREFIX + "log.fetch.duration", nanos);
+        sink.update(PREFIX + "log.fetch.bytes", bytes);
+        if (lineMatcher != null) {
+            sink.time(PREFIX + "pattern.match.duration", lineMatcher.getEstimatedMatchNanos());
+            sink.count(PREFIX + "lines.scanned", lineMatcher.getLines());
+            sink.count(PREFIX + "lines.matched", lineMatcher.getMatches());
+        }
+        sink.count(folderPrefix(run) + "log.fetch.bytes", bytes);
+    }
+
+    /**
+     * Records an analysis of a build, to attribute provider time and prompt tokens to jobs.
+     * @param promptTokens estimated tokens of the logs sent to the model
+     * @param nanos time spent waiting for the analysis
+     */
+    public static void analysis(Run<?, ?> run, int promptTokens, long nanos) {
+        Sink sink = sink();
+        String folder = folderPrefix(run);
+        sink.count(folder + "analyses", 1);
+        sink.count(folder + "prompt.tokens", promptTokens);
+        sink.time(folder + "analysis.duration", nanos);
+    }
+
+    /**
+     * @param promptTokens estimated tokens of the whole prompt
+     */
+    public static void prompt(int promptTokens) {
+        sink().update(PREFIX + "prompt.tokens", promptTokens);
+    }
+
+    /**
+     * @param hit whether the analysis was answered from the cache
+     */
+    public static void cacheLookup(boolean hit) {
+        sink().count(PREFIX + (hit ? "cache.hits" : "cache.misses"), 1);
+    }
+
+    /**
+     * Records a provider call that returned an answer.
+     * @param firstFragmentNanos time until the first streamed fragment, or -1 for a blocking call
+     * @param totalNanos time until the complete answer
+     */
+    public static void providerCall(long firstFragmentNanos, long totalNanos) {
+        Sink sink = sink();
+        if (firstFragmentNanos >= 0) {
+            sink.time(PREFIX + "provider.ttfb", firstFragmentNanos);
+        }
+        sink.time(PREFIX + "provider.duration", totalNanos);
+    }
+
+    public static void providerRetry() {
+        sink().count(PREFIX + "provider.retries", 1);
+    }
+
+    /**
+     * @param cause {@link RetryPolicy#failureCause}, or {@code circuit_open} when the call was not made
+     */
+    public static void providerFailure(String cause) {
+        sink().count(PREFIX + "provider.failures." + cause, 1);
+    }
+
+    /**
+     * @return the metric name prefix for the run's top-level item
+     */
+    static String folderPrefix(Run<?, ?> run) {
+        return folderPrefix(run != null ? run.getParent().getFullName() : OTHER_FOLDER);
+    }
+
+    static String folderPrefix(String fullName) {
+        int slash = fullName.indexOf('/');
+        String folder = sanitize(slash >= 0 ? fullName.substring(0, slash) : fullName);
+        if (!FOLDERS.contains(folder)) {
+            if (FOLDERS.size() >= MAX_FOLDERS) {
+                folder = OTHER_FOLDER;
+            } else {
+                FOLDERS.add(folder);
+            }
+        }
+        return PREFIX + "folder." + folder + ".";
+    }
+
+    /**
+     * Replaces dots, which would add levels to the metric name, and other characters exporters reject.
+     */
+    static String sanitize(String name) {
+        String sanitized = name.replaceAll("[^A-Za-z0-9_-]", "_");
+        return sanitized.isEmpty() ? "_" : sanitized;
+    }
+
+    static void setSink(Sink sink) {
+        AnalysisMetrics.sink = sink;
+    }
+
+    /**
+     * Forgets the sink and the tracked folders.
+     */
+    static void reset() {
+        sink = null;
+        FOLDERS.clear();
+    }
+
+    private static Sink sink() {
+        Sink current = sink;
+        if (current == null) {
+            Jenkins jenkins = Jenkins.getInstanceOrNull();
+            if (jenkins == null) {
+                return NONE; // not started yet, look again next time
+            }
+            current = sink = resolveSink(jenkins);
+        }
+        return current;
+    }
+
+    private static Sink resolveSink(Jenkins jenkins) {
+        PluginWrapper metrics = jenkins.getPluginManager().getPlugin("metrics");
+        if (metrics == null || !metrics.isActive()) {
+            LOGGER.fine("Metrics plugin is not installed, analysis metrics are not recorded");
+            return NONE;
+        }
+        try {
+            return MetricsPluginSink.create();
+        } catch (LinkageError | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Could not register analysis metrics with the Metrics plugin", e);
+            return NONE;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the {@link AnalysisScheduler} does not run an analysis because too many are
+ * already running or waiting. Nothing was sent to the AI provider; the analysis can be retried later.
+ */
+public class AnalysisRejectedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public AnalysisRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,77 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of one error analysis: the error logs exactly as they were sent to the model,
+ * the analysis, how long extraction and the AI call took, how often each pattern matched,
+ * and the {@link AnalysisTrace} of the whole analysis.
+ */
+public final class AnalysisResult {
+
+    private final String input;
+    private final String analysis;
+    private final long extractionMillis;
+    private final long analysisMillis;
+    private final Map<String, Integer> patternHits;
+    private final AnalysisTrace trace;
+
+    public AnalysisResult(String input, String analysis, long extractionMillis, long analysisMillis,
+                          Map<String, Integer> patternHits) {
+        this(input, analysis, extractionMillis, analysisMillis, patternHits, null);
+    }
+
+    public AnalysisResult(String input, String analysis, long extractionMillis, long analysisMillis,
+                          Map<String, Integer> patternHits, AnalysisTrace trace) {
+        this.input = input;
+        this.analysis = analysis;
+        this.extractionMillis = extractionMillis;
+        this.analysisMillis = analysisMillis;
+        this.patternHits = patternHits != null
+                ? Collections.unmodifiableMap(new LinkedHashMap<>(patternHits))
+                : Collections.emptyMap();
+        this.trace = trace;
+    }
+
+    /**
+     * Result carrying only a message for the user, such as a configuration error; nothing was sent to the model.
+     */
+    public static AnalysisResult message(String message) {
+        return new AnalysisResult(null, message, 0, 0, null);
+    }
+
+    /**
+     * @return error logs as they appeared in the prompt, or null if the model was not called
+     */
+    public String getInput() {
+        return input;
+    }
+
+    public String getAnalysis() {
+        return analysis;
+    }
+
+    public long getExtractionMillis() {
+        return extractionMillis;
+    }
+
+    public long getAnalysisMillis() {
+        return analysisMillis;
+    }
+
+    /**
+     * @return number of matched lines per error pattern, in pattern order, for patterns that matched
+     */
+    public Map<String, Integer> getPatternHits() {
+        return patternHits;
+    }
+
+    /**
+     * @return where the time of the analysis went, or null if the model was not called
+     */
+    public AnalysisTrace getTrace() {
+        return trace;
+    }
+}
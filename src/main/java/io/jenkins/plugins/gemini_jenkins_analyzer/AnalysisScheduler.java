@@ -0,0 +1,239 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.io.InterruptedIOException;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+
+/**
+ * Limits how many AI provider calls run at once across pipeline steps, console requests and
+ * other callers. Callers over the limit wait in a bounded queue and are let in by priority,
+ * oldest first within a priority. When the queue is full a new caller either pushes out the
+ * newest waiter of a lower priority or is rejected; rejected callers get an
+ * {@link AnalysisRejectedException} instead of waiting indefinitely.
+ * Waiting uses a {@link ReentrantLock} rather than a monitor, so waiting virtual threads do not pin their carriers.
+ */
+public class AnalysisScheduler {
+
+    private static final Logger LOGGER = Logger.getLogger(AnalysisScheduler.class.getName());
+
+    /**
+     * Priority classes, highest first.
+     */
+    public enum Priority {
+        /** A user waiting on the console page. */
+        INTERACTIVE,
+        /** The analyzeError pipeline step. */
+        STEP,
+        /** Analyses nobody is waiting for, such as backfills. */
+        BATCH
+    }
+
+    static final long DEFAULT_MAX_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final AnalysisScheduler INSTANCE = new AnalysisScheduler(
+            SystemProperties.getLong(AnalysisScheduler.class.getName() + ".maxWaitMillis", DEFAULT_MAX_WAIT_MILLIS));
+
+    private final long maxWaitMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final PriorityQueue<Waiter> waiting = new PriorityQueue<>();
+    private int running;
+    private int maxConcurrent;
+    private long sequence;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    AnalysisScheduler(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public static AnalysisScheduler get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Waits for a slot to call the AI provider. The limits are taken from each call so
+     * configuration changes apply to the next caller.
+     * @param priority priority class of the caller
+     * @param maxConcurrent maximum number of calls running at once, 0 for no limit
+     * @param maxQueued maximum number of callers waiting for a slot, 0 for no limit
+     * @return the slot, to be closed when the call is done
+     * @throws AnalysisRejectedException if the queue is full, the caller was pushed out of it or waited too long
+     * @throws InterruptedIOException if the thread was interrupted while waiting
+     */
+    public Permit acquire(Priority priority, int maxConcurrent, int maxQueued)
+            throws AnalysisRejectedException, InterruptedIOException {
+        lock.lock();
+        try {
+            return acquireLocked(priority, maxConcurrent, maxQueued);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Permit acquireLocked(Priority priority, int maxConcurrent, int maxQueued)
+            throws AnalysisRejectedException, InterruptedIOException {
+        this.maxConcurrent = maxConcurrent;
+        admitWaiting();
+        if (waiting.isEmpty() && hasCapacity()) {
+            running++;
+            return new Permit();
+        }
+
+        if (maxQueued > 0 && waiting.size() >= maxQueued) {
+            Waiter displaced = lowestWaiter();
+            if (displaced == null || displaced.priority.compareTo(priority) <= 0) {
+                throw reject("AI analysis queue is full (" + running + " running, " + waiting.size()
+                        + " waiting); try again later");
+            }
+            waiting.remove(displaced);
+            displaced.rejection = "AI analysis was pushed out of the full queue by higher priority work; try again later";
+            rejectedCount.incrementAndGet();
+            changed.signalAll();
+        }
+
+        Waiter waiter = new Waiter(priority, sequence++);
+        waiting.add(waiter);
+        long remaining = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        try {
+            while (!waiter.admitted && waiter.rejection == null) {
+                if (remaining <= 0) {
+                    waiting.remove(waiter);
+                    throw reject("Timed out after " + TimeUnit.MILLISECONDS.toSeconds(maxWaitMillis)
+                            + "s waiting for an AI analysis slot; try again later");
+                }
+                remaining = changed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            waiting.remove(waiter);
+            if (waiter.admitted) {
+                release();
+            }
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an AI analysis slot");
+        }
+        if (waiter.rejection != null) {
+            LOGGER.info(waiter.rejection);
+            throw new AnalysisRejectedException(waiter.rejection);
+        }
+        return new Permit();
+    }
+
+    /**
+     * @return number of calls holding a slot
+     */
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of callers waiting for a slot
+     */
+    public int getQueued() {
+        lock.lock();
+        try {
+            return waiting.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of callers rejected or pushed out of the queue
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    private void release() {
+        running--;
+        admitWaiting();
+    }
+
+    private boolean hasCapacity() {
+        return maxConcurrent <= 0 || running < maxConcurrent;
+    }
+
+    private void admitWaiting() {
+        boolean admitted = false;
+        while (!waiting.isEmpty() && hasCapacity()) {
+            waiting.poll().admitted = true;
+            running++;
+            admitted = true;
+        }
+        if (admitted) {
+            changed.signalAll();
+        }
+    }
+
+    /**
+     * @return the waiter that would be let in last
+     */
+    private Waiter lowestWaiter() {
+        Waiter lowest = null;
+        for (Waiter waiter : waiting) {
+            if (lowest == null || waiter.compareTo(lowest) > 0) {
+                lowest = waiter;
+            }
+        }
+        return lowest;
+    }
+
+    private AnalysisRejectedException reject(String message) {
+        rejectedCount.incrementAndGet();
+        LOGGER.info(message);
+        return new AnalysisRejectedException(message);
+    }
+
+    /**
+     * A slot to call the AI provider; closing it lets the next caller in.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private boolean closed;
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                if (!closed) {
+                    closed = true;
+                    release();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Waiter implements Comparable<Waiter> {
+
+        final Priority priority;
+        final long sequence;
+        boolean admitted;
+        String rejection;
+
+        Waiter(Priority priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Waiter other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+}
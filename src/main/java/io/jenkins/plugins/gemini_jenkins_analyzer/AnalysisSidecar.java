@@ -0,0 +1,181 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Analysis text, the error logs it was generated from and its {@link AnalysisTrace}, stored gzip-compressed
+ * in the build directory by the {@link AnalysisStore} instead of build.xml.
+ */
+public final class AnalysisSidecar {
+
+    static final String FILE_NAME = "gemini-analysis.gz";
+
+    private static final int VERSION = 3;
+
+    private final String analysis;
+    private final String errorLogs;
+    private final long timestamp;
+    private final AnalysisTrace trace;
+
+    public AnalysisSidecar(String analysis, String errorLogs) {
+        this(analysis, errorLogs, 0);
+    }
+
+    /**
+     * @param timestamp when the analysis was generated, 0 if unknown
+     */
+    public AnalysisSidecar(String analysis, String errorLogs, long timestamp) {
+        this(analysis, errorLogs, timestamp, null);
+    }
+
+    /**
+     * @param timestamp when the analysis was generated, 0 if unknown
+     * @param trace where the time of the analysis went, or null if unknown
+     */
+    public AnalysisSidecar(String analysis, String errorLogs, long timestamp, AnalysisTrace trace) {
+        this.analysis = analysis;
+        this.errorLogs = errorLogs;
+        this.timestamp = timestamp;
+        this.trace = trace;
+    }
+
+    public String getAnalysis() {
+        return analysis;
+    }
+
+    public String getErrorLogs() {
+        return errorLogs;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return where the time of the analysis went, or null for analyses stored without one
+     */
+    public AnalysisTrace getTrace() {
+        return trace;
+    }
+
+    /**
+     * Writes the content to the build directory, replacing any previous file atomically.
+     */
+    public void write(File buildDir) throws IOException {
+        File file = new File(buildDir, FILE_NAME);
+        // A temporary file of its own, so concurrent writers do not mix their output
+        Path tmp = Files.createTempFile(buildDir.toPath(), FILE_NAME, ".tmp");
+        try {
+            try (OutputStream fileOut = Files.newOutputStream(tmp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(fileOut)))) {
+                out.writeInt(VERSION);
+                out.writeLong(timestamp);
+                writeString(out, analysis);
+                writeString(out, errorLogs);
+                writeTrace(out, trace);
+            }
+            try {
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * @return whether the build directory holds an analysis file
+     */
+    public static boolean exists(File buildDir) {
+        return new File(buildDir, FILE_NAME).isFile();
+    }
+
+    /**
+     * Reads the content back from the build directory.
+     * @return the content, or null if the file is missing
+     */
+    public static AnalysisSidecar read(File buildDir) throws IOException {
+        File file = new File(buildDir, FILE_NAME);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (InputStream fileIn = Files.newInputStream(file.toPath());
+             DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(fileIn)))) {
+            int version = in.readInt();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported analysis file version: " + file);
+            }
+            long timestamp = version >= 2 ? in.readLong() : 0;
+            String analysis = readString(in);
+            String errorLogs = readString(in);
+            AnalysisTrace trace = version >= 3 ? readTrace(in) : null;
+            return new AnalysisSidecar(analysis, errorLogs, timestamp, trace);
+        }
+    }
+
+    private static void writeTrace(DataOutputStream out, AnalysisTrace trace) throws IOException {
+        out.writeBoolean(trace != null);
+        if (trace == null) {
+            return;
+        }
+        writeString(out, trace.getModel());
+        out.writeLong(trace.getTotalMillis());
+        out.writeLong(trace.getExtractionMillis());
+        out.writeLong(trace.getMatchMillis());
+        out.writeLong(trace.getQueueMillis());
+        out.writeLong(trace.getProviderMillis());
+        out.writeLong(trace.getFirstFragmentMillis());
+        out.writeLong(trace.getBackoffMillis());
+        out.writeLong(trace.getBytesRead());
+        out.writeLong(trace.getLinesScanned());
+        out.writeLong(trace.getLinesMatched());
+        out.writeInt(trace.getPromptTokens());
+        out.writeInt(trace.getResponseTokens());
+        out.writeInt(trace.getRetries());
+        out.writeBoolean(trace.isCached());
+    }
+
+    private static AnalysisTrace readTrace(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new AnalysisTrace(readString(in), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                in.readInt(), in.readInt(), in.readInt(), in.readBoolean());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,185 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import hudson.init.Terminator;
+import hudson.model.Action;
+import hudson.model.Run;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+
+/**
+ * Write-behind store for build analyses, kept in {@link AnalysisSidecar} files instead of build.xml.
+ * A saved analysis is visible at once from memory; its file is written by a background thread
+ * shortly after, so a burst of saves turns into one batch of small atomic writes and several
+ * saves of the same build within the delay into a single write.
+ * {@link ErrorAnalysisActionFactory} shows the stored analysis on the build.
+ */
+public class AnalysisStore {
+
+    private static final Logger LOGGER = Logger.getLogger(AnalysisStore.class.getName());
+
+    static final long DEFAULT_DELAY_MILLIS = 500;
+
+    private static final int MAX_LOADED = 256;
+
+    private static final AnalysisStore INSTANCE = new AnalysisStore(
+            SystemProperties.getLong(AnalysisStore.class.getName() + ".delayMillis", DEFAULT_DELAY_MILLIS));
+
+    private final ScheduledExecutorService executor;
+    private final long delayMillis;
+    private final Map<File, AnalysisSidecar> pending = new LinkedHashMap<>();
+    private boolean flushScheduled;
+    private final AtomicLong writeCount = new AtomicLong();
+
+    private final Map<File, SoftReference<AnalysisSidecar>> loaded = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, SoftReference<AnalysisSidecar>> eldest) {
+            return size() > MAX_LOADED;
+        }
+    };
+
+    AnalysisStore(long delayMillis) {
+        ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(1,
+                new NamingThreadFactory(new DaemonThreadFactory(), "Gemini analysis store"));
+        pool.setKeepAliveTime(60, TimeUnit.SECONDS);
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+        this.delayMillis = delayMillis;
+    }
+
+    public static AnalysisStore get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Stores the analysis of a build, replacing any previous one.
+     * Analyses saved in build.xml by older versions would hide the new one, so they are
+     * removed, which takes one last save of the build.
+     */
+    public void save(Run<?, ?> run, String analysis, String errorLogs) throws IOException {
+        save(run, analysis, errorLogs, null);
+    }
+
+    /**
+     * Same as {@link #save(Run, String, String)}, keeping the trace of the analysis with it.
+     * @param trace where the time of the analysis went, or null
+     */
+    public void save(Run<?, ?> run, String analysis, String errorLogs, AnalysisTrace trace) throws IOException {
+        boolean persisted = false;
+        for (Action action : run.getActions()) {
+            persisted |= action instanceof ErrorAnalysisAction;
+        }
+        if (persisted) {
+            run.removeActions(ErrorAnalysisAction.class);
+            run.save();
+        }
+        put(run.getRootDir(), new AnalysisSidecar(analysis, errorLogs, System.currentTimeMillis(), trace));
+    }
+
+    void put(File buildDir, AnalysisSidecar content) {
+        synchronized (this) {
+            pending.put(buildDir, content);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                executor.schedule(this::flush, delayMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        remember(buildDir, content);
+    }
+
+    /**
+     * @return whether an analysis is stored for the build directory
+     */
+    public boolean has(File buildDir) {
+        synchronized (this) {
+            if (pending.containsKey(buildDir)) {
+                return true;
+            }
+        }
+        return AnalysisSidecar.exists(buildDir);
+    }
+
+    /**
+     * @return the stored analysis, or null if there is none or it cannot be read
+     */
+    public AnalysisSidecar load(File buildDir) {
+        synchronized (this) {
+            AnalysisSidecar content = pending.get(buildDir);
+            if (content != null) {
+                return content;
+            }
+        }
+        synchronized (loaded) {
+            SoftReference<AnalysisSidecar> ref = loaded.get(buildDir);
+            AnalysisSidecar content = ref != null ? ref.get() : null;
+            if (content != null) {
+                return content;
+            }
+        }
+        try {
+            AnalysisSidecar content = AnalysisSidecar.read(buildDir);
+            if (content != null) {
+                remember(buildDir, content);
+            }
+            return content;
+        } catch (IOException e) {
+            LOGGER.warning("Could not read analysis file in " + buildDir + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Writes all queued analyses. Entries stay readable from memory until their file is in place.
+     */
+    public void flush() {
+        Map<File, AnalysisSidecar> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            batch = new LinkedHashMap<>(pending);
+        }
+        for (Map.Entry<File, AnalysisSidecar> entry : batch.entrySet()) {
+            try {
+                entry.getValue().write(entry.getKey());
+                writeCount.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Could not write analysis file in " + entry.getKey(), e);
+            }
+            synchronized (this) {
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return number of analysis files written
+     */
+    long getWriteCount() {
+        return writeCount.get();
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void remember(File buildDir, AnalysisSidecar content) {
+        synchronized (loaded) {
+            loaded.put(buildDir, new SoftReference<>(content));
+        }
+    }
+
+    @Terminator
+    public static void flushOnShutdown() {
+        INSTANCE.flush();
+    }
+}
@@ -0,0 +1,250 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.util.concurrent.TimeUnit;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Where the time of one analysis went: extracting the error logs from the build log, waiting for
+ * a slot and the rate limits, and calling the provider, with the amount of log read, the estimated
+ * tokens sent and received, the model and the number of retries. Kept with the analysis so slow
+ * builds can be diagnosed one by one; {@link AnalysisMetrics} has the totals.
+ */
+@ExportedBean(defaultVisibility = 3)
+public final class AnalysisTrace {
+
+    private final String model;
+    private final long totalMillis;
+    private final long extractionMillis;
+    private final long matchMillis;
+    private final long queueMillis;
+    private final long providerMillis;
+    private final long firstFragmentMillis;
+    private final long backoffMillis;
+    private final long bytesRead;
+    private final long linesScanned;
+    private final long linesMatched;
+    private final int promptTokens;
+    private final int responseTokens;
+    private final int retries;
+    private final boolean cached;
+
+    AnalysisTrace(String model, long totalMillis, long extractionMillis, long matchMillis, long queueMillis,
+                  long providerMillis, long firstFragmentMillis, long backoffMillis, long bytesRead,
+                  long linesScanned, long linesMatched, int promptTokens, int responseTokens, int retries,
+                  boolean cached) {
+        this.model = model;
+        this.totalMillis = totalMillis;
+        this.extractionMillis = extractionMillis;
+        this.matchMillis = matchMillis;
+        this.queueMillis = queueMillis;
+        this.providerMillis = providerMillis;
+        this.firstFragmentMillis = firstFragmentMillis;
+        this.backoffMillis = backoffMillis;
+        this.bytesRead = bytesRead;
+        this.linesScanned = linesScanned;
+        this.linesMatched = linesMatched;
+        this.promptTokens = promptTokens;
+        this.responseTokens = responseTokens;
+        this.retries = retries;
+        this.cached = cached;
+    }
+
+    /**
+     * @return model the analysis was requested from
+     */
+    @Exported
+    public String getModel() {
+        return model;
+    }
+
+    /**
+     * @return time from the start of extraction until the analysis was complete
+     */
+    @Exported
+    public long getTotalMillis() {
+        return totalMillis;
+    }
+
+    /**
+     * @return time spent reading and filtering the log and fitting it to the prompt budget
+     */
+    @Exported
+    public long getExtractionMillis() {
+        return extractionMillis;
+    }
+
+    /**
+     * @return part of the extraction spent matching error patterns, estimated from a sample of lines
+     */
+    @Exported
+    public long getMatchMillis() {
+        return matchMillis;
+    }
+
+    /**
+     * @return time spent waiting for an {@link AnalysisScheduler} slot and the {@link RateLimiter}
+     */
+    @Exported
+    public long getQueueMillis() {
+        return queueMillis;
+    }
+
+    /**
+     * @return time spent in provider calls, over all attempts
+     */
+    @Exported
+    public long getProviderMillis() {
+        return providerMillis;
+    }
+
+    /**
+     * @return time from the request until the first streamed fragment, or -1 if the answer was not streamed
+     */
+    @Exported
+    public long getFirstFragmentMillis() {
+        return firstFragmentMillis;
+    }
+
+    /**
+     * @return time spent waiting between retries
+     */
+    @Exported
+    public long getBackoffMillis() {
+        return backoffMillis;
+    }
+
+    @Exported
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * @return log lines matched against the error patterns, 0 when the log was not filtered
+     */
+    @Exported
+    public long getLinesScanned() {
+        return linesScanned;
+    }
+
+    @Exported
+    public long getLinesMatched() {
+        return linesMatched;
+    }
+
+    /**
+     * @return estimated tokens of the prompt sent to the model
+     */
+    @Exported
+    public int getPromptTokens() {
+        return promptTokens;
+    }
+
+    /**
+     * @return estimated tokens of the analysis, 0 if it came from the cache
+     */
+    @Exported
+    public int getResponseTokens() {
+        return responseTokens;
+    }
+
+    @Exported
+    public int getRetries() {
+        return retries;
+    }
+
+    /**
+     * @return whether the analysis was answered from the {@link AnalysisCache} without calling the provider
+     */
+    @Exported
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * Collects the trace while an analysis runs. Not thread-safe.
+     */
+    public static final class Builder {
+
+        private String model;
+        private long totalNanos;
+        private long extractionNanos;
+        private long matchNanos;
+        private long queueNanos;
+        private long providerNanos;
+        private long firstFragmentNanos = -1;
+        private long backoffNanos;
+        private long bytesRead;
+        private long linesScanned;
+        private long linesMatched;
+        private int promptTokens;
+        private int responseTokens;
+        private int retries;
+        private boolean cached;
+
+        /**
+         * Adds a pass over the log.
+         * @param lineMatcher matcher used for the scan, or null if the log was not filtered
+         */
+        void logRead(long bytes, ErrorPatternMatcher.LineMatcher lineMatcher) {
+            bytesRead += bytes;
+            if (lineMatcher != null) {
+                matchNanos += lineMatcher.getEstimatedMatchNanos();
+                linesScanned += lineMatcher.getLines();
+                linesMatched += lineMatcher.getMatches();
+            }
+        }
+
+        void extraction(long nanos) {
+            extractionNanos = nanos;
+        }
+
+        void total(long nanos) {
+            totalNanos = nanos;
+        }
+
+        void model(String model) {
+            this.model = model;
+        }
+
+        void cached() {
+            cached = true;
+        }
+
+        void queued(long nanos) {
+            queueNanos += nanos;
+        }
+
+        /**
+         * Adds a provider call, successful or not.
+         * @param firstFragmentNanos time until the first streamed fragment, or -1
+         */
+        void providerCall(long firstFragmentNanos, long nanos) {
+            if (firstFragmentNanos >= 0 && this.firstFragmentNanos < 0) {
+                this.firstFragmentNanos = firstFragmentNanos;
+            }
+            providerNanos += nanos;
+        }
+
+        void retry(long backoffNanos) {
+            retries++;
+            this.backoffNanos += backoffNanos;
+        }
+
+        void tokens(int promptTokens, int responseTokens) {
+            this.promptTokens = promptTokens;
+            this.responseTokens = responseTokens;
+        }
+
+        public AnalysisTrace build() {
+            return new AnalysisTrace(model, millis(totalNanos), millis(extractionNanos), millis(matchNanos),
+                    millis(queueNanos), millis(providerNanos), firstFragmentNanos < 0 ? -1 : millis(firstFragmentNanos),
+                    millis(backoffNanos), bytesRead, linesScanned, linesMatched, promptTokens, responseTokens, retries,
+                    cached);
+        }
+
+        private static long millis(long nanos) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+    }
+}
@@ -3,14 +3,18 @@ package io.jenkins.plugins.gemini_jenkins_analyzer;
 import hudson.Extension;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import java.util.Set;
+import java.util.concurrent.Future;
+import jenkins.model.Jenkins;
 import org.jenkinsci.plugins.workflow.steps.Step;
 import org.jenkinsci.plugins.workflow.steps.StepContext;
 import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
 import org.jenkinsci.plugins.workflow.steps.StepExecution;
-import org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
+import org.springframework.security.core.Authentication;
 
 /**
  * Pipeline step to explain errors using AI.
@@ -90,10 +94,15 @@ public class AnalyzeErrorStep extends Step {
         }
     }
 
-    private static class AnalyzeErrorStepExecution extends SynchronousNonBlockingStepExecution<Void> {
+    /**
+     * Runs the analysis on the {@link AnalysisExecutors#stepExecutor() analysis executor} rather than a
+     * platform thread per step, so builds waiting for the AI provider hold only a virtual thread where available.
+     */
+    private static class AnalyzeErrorStepExecution extends StepExecution {
 
         private static final long serialVersionUID = 1L;
         private final transient AnalyzeErrorStep step;
+        private transient volatile Future<?> task;
 
         AnalyzeErrorStepExecution(StepContext context, AnalyzeErrorStep step) {
             super(context);
@@ -101,14 +110,34 @@ public class AnalyzeErrorStep extends Step {
         }
 
         @Override
-        protected Void run() throws Exception {
+        public boolean start() throws Exception {
             Run<?, ?> run = getContext().get(Run.class);
             TaskListener listener = getContext().get(TaskListener.class);
+            Authentication auth = Jenkins.getAuthentication2();
+            task = AnalysisExecutors.stepExecutor().submit(() -> {
+                try (ACLContext acl = ACL.as2(auth)) {
+                    ErrorAnalyzer explainer = new ErrorAnalyzer();
+                    explainer.analyzeError(run, listener, step.getLogPattern(), step.getErrorPatterns(), step.getMaxLines(), step.getContextLines());
+                    getContext().onSuccess(null);
+                } catch (Throwable t) {
+                    getContext().onFailure(t);
+                }
+            });
+            return false;
+        }
 
-            ErrorAnalyzer explainer = new ErrorAnalyzer();
-            explainer.analyzeError(run, listener, step.getLogPattern(), step.getErrorPatterns(), step.getMaxLines(), step.getContextLines());
+        @Override
+        public void stop(Throwable cause) throws Exception {
+            Future<?> running = task;
+            if (running != null) {
+                running.cancel(true);
+            }
+            super.stop(cause);
+        }
 
-            return null;
+        @Override
+        public void onResume() {
+            getContext().onFailure(new Exception("Resume after a restart not supported"));
         }
     }
 }
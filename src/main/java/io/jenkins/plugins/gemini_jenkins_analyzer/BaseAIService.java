@@ -4,8 +4,11 @@ import dev.langchain4j.model.input.Prompt;
 import dev.langchain4j.model.input.PromptTemplate;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 import org.apache.commons.lang3.StringUtils;
 
@@ -17,6 +20,19 @@ public abstract class BaseAIService {
 
     protected static final Logger LOGGER = Logger.getLogger(BaseAIService.class.getName());
 
+    /**
+     * Analyses whose provider call is running, by {@link AnalysisCache#key prompt key}.
+     */
+    private static final SingleFlight<String> IN_FLIGHT = new SingleFlight<>();
+
+    private static final String PROMPT_TEMPLATE =
+            "Senior dev: analyze this failure. Skip obvious stuff.\n\n"
+            + "{{errorLogs}}\n\n"
+            + "1. Root cause (environment/dependency/config issues only)\n"
+            + "2. Fix (1-2 sentences max)\n"
+            + "3. Prevention (if non-trivial)\n\n"
+            + "MAX 5 LINES TOTAL. Plain text only.";
+
     protected final GlobalConfigurationImpl config;
 
     public BaseAIService(GlobalConfigurationImpl config) {
@@ -34,8 +50,41 @@ public abstract class BaseAIService {
      * @throws IOException if there's a communication error
      */
     public String analyzeError(String errorLogs) throws IOException {
-        Assistant assistant;
+        return analyzeError(errorLogs, null);
+    }
 
+    /**
+     * Explain error logs, passing the analysis text to a listener as it is generated.
+     * @param errorLogs the error logs to explain
+     * @param onPartial receives successive fragments of the analysis, or null to only wait for the full response
+     * @return the AI analysis
+     * @throws IOException if there's a communication error
+     */
+    public String analyzeError(String errorLogs, Consumer<String> onPartial) throws IOException {
+        return analyzeError(errorLogs, onPartial, AnalysisScheduler.Priority.STEP);
+    }
+
+    /**
+     * Explain error logs, holding a slot in the {@link AnalysisScheduler} for each call to the AI provider.
+     * Cached analyses are returned without waiting.
+     * @param errorLogs the error logs to explain
+     * @param onPartial receives successive fragments of the analysis, or null to only wait for the full response
+     * @param priority priority class of the caller
+     * @return the AI analysis
+     * @throws AnalysisRejectedException if the scheduler turned the call away
+     * @throws InterruptedIOException if the calling thread was interrupted, e.g. because the build was aborted
+     * @throws IOException if there's a communication error
+     */
+    public String analyzeError(String errorLogs, Consumer<String> onPartial, AnalysisScheduler.Priority priority) throws IOException {
+        return analyzeError(errorLogs, onPartial, priority, new AnalysisTrace.Builder());
+    }
+
+    /**
+     * Same as {@link #analyzeError(String, Consumer, AnalysisScheduler.Priority)}, recording the
+     * model, waits, provider calls, retries and token counts in the trace.
+     */
+    public String analyzeError(String errorLogs, Consumer<String> onPartial, AnalysisScheduler.Priority priority,
+                               AnalysisTrace.Builder trace) throws IOException {
         if (StringUtils.isBlank(errorLogs)) {
             return "No error logs provided for analysis.";
         }
@@ -45,38 +94,263 @@ public abstract class BaseAIService {
             return "Unable to create assistant: API key is not configured.";
         }
 
-        try {
-           assistant = createAssistant();
-        } catch (Exception e) {
-            LOGGER.severe("Failed to create assistant: " + e.getMessage());
-            e.printStackTrace();
-            return "Unable to create assistant: " + e.getMessage() + ". Please check your API key and model configuration.";
-        }
-
         // Use PromptTemplate for dynamic prompt creation
-        PromptTemplate promptTemplate = PromptTemplate.from(
-            "Senior dev: analyze this failure. Skip obvious stuff.\n\n"
-            + "{{errorLogs}}\n\n"
-            + "1. Root cause (environment/dependency/config issues only)\n"
-            + "2. Fix (1-2 sentences max)\n"
-            + "3. Prevention (if non-trivial)\n\n"
-            + "MAX 5 LINES TOTAL. Plain text only."
-        );
+        PromptTemplate promptTemplate = PromptTemplate.from(PROMPT_TEMPLATE);
+
+        // Keep the whole prompt within the configured token budget
+        String promptLogs = fitToPromptBudget(errorLogs);
 
         Map<String, Object> variables = new HashMap<>();
-        variables.put("errorLogs", errorLogs);
+        variables.put("errorLogs", promptLogs);
         Prompt prompt = promptTemplate.apply(variables);
+        trace.model(getModelName());
 
+        // Identical failures across jobs and builds produce identical prompts
+        String promptKey = AnalysisCache.key(getModelName(), prompt.text());
+        int cacheTtlHours = config.getAnalysisCacheTtlHours();
+        int cacheMaxEntries = config.getAnalysisCacheMaxEntries();
+        boolean caching = cacheTtlHours > 0 && cacheMaxEntries > 0;
+        if (caching) {
+            String cached = AnalysisCache.get().lookup(promptKey, cacheTtlHours);
+            AnalysisMetrics.cacheLookup(cached != null);
+            if (cached != null) {
+                LOGGER.info("Using cached analysis for identical error logs");
+                trace.cached();
+                if (onPartial != null) {
+                    onPartial.accept(cached);
+                }
+                return cached;
+            }
+        }
+
+        // Requests sending the same prompt at the same time, from the step or the console, share one provider call
+        while (true) {
+            boolean[] led = new boolean[1];
+            try {
+                String analysis = IN_FLIGHT.execute(promptKey, () -> {
+                    led[0] = true;
+                    return requestAnalysis(prompt.text(), onPartial, priority, trace, caching ? promptKey : null, cacheMaxEntries);
+                });
+                if (!led[0]) {
+                    LOGGER.info("Joined an identical analysis already in flight");
+                    trace.tokens(PromptBuilder.estimateTokens(prompt.text()), PromptBuilder.estimateTokens(analysis));
+                    if (onPartial != null) {
+                        onPartial.accept(analysis);
+                    }
+                }
+                return analysis;
+            } catch (InterruptedIOException e) {
+                if (led[0] || Thread.currentThread().isInterrupted()) {
+                    throw e;
+                }
+                // The analysis this one joined was aborted with its build; this caller still wants one
+                LOGGER.fine("Joined analysis was interrupted, requesting it again");
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for an identical analysis");
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * Calls the provider for one prompt and caches the answer.
+     * @param cacheKey key to cache the answer under, or null if caching is off
+     * @return the analysis, or a message explaining why there is none
+     */
+    private String requestAnalysis(String prompt, Consumer<String> onPartial, AnalysisScheduler.Priority priority,
+                                   AnalysisTrace.Builder trace, String cacheKey, int cacheMaxEntries) throws IOException {
+        String analysis;
         try {
-            LOGGER.info("Sending request to AI service...");
-            String analysis = assistant.chat(prompt.text());
+            Assistant assistant = null;
+            if (onPartial == null) {
+                try {
+                   assistant = createAssistant();
+                } catch (Exception e) {
+                    LOGGER.severe("Failed to create assistant: " + e.getMessage());
+                    e.printStackTrace();
+                    return "Unable to create assistant: " + e.getMessage() + ". Please check your API key and model configuration.";
+                }
+            }
+            analysis = chatWithRetry(assistant, prompt, onPartial, priority, trace);
             LOGGER.info("Received response from AI service");
-            return analysis != null && !analysis.trim().isEmpty() ? analysis : "No response received from AI service.";
+        } catch (AnalysisRejectedException | ProviderUnavailableException e) {
+            throw e;
         } catch (Exception e) {
+            if (Thread.currentThread().isInterrupted() || RetryPolicy.isInterrupted(e)) {
+                throw interrupted(e);
+            }
             LOGGER.severe("AI API request failed: " + e.getMessage());
             e.printStackTrace();
             return "Failed to communicate with AI service: " + e.getMessage();
         }
+
+        if (analysis == null || analysis.trim().isEmpty()) {
+            return "No response received from AI service.";
+        }
+        trace.tokens(PromptBuilder.estimateTokens(prompt), PromptBuilder.estimateTokens(analysis));
+        if (cacheKey != null) {
+            AnalysisCache.get().store(cacheKey, analysis, cacheMaxEntries);
+        }
+        return analysis;
+    }
+
+    /**
+     * Sends the prompt within the configured rate limits, retrying rate limit, server, timeout and
+     * connection failures with backoff while the {@link CircuitBreaker} allows it. A stream that
+     * already delivered text is not retried, since the listener would see the text twice.
+     * Each attempt holds an {@link AnalysisScheduler} slot only while the provider is called, so
+     * waits for the rate limits and between retries leave it to other analyses.
+     * @param assistant assistant for a blocking call, or null when streaming to onPartial
+     * @throws AnalysisRejectedException if the scheduler turned an attempt away
+     * @throws ProviderUnavailableException if the provider kept failing or is considered down
+     */
+    private String chatWithRetry(Assistant assistant, String prompt, Consumer<String> onPartial,
+                                 AnalysisScheduler.Priority priority, AnalysisTrace.Builder trace) throws Exception {
+        int maxRetries = config.getMaxRetries();
+        int promptTokens = PromptBuilder.estimateTokens(prompt);
+        AnalysisMetrics.prompt(promptTokens);
+        for (int attempt = 1; ; attempt++) {
+            boolean trial;
+            try {
+                trial = CircuitBreaker.get().checkAllowed();
+            } catch (ProviderUnavailableException e) {
+                AnalysisMetrics.providerFailure("circuit_open");
+                throw e;
+            }
+            // A trial call that ends without an outcome, e.g. rejected by the scheduler or interrupted,
+            // must let the next call be the trial
+            boolean reported = false;
+            try {
+                long waited = System.nanoTime();
+                RateLimiter.get().acquire(promptTokens, config.getRequestsPerMinute(), config.getTokensPerMinute());
+                boolean[] streamed = new boolean[1];
+                long[] firstFragment = {-1};
+                Exception failure;
+                try (AnalysisScheduler.Permit permit = AnalysisScheduler.get().acquire(
+                        priority, config.getMaxConcurrentAnalyses(), config.getMaxQueuedAnalyses())) {
+                    long started = System.nanoTime();
+                    trace.queued(started - waited);
+                    try {
+                        String analysis;
+                        if (onPartial != null) {
+                            LOGGER.info("Streaming request to AI service...");
+                            analysis = streamChat(prompt, fragment -> {
+                                if (!streamed[0]) {
+                                    firstFragment[0] = System.nanoTime() - started;
+                                }
+                                streamed[0] = true;
+                                onPartial.accept(fragment);
+                            });
+                        } else {
+                            LOGGER.info("Sending request to AI service...");
+                            analysis = assistant.chat(prompt);
+                        }
+                        long elapsed = System.nanoTime() - started;
+                        AnalysisMetrics.providerCall(firstFragment[0], elapsed);
+                        trace.providerCall(firstFragment[0], elapsed);
+                        CircuitBreaker.get().onSuccess();
+                        reported = true;
+                        return analysis;
+                    } catch (Exception e) {
+                        // An aborted build interrupts the call; that says nothing about the provider
+                        if (Thread.currentThread().isInterrupted() || RetryPolicy.isInterrupted(e)) {
+                            throw interrupted(e);
+                        }
+                        trace.providerCall(firstFragment[0], System.nanoTime() - started);
+                        failure = e;
+                    }
+                }
+
+                // The slot is released; decide whether to wait and try again
+                Exception e = failure;
+                String cause = RetryPolicy.failureCause(e);
+                AnalysisMetrics.providerFailure(cause);
+                if (RetryPolicy.OTHER.equals(cause)) {
+                    if (RetryPolicy.isProviderResponse(e)) {
+                        // The provider answered; the request itself was wrong
+                        CircuitBreaker.get().onSuccess();
+                        reported = true;
+                    }
+                    throw e;
+                }
+                CircuitBreaker.get().onFailure(RetryPolicy.retryAfterMillis(e));
+                reported = true;
+                if (attempt > maxRetries || streamed[0]) {
+                    throw new ProviderUnavailableException("AI service is unavailable after " + attempt
+                            + (attempt == 1 ? " attempt: " : " attempts: ") + e.getMessage(), e);
+                }
+                long delay = RetryPolicy.delayMillis(e, attempt);
+                AnalysisMetrics.providerRetry();
+                trace.retry(TimeUnit.MILLISECONDS.toNanos(delay));
+                LOGGER.warning("AI request failed (" + e.getMessage() + "), retrying in " + delay + " ms");
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting to retry the AI request");
+                }
+            } finally {
+                if (trial && !reported) {
+                    CircuitBreaker.get().abandonTrial();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the failure of an interrupted call as an InterruptedIOException, keeping the thread's interrupt status
+     */
+    private static InterruptedIOException interrupted(Exception failure) {
+        Thread.currentThread().interrupt();
+        if (failure instanceof InterruptedIOException && RetryPolicy.isInterrupted(failure)) {
+            return (InterruptedIOException) failure;
+        }
+        InterruptedIOException interrupted = new InterruptedIOException("Interrupted while waiting for the AI service");
+        interrupted.initCause(failure);
+        return interrupted;
+    }
+
+    /**
+     * Trims error logs to the configured prompt token budget, leaving room for the prompt template.
+     * Logs that already fit are returned unchanged, so fitting twice is harmless.
+     * @return the logs as they will appear in the prompt
+     */
+    public String fitToPromptBudget(String errorLogs) {
+        int maxPromptTokens = config.getMaxPromptTokens();
+        if (maxPromptTokens <= 0 || errorLogs == null) {
+            return errorLogs;
+        }
+        int templateTokens = PromptBuilder.estimateTokens(PROMPT_TEMPLATE);
+        String promptLogs = PromptBuilder.fit(errorLogs, Math.max(1, maxPromptTokens - templateTokens));
+        if (promptLogs.length() < errorLogs.length()) {
+            LOGGER.info("Trimmed error logs from ~" + PromptBuilder.estimateTokens(errorLogs) + " to ~"
+                    + PromptBuilder.estimateTokens(promptLogs) + " tokens to fit the prompt budget");
+        }
+        return promptLogs;
+    }
+
+    /**
+     * Sends the prompt and passes the response to the listener as it arrives.
+     * Providers without streaming support deliver the whole response as a single fragment.
+     * @return the complete response
+     */
+    protected String streamChat(String prompt, Consumer<String> onPartial) throws Exception {
+        String response = createAssistant().chat(prompt);
+        if (response != null) {
+            onPartial.accept(response);
+        }
+        return response;
+    }
+
+    /**
+     * @return the model the provider will be called with, part of the analysis cache key
+     */
+    protected String getModelName() {
+        return config.getModel();
     }
 
     /**
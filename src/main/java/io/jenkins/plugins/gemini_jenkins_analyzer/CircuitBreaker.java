@@ -0,0 +1,121 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+
+/**
+ * Stops calling the AI provider for a while after repeated rate limit, server or timeout failures,
+ * so threads fail fast instead of piling up on a provider that is down. Once the open period is
+ * over a single trial call is let through; its outcome closes the breaker or opens it again.
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOGGER = Logger.getLogger(CircuitBreaker.class.getName());
+
+    static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    static final long DEFAULT_OPEN_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private static final CircuitBreaker INSTANCE = new CircuitBreaker(System::currentTimeMillis,
+            SystemProperties.getInteger(CircuitBreaker.class.getName() + ".failureThreshold", DEFAULT_FAILURE_THRESHOLD),
+            SystemProperties.getLong(CircuitBreaker.class.getName() + ".openMillis", DEFAULT_OPEN_MILLIS));
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final LongSupplier clock;
+    private final int failureThreshold;
+    private final long openMillis;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInFlight;
+    private long trialStartedAt;
+
+    CircuitBreaker(LongSupplier clock, int failureThreshold, long openMillis) {
+        this.clock = clock;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    public static CircuitBreaker get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Lets a call through, or fails fast while the provider is considered down.
+     * A call that is let through as the trial must report its outcome or {@link #abandonTrial()}.
+     * @return true if the call is the trial call of a half-open breaker
+     * @throws ProviderUnavailableException if the breaker is open or a trial call is already running
+     */
+    public synchronized boolean checkAllowed() throws ProviderUnavailableException {
+        long now = clock.getAsLong();
+        if (state == State.OPEN && now >= openUntil) {
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == State.HALF_OPEN && trialInFlight && now - trialStartedAt > openMillis) {
+            // The trial call never reported back
+            trialInFlight = false;
+        }
+        if (state == State.OPEN || (state == State.HALF_OPEN && trialInFlight)) {
+            long seconds = Math.max(1, TimeUnit.MILLISECONDS.toSeconds(openUntil - now));
+            throw new ProviderUnavailableException("AI provider is unavailable after repeated failures; try again in about "
+                    + seconds + "s");
+        }
+        if (state == State.HALF_OPEN) {
+            trialInFlight = true;
+            trialStartedAt = now;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Releases the trial of a call that ended without reaching the provider or learning anything
+     * about it, so the next call becomes the trial instead of waiting for the trial to time out.
+     */
+    public synchronized void abandonTrial() {
+        if (state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Records a call that reached the provider and got an answer, including errors that are not transient.
+     */
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            LOGGER.info("AI provider is answering again, closing the circuit breaker");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    /**
+     * Records a transient failure, opening the breaker once there were too many in a row
+     * or the trial call failed.
+     * @param retryAfterMillis delay the provider asked for, 0 if none; keeps the breaker open at least that long
+     */
+    public synchronized void onFailure(long retryAfterMillis) {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (failureThreshold > 0 && consecutiveFailures >= failureThreshold)) {
+            long openFor = Math.max(openMillis, retryAfterMillis);
+            if (state != State.OPEN) {
+                LOGGER.warning("AI provider failed " + consecutiveFailures + " times in a row, failing fast for "
+                        + TimeUnit.MILLISECONDS.toSeconds(openFor) + "s");
+            }
+            state = State.OPEN;
+            openUntil = clock.getAsLong() + openFor;
+            trialInFlight = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -5,6 +5,8 @@ import hudson.model.Action;
 import hudson.model.Run;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 import javax.servlet.ServletException;
 import org.kohsuke.stapler.StaplerRequest2;
@@ -42,7 +44,10 @@ public class ConsoleAnalyzeErrorAction implements Action {
 
     /**
      * AJAX endpoint to explain error from console output.
-     * Called via JavaScript from the console output page.
+     * Called via JavaScript from the console output page. The analysis runs in the background;
+     * the response carries a job id to poll through {@link #doAnalysisStatus}, or the stored
+     * analysis straight away when one exists and no new one was requested.
+     * Polling instead of server-sent events keeps request threads free while Gemini streams.
      */
     @RequirePOST
     public void doExplainConsoleError(StaplerRequest2 req, StaplerResponse2 rsp) throws ServletException, IOException {
@@ -56,7 +61,11 @@ public class ConsoleAnalyzeErrorAction implements Action {
             ErrorAnalysisAction existingAction = run.getAction(ErrorAnalysisAction.class);
             if (!forceNew && existingAction != null && existingAction.hasValidAnalysis()) {
                 // Return existing analysis with a flag indicating it's cached
-                writeJsonResponse(rsp, createCachedResponse(existingAction.getAnalysis()));
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("status", AnalysisJob.Status.COMPLETED.name());
+                response.put("cached", true);
+                response.put("result", createCachedResponse(existingAction.getAnalysis()));
+                writeJsonObject(rsp, response);
                 return;
             }
 
@@ -67,31 +76,72 @@ public class ConsoleAnalyzeErrorAction implements Action {
                 try { maxLines = Integer.parseInt(maxLinesParam); } catch (NumberFormatException ignore) {}
             }
 
-            // Use the new filtering method that applies regex patterns and bottom-up parsing
-            ErrorAnalyzer explainer = new ErrorAnalyzer();
-            String analysis = explainer.analyzeErrorWithFiltering(run, maxLines);
-
-            if (analysis != null && !analysis.trim().isEmpty()) {
-                // Fetch logs for storage (can be filtered or unfiltered depending on config)
-                java.util.List<String> logLines = run.getLog(maxLines);
-                String errorText = String.join("\n", logLines);
+            int lines = maxLines;
+            AnalysisJob job = AnalysisJobManager.get().submit(run.getExternalizableId(), "console:" + maxLines,
+                    handle -> runAnalysis(lines, handle));
+            writeJsonObject(rsp, createStatusResponse(job, 0));
+        } catch (Exception e) {
+            LOGGER.severe("=== EXPLAIN ERROR REQUEST FAILED ===");
+            LOGGER.severe("Error explaining console error: " + e.getMessage());
+            writeJsonResponse(rsp, "Error: " + e.getMessage());
+        }
+    }
 
-                // Save the analysis as a build action (like the sidebar functionality)
-                ErrorAnalysisAction action = new ErrorAnalysisAction(analysis, errorText);
-                run.addOrReplaceAction(action);
-                run.save();
+    /**
+     * AJAX endpoint to poll a background analysis started by {@link #doExplainConsoleError}.
+     * Returns JSON with the job status, the text streamed since the given offset,
+     * and the result or error once it has finished.
+     */
+    @RequirePOST
+    public void doAnalysisStatus(StaplerRequest2 req, StaplerResponse2 rsp) throws ServletException, IOException {
+        try {
+            run.checkPermission(hudson.model.Item.READ);
 
-                writeJsonResponse(rsp, analysis);
-            } else {
-                writeJsonResponse(rsp, "Error: Could not generate analysis. Please check your AI API configuration.");
+            AnalysisJob job = AnalysisJobManager.get().getJob(req.getParameter("jobId"));
+            // Only report jobs of this build, the caller was only checked against it
+            if (job == null || !job.getRunId().equals(run.getExternalizableId())) {
+                rsp.setStatus(404);
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("status", "UNKNOWN");
+                response.put("error", "Analysis not found or expired. Please start a new analysis.");
+                writeJsonObject(rsp, response);
+                return;
             }
+            int offset = 0;
+            String offsetParam = req.getParameter("offset");
+            if (offsetParam != null) {
+                try { offset = Integer.parseInt(offsetParam); } catch (NumberFormatException ignore) {}
+            }
+            writeJsonObject(rsp, createStatusResponse(job, offset));
         } catch (Exception e) {
-            LOGGER.severe("=== EXPLAIN ERROR REQUEST FAILED ===");
-            LOGGER.severe("Error explaining console error: " + e.getMessage());
+            LOGGER.severe("Error checking analysis status: " + e.getMessage());
+            rsp.setStatus(500);
             writeJsonResponse(rsp, "Error: " + e.getMessage());
         }
     }
 
+    /**
+     * Runs the analysis and stores it on the build. Called on the analysis executor.
+     */
+    private String runAnalysis(int maxLines, AnalysisJob job) throws IOException {
+        // Use the new filtering method that applies regex patterns and bottom-up parsing
+        ErrorAnalyzer explainer = new ErrorAnalyzer();
+        AnalysisResult result = explainer.analyzeFilteredErrors(run, maxLines, job::appendPartial);
+        String analysis = result.getAnalysis();
+
+        if (analysis == null || analysis.trim().isEmpty()) {
+            return "Error: Could not generate analysis. Please check your AI API configuration.";
+        }
+
+        // Keep the analysis with the logs it was generated from; written in the background, build.xml is not rewritten.
+        // Messages about an analysis that did not happen, such as an aborted one, have no input and are not kept
+        if (result.getInput() != null) {
+            AnalysisStore.get().save(run, analysis, result.getInput(), result.getTrace());
+        }
+
+        return analysis;
+    }
+
     /**
      * AJAX endpoint to get filtered error logs before sending to AI.
      * Returns the filtered logs based on configured patterns.
@@ -156,6 +206,7 @@ public class ConsoleAnalyzeErrorAction implements Action {
      * AJAX endpoint to check build status.
      * Returns JSON with buildingStatus to determine if button should be shown.
      * 1 = RUNNING (building), 2 = COMPLETED (show button for any completed build)
+     * While a build runs with live error detection, errorsDetected holds the errors found so far.
      */
     @RequirePOST
     public void doCheckBuildStatus(StaplerRequest2 req, StaplerResponse2 rsp) throws ServletException, IOException {
@@ -169,7 +220,10 @@ public class ConsoleAnalyzeErrorAction implements Action {
             rsp.setCharacterEncoding("UTF-8");
             PrintWriter writer = rsp.getWriter();
 
-            String response = String.format("{\"buildingStatus\": %s}", buildingStatus);
+            int errorsDetected = run.isBuilding() ? ErrorDetectionConsoleLogFilter.getLiveErrorCount(run) : -1;
+            String response = errorsDetected >= 0
+                    ? String.format("{\"buildingStatus\": %s, \"errorsDetected\": %d}", buildingStatus, errorsDetected)
+                    : String.format("{\"buildingStatus\": %s}", buildingStatus);
             writer.write(response);
             writer.flush();
         } catch (Exception e) {
@@ -194,6 +248,29 @@ public class ConsoleAnalyzeErrorAction implements Action {
         writer.flush();
     }
 
+    private void writeJsonObject(StaplerResponse2 rsp, Map<String, Object> response) throws IOException {
+        rsp.setContentType("application/json");
+        rsp.setCharacterEncoding("UTF-8");
+        PrintWriter writer = rsp.getWriter();
+        writer.write(new ObjectMapper().writeValueAsString(response));
+        writer.flush();
+    }
+
+    private Map<String, Object> createStatusResponse(AnalysisJob job, int offset) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("jobId", job.getId());
+        response.put("status", job.getStatus().name());
+        String partial = job.getPartial(offset);
+        response.put("partial", partial);
+        response.put("offset", offset + partial.length());
+        if (job.getStatus() == AnalysisJob.Status.COMPLETED) {
+            response.put("result", job.getResult());
+        } else if (job.getStatus() == AnalysisJob.Status.FAILED || job.getStatus() == AnalysisJob.Status.REJECTED) {
+            response.put("error", job.getError());
+        }
+        return response;
+    }
+
     /**
      * Create a response indicating this is a cached result.
      * @param analysis The cached analysis
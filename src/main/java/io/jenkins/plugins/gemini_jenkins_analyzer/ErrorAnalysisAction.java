@@ -1,24 +1,49 @@
 package io.jenkins.plugins.gemini_jenkins_analyzer;
 
+import hudson.model.Api;
 import hudson.model.Run;
 import jenkins.model.RunAction2;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
 
 /**
  * Build action to store and display error analysiss.
+ * New analyses are kept by the {@link AnalysisStore} and shown through {@link ErrorAnalysisActionFactory},
+ * so they are loaded when first shown rather than with the build. Actions saved in build.xml
+ * by earlier releases hold the analysis inline and are served from those fields.
+ * The timestamp and {@link AnalysisTrace} are exported to the remote API with the build.
  */
+@ExportedBean
 public class ErrorAnalysisAction implements RunAction2 {
 
+    // Only set for actions saved in build.xml by earlier releases
     private final String analysis;
     private final String originalErrorLogs;
     private final long timestamp;
     private transient Run<?, ?> run;
+    private transient boolean stored;
 
+    /**
+     * Action holding the analysis inline, as earlier releases saved it in build.xml.
+     * New analyses are saved with {@link AnalysisStore#save} instead.
+     */
     public ErrorAnalysisAction(String analysis, String originalErrorLogs) {
         this.analysis = analysis;
         this.originalErrorLogs = originalErrorLogs;
         this.timestamp = System.currentTimeMillis();
     }
 
+    /**
+     * Action for an analysis kept in the {@link AnalysisStore}.
+     */
+    ErrorAnalysisAction(Run<?, ?> run) {
+        this.run = run;
+        this.stored = true;
+        this.analysis = null;
+        this.originalErrorLogs = null;
+        this.timestamp = 0;
+    }
+
     @Override
     public String getIconFileName() {
         return "symbol-cube";
@@ -35,19 +60,39 @@ public class ErrorAnalysisAction implements RunAction2 {
     }
 
     public String getAnalysis() {
-        return analysis;
+        AnalysisSidecar payload = getPayload();
+        return payload != null ? payload.getAnalysis() : null;
     }
 
     public String getOriginalErrorLogs() {
-        return originalErrorLogs;
+        AnalysisSidecar payload = getPayload();
+        return payload != null ? payload.getErrorLogs() : null;
     }
 
+    @Exported(visibility = 2)
     public long getTimestamp() {
+        if (stored) {
+            AnalysisSidecar payload = getPayload();
+            return payload != null ? payload.getTimestamp() : 0;
+        }
         return timestamp;
     }
 
+    /**
+     * @return where the time of the analysis went, or null for analyses made before traces were kept
+     */
+    @Exported(visibility = 2)
+    public AnalysisTrace getTrace() {
+        AnalysisSidecar payload = getPayload();
+        return payload != null ? payload.getTrace() : null;
+    }
+
+    public Api getApi() {
+        return new Api(this);
+    }
+
     public String getFormattedTimestamp() {
-        return new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new java.util.Date(timestamp));
+        return new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss").format(new java.util.Date(getTimestamp()));
     }
 
     @Override
@@ -73,6 +118,14 @@ public class ErrorAnalysisAction implements RunAction2 {
      * @return true if analysis is not null, not empty, and not just whitespace
      */
     public boolean hasValidAnalysis() {
-        return analysis != null && !analysis.trim().isEmpty();
+        String text = getAnalysis();
+        return text != null && !text.trim().isEmpty();
+    }
+
+    private AnalysisSidecar getPayload() {
+        if (stored) {
+            return AnalysisStore.get().load(run.getRootDir());
+        }
+        return new AnalysisSidecar(analysis, originalErrorLogs);
     }
 }
@@ -0,0 +1,46 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import hudson.Extension;
+import hudson.model.Action;
+import hudson.model.Run;
+import jenkins.model.TransientActionFactory;
+import java.util.Collection;
+import java.util.Collections;
+import javax.annotation.Nonnull;
+
+/**
+ * Factory to show analyses kept in the {@link AnalysisStore} on their builds.
+ * Builds that still have an analysis saved in build.xml show that one instead.
+ */
+@Extension
+public class ErrorAnalysisActionFactory extends TransientActionFactory<Run<?, ?>> {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Class<Run<?, ?>> type() {
+        return (Class<Run<?, ?>>) (Class<?>) Run.class;
+    }
+
+    /**
+     * Lets lookups for other action types skip this factory, which checks the store on disk.
+     */
+    @Override
+    public Class<? extends Action> actionType() {
+        return ErrorAnalysisAction.class;
+    }
+
+    @Nonnull
+    @Override
+    public Collection<? extends Action> createFor(Run<?, ?> target) {
+        // getActions() only holds persisted actions, so this does not recurse into factories
+        for (Action action : target.getActions()) {
+            if (action instanceof ErrorAnalysisAction) {
+                return Collections.emptyList();
+            }
+        }
+        if (!AnalysisStore.get().has(target.getRootDir())) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(new ErrorAnalysisAction(target));
+    }
+}
@@ -2,12 +2,23 @@ package io.jenkins.plugins.gemini_jenkins_analyzer;
 
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -29,25 +40,35 @@ public class ErrorAnalyzer {
             }
 
             // Extract error logs with context - errorPatterns parameter takes priority over config
-            String errorLogs = extractErrorLogsWithContext(run, logPattern, errorPatterns, maxLines, contextLines);
+            long started = System.nanoTime();
+            Map<String, Integer> patternHits = new LinkedHashMap<>();
+            AnalysisTrace.Builder trace = new AnalysisTrace.Builder();
+            String errorLogs = normalize(run, config,
+                    extractErrorLogsWithContext(run, logPattern, errorPatterns, maxLines, contextLines, patternHits, trace));
 
             if (StringUtils.isBlank(errorLogs)) {
                 listener.getLogger().println("No error logs found to explain.");
                 return;
             }
 
-            // Get AI analysis
-            AIService aiService = new AIService(config);
-            String analysis = aiService.analyzeError(errorLogs);
-            LOGGER.info(jobInfo + " AI error analysis succeeded.");
+            // Get AI analysis; an identical prompt already sent by the console or another step is joined
+            AnalysisResult result = analyze(run, config, errorLogs, null, AnalysisScheduler.Priority.STEP, started, patternHits, trace);
 
-            // Store analysis in build action
-            ErrorAnalysisAction action = new ErrorAnalysisAction(analysis, errorLogs);
-            run.addOrReplaceAction(action);
+            // Store analysis with the build
+            AnalysisStore.get().save(run, result.getAnalysis(), result.getInput(), result.getTrace());
+            LOGGER.info(jobInfo + " AI error analysis succeeded.");
 
             // Analysis is now available on the job page, no need to clutter console output
 
+        } catch (AnalysisRejectedException | ProviderUnavailableException e) {
+            LOGGER.warning(jobInfo + " AI error analysis skipped: " + e.getMessage());
+            listener.getLogger().println(jobInfo + " AI error analysis skipped: " + e.getMessage());
         } catch (Exception e) {
+            if (RetryPolicy.isInterrupted(e)) {
+                LOGGER.info(jobInfo + " AI error analysis aborted");
+                listener.getLogger().println(jobInfo + " AI error analysis aborted.");
+                return;
+            }
             LOGGER.severe(jobInfo + " Failed to explain error: " + e.getMessage());
             listener.getLogger().println(jobInfo + " Failed to explain error: " + e.getMessage());
         }
@@ -57,202 +78,312 @@ public class ErrorAnalyzer {
      * Extract error logs with surrounding context.
      * Captures contextLines before and after each error, forming error blocks.
      * An error block ends when we haven't seen an error for contextLines.
+     * The log is streamed line by line, so memory use depends on maxLines and contextLines only.
      */
-    private String extractErrorLogsWithContext(Run<?, ?> run, String logPattern, String errorPatterns, int maxLines, int contextLines) throws IOException {
-        List<String> patternsToUse = new ArrayList<>();
-
-        // Priority 1: errorPatterns parameter (newline-separated)
-        if (!StringUtils.isBlank(errorPatterns)) {
-            String[] patternLines = errorPatterns.split("\\r?\\n");
-            for (String pattern : patternLines) {
-                if (!StringUtils.isBlank(pattern)) {
-                    patternsToUse.add(pattern.trim());
-                }
-            }
-        } else {
-            // Priority 2: Check job property
-            ErrorPatternProperty property = run.getParent().getProperty(ErrorPatternProperty.class);
-            if (property != null && !StringUtils.isBlank(property.getErrorPatterns())) {
-                String[] patternLines = property.getErrorPatterns().split("\\r?\\n");
-                for (String pattern : patternLines) {
-                    if (!StringUtils.isBlank(pattern)) {
-                        patternsToUse.add(pattern.trim());
-                    }
-                }
-            }
-        }
+    private String extractErrorLogsWithContext(Run<?, ?> run, String logPattern, String errorPatterns, int maxLines, int contextLines,
+                                               Map<String, Integer> hitsByPattern, AnalysisTrace.Builder trace) throws IOException {
+        long started = System.nanoTime();
+        ErrorPatternMatcher patternMatcher = compilePatterns(run, errorPatterns);
 
         // If no patterns configured, return the last maxLines unfiltered
-        if (patternsToUse.isEmpty()) {
-            List<String> logLines = run.getLog(maxLines);
-            return String.join("\n", logLines);
+        if (patternMatcher.isEmpty()) {
+            return readUnfiltered(run, maxLines, started, trace);
         }
 
-        // Compile all patterns
-        List<Pattern> compiledPatterns = new ArrayList<>();
-        for (String patternStr : patternsToUse) {
-            if (!StringUtils.isBlank(patternStr)) {
-                compiledPatterns.add(Pattern.compile(patternStr.trim(), Pattern.CASE_INSENSITIVE));
+        int fetchLimit = Math.max(maxLines * 10, 10000);
+        ErrorPatternMatcher.LineMatcher lineMatcher = patternMatcher.newLineMatcher();
+        int[] patternHits = new int[patternMatcher.size()];
+
+        // Read only the error lines and their context once the build's errors are indexed
+        File logFile = ReverseLogReader.getLogFile(run);
+        ErrorIndex index = logFile != null ? ErrorIndex.loadOrBuildLater(run, logFile, patternMatcher) : null;
+        if (index != null) {
+            String indexed = collectIndexedBlocks(run.getCharset(), logFile, index, lineMatcher, patternHits, maxLines, contextLines, fetchLimit);
+            if (indexed != null) {
+                reportPatternHits(run, patternMatcher, patternHits, hitsByPattern);
+                recordExtraction(run, trace, started, indexed.length(), lineMatcher);
+                return indexed;
             }
+            Arrays.fill(patternHits, 0);
         }
 
-        if (compiledPatterns.isEmpty()) {
-            List<String> logLines = run.getLog(maxLines);
-            return String.join("\n", logLines);
+        String blocks;
+        long bytes;
+        try (LogLineReader reader = LogLineReader.openTail(run, fetchLimit)) {
+            long from = reader.getOffset();
+            blocks = collectBlocks(reader, lineMatcher, patternHits, maxLines, contextLines);
+            bytes = reader.getOffset() - from;
+        }
+        reportPatternHits(run, patternMatcher, patternHits, hitsByPattern);
+        recordExtraction(run, trace, started, bytes, lineMatcher);
+        return blocks;
+    }
+
+    private String extractErrorLogs(Run<?, ?> run, String logPattern, String errorPatterns, int maxLines,
+                                    Map<String, Integer> hitsByPattern, AnalysisTrace.Builder trace) throws IOException {
+        long started = System.nanoTime();
+        ErrorPatternMatcher patternMatcher = compilePatterns(run, errorPatterns);
+
+        // If no patterns configured, return the last maxLines unfiltered
+        if (patternMatcher.isEmpty()) {
+            return readUnfiltered(run, maxLines, started, trace);
         }
 
-        // Get all log lines
+        // Scan the same tail window as before, keeping only the newest maxLines matches
         int fetchLimit = Math.max(maxLines * 10, 10000);
-        List<String> allLogLines = run.getLog(fetchLimit);
-
-        // Build error blocks with context
-        List<String> outputLines = new ArrayList<>();
-        List<String> contextBuffer = new ArrayList<>();
-        int linesSinceLastError = contextLines + 1; // Start with no active block
-        int errorCount = 0;
-        int totalLinesAdded = 0;
-
-        for (int i = 0; i < allLogLines.size() && totalLinesAdded < maxLines; i++) {
-            String line = allLogLines.get(i);
-            boolean isError = false;
-
-            // Check if this line matches any error pattern
-            for (Pattern pattern : compiledPatterns) {
-                if (pattern.matcher(line).find()) {
-                    isError = true;
-                    errorCount++;
-                    break;
-                }
+        ArrayDeque<String> matchedLines = new ArrayDeque<>();
+        ErrorPatternMatcher.LineMatcher lineMatcher = patternMatcher.newLineMatcher();
+        int[] patternHits = new int[patternMatcher.size()];
+
+        // Read the error lines straight from their offsets once the build's errors are indexed
+        File logFile = ReverseLogReader.getLogFile(run);
+        ErrorIndex index = logFile != null ? ErrorIndex.loadOrBuildLater(run, logFile, patternMatcher) : null;
+        if (index != null) {
+            List<String> indexed = readIndexedLines(run.getCharset(), logFile, index, lineMatcher, patternHits, maxLines, fetchLimit);
+            if (indexed != null) {
+                reportPatternHits(run, patternMatcher, patternHits, hitsByPattern);
+                String lines = String.join("\n", indexed);
+                recordExtraction(run, trace, started, lines.length(), lineMatcher);
+                return lines;
             }
+            Arrays.fill(patternHits, 0);
+        }
 
-            if (isError) {
-                // Found an error line
-                // If starting a new block, add buffered context first
-                if (linesSinceLastError > contextLines && !contextBuffer.isEmpty()) {
-                    // Add separator for new block
-                    if (!outputLines.isEmpty()) {
-                        outputLines.add("");
-                        outputLines.add("--- Error Block " + (errorCount > 1 ? "" : "---"));
-                        outputLines.add("");
-                        totalLinesAdded += 3;
-                    }
-                    // Add context before error
-                    int contextToAdd = Math.min(contextBuffer.size(), contextLines);
-                    for (int j = Math.max(0, contextBuffer.size() - contextToAdd); j < contextBuffer.size() && totalLinesAdded < maxLines; j++) {
-                        outputLines.add(contextBuffer.get(j));
-                        totalLinesAdded++;
-                    }
-                }
+        // Parse bottom-up straight from the log file when possible, stopping at maxLines matches
+        try (ReverseLogReader reverse = ReverseLogReader.open(run)) {
+            if (reverse != null) {
+                List<String> newest = collectNewestMatches(reverse, lineMatcher, patternHits, maxLines, fetchLimit);
+                reportPatternHits(run, patternMatcher, patternHits, hitsByPattern);
+                recordExtraction(run, trace, started, reverse.getBytesRead(), lineMatcher);
+                return String.join("\n", newest);
+            }
+        }
 
-                // Add the error line with marker
-                if (totalLinesAdded < maxLines) {
-                    outputLines.add(">>> ERROR: " + line);
-                    totalLinesAdded++;
-                }
-                linesSinceLastError = 0;
-                contextBuffer.clear();
-            } else {
-                // Non-error line
-                linesSinceLastError++;
-
-                if (linesSinceLastError <= contextLines) {
-                    // Within context window after error - add directly to output
-                    if (totalLinesAdded < maxLines) {
-                        outputLines.add(line);
-                        totalLinesAdded++;
-                    }
-                } else {
-                    // Outside context window - buffer for potential next error
-                    contextBuffer.add(line);
-                    // Keep buffer size limited
-                    if (contextBuffer.size() > contextLines) {
-                        contextBuffer.remove(0);
+        // Non-file log storage: stream the window forwards
+        long bytes;
+        try (LogLineReader reader = LogLineReader.openTail(run, fetchLimit)) {
+            long from = reader.getOffset();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int matched = lineMatcher.match(line);
+                if (matched >= 0) {
+                    patternHits[matched]++;
+                    matchedLines.addLast(line);
+                    if (matchedLines.size() > maxLines) {
+                        matchedLines.removeFirst();
                     }
                 }
             }
+            bytes = reader.getOffset() - from;
         }
 
-        if (outputLines.isEmpty()) {
-            return "";
-        }
+        reportPatternHits(run, patternMatcher, patternHits, hitsByPattern);
+        recordExtraction(run, trace, started, bytes, lineMatcher);
+        return String.join("\n", matchedLines);
+    }
 
-        // Add explanation header
-        StringBuilder result = new StringBuilder();
-        result.append("=== ERROR ANALYSIS ===\n");
-        result.append("Note: Lines marked with '>>> ERROR:' matched configured error patterns.\n");
-        result.append("Context of ").append(contextLines).append(" lines is shown before and after each error.\n");
-        result.append("\n");
-        result.append(String.join("\n", outputLines));
+    /**
+     * Returns the last maxLines of the log, for jobs without error patterns.
+     */
+    private static String readUnfiltered(Run<?, ?> run, int maxLines, long started, AnalysisTrace.Builder trace) throws IOException {
+        String tail = String.join("\n", run.getLog(maxLines));
+        recordExtraction(run, trace, started, tail.length(), null);
+        return tail;
+    }
 
-        return result.toString();
+    /**
+     * Records a pass over the log in the metrics and, if given, the trace.
+     * @param started {@link System#nanoTime()} when extraction started
+     * @param lineMatcher matcher used for the scan, or null if the log was not filtered
+     */
+    private static void recordExtraction(Run<?, ?> run, AnalysisTrace.Builder trace, long started, long bytes,
+                                         ErrorPatternMatcher.LineMatcher lineMatcher) {
+        AnalysisMetrics.extraction(run, System.nanoTime() - started, bytes, lineMatcher);
+        if (trace != null) {
+            trace.logRead(bytes, lineMatcher);
+        }
     }
 
-    private String extractErrorLogs(Run<?, ?> run, String logPattern, String errorPatterns, int maxLines) throws IOException {
-        List<String> patternsToUse = new ArrayList<>();
+    /**
+     * Reads the reader to the end, or until maxLines are collected, grouping error lines and their context into blocks.
+     */
+    static String collectBlocks(LogLineReader reader, ErrorPatternMatcher.LineMatcher lineMatcher, int[] patternHits,
+                                int maxLines, int contextLines) throws IOException {
+        ErrorBlockCollector collector = new ErrorBlockCollector(maxLines, contextLines);
+        String line;
+        while (!collector.isFull() && (line = reader.readLine()) != null) {
+            int matched = lineMatcher.match(line);
+            if (matched >= 0) {
+                patternHits[matched]++;
+            }
+            collector.accept(line, matched >= 0);
+        }
+        return collector.getResult();
+    }
 
-        // Priority 1: errorPatterns parameter (newline-separated)
-        if (!StringUtils.isBlank(errorPatterns)) {
-            String[] patternLines = errorPatterns.split("\\r?\\n");
-            for (String pattern : patternLines) {
-                if (!StringUtils.isBlank(pattern)) {
-                    patternsToUse.add(pattern.trim());
-                }
+    /**
+     * Reads up to fetchLimit lines backwards from the reader's position, stopping at maxLines matches.
+     * @return the matching lines in log order
+     */
+    static List<String> collectNewestMatches(ReverseLogReader reverse, ErrorPatternMatcher.LineMatcher lineMatcher,
+                                             int[] patternHits, int maxLines, int fetchLimit) throws IOException {
+        ArrayDeque<String> matchedLines = new ArrayDeque<>();
+        String line;
+        for (int i = 0; i < fetchLimit && matchedLines.size() < maxLines && (line = reverse.readPreviousLine()) != null; i++) {
+            int matched = lineMatcher.match(line);
+            if (matched >= 0) {
+                patternHits[matched]++;
+                matchedLines.addFirst(line);
             }
-        } else {
-            // Priority 2: Check job property
-            ErrorPatternProperty property = run.getParent().getProperty(ErrorPatternProperty.class);
-            if (property != null && !StringUtils.isBlank(property.getErrorPatterns())) {
-                String[] patternLines = property.getErrorPatterns().split("\\r?\\n");
-                for (String pattern : patternLines) {
-                    if (!StringUtils.isBlank(pattern)) {
-                        patternsToUse.add(pattern.trim());
+        }
+        return new ArrayList<>(matchedLines);
+    }
+
+    /**
+     * Builds the same error blocks as a scan of the last fetchLimit lines, reading only the
+     * indexed error lines and their context. Runs of lines outside any block are skipped by seeking.
+     * @return the blocks, or null if the index does not agree with the log and a scan is needed
+     */
+    static String collectIndexedBlocks(Charset charset, File logFile, ErrorIndex index,
+                                       ErrorPatternMatcher.LineMatcher lineMatcher, int[] patternHits,
+                                       int maxLines, int contextLines, int fetchLimit) throws IOException {
+        ErrorBlockCollector collector = new ErrorBlockCollector(maxLines, contextLines);
+        long next = Math.max(0, index.getTotalLines() - fetchLimit);
+        if (next < index.getFirstLine()) {
+            return null; // the index no longer has the oldest errors of the window
+        }
+        int entry = index.firstEntryFrom(next);
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ);
+             ReverseLogReader reverse = new ReverseLogReader(logFile, charset)) {
+            while (entry < index.size() && !collector.isFull()) {
+                // Find where the context before this error starts
+                long regionStart = Math.max(next, index.getLine(entry) - contextLines);
+                reverse.seek(index.getOffset(entry));
+                reverse.skipPreviousLines(index.getLine(entry) - regionStart);
+                long regionOffset = reverse.getLineStartOffset();
+                collector.skip(regionStart - next);
+
+                // Read forward until the context after the last error of this run of blocks ends
+                channel.position(regionOffset);
+                LogLineReader reader = new LogLineReader(Channels.newInputStream(channel), charset, regionOffset, regionStart);
+                long regionEnd = index.getLine(entry) + contextLines;
+                String line;
+                while (!collector.isFull() && (line = reader.readLine()) != null) {
+                    long lineNumber = reader.getLineNumber();
+                    boolean isError = entry < index.size() && index.getLine(entry) == lineNumber;
+                    if (isError) {
+                        int patternId = index.getPatternId(entry);
+                        if (lineMatcher.match(line) != patternId) {
+                            LOGGER.fine("Error index does not match the log, scanning instead");
+                            return null;
+                        }
+                        patternHits[patternId]++;
+                        regionEnd = lineNumber + contextLines;
+                        entry++;
+                    }
+                    collector.accept(line, isError);
+                    next = lineNumber + 1;
+                    if (lineNumber >= regionEnd
+                            && (entry >= index.size() || index.getLine(entry) - contextLines > next)) {
+                        break;
                     }
                 }
+                if (next <= regionStart) {
+                    return null; // log ended before the indexed line
+                }
             }
         }
+        return collector.getResult();
+    }
 
-        // If no patterns configured, return the last maxLines unfiltered
-        if (patternsToUse.isEmpty()) {
-            List<String> logLines = run.getLog(maxLines);
-            return String.join("\n", logLines);
+    /**
+     * Reads the newest maxLines indexed error lines within the last fetchLimit lines of the log,
+     * the same window the bottom-up scan covers.
+     * @return the lines, or null if the index does not agree with the log and a scan is needed
+     */
+    static List<String> readIndexedLines(Charset charset, File logFile, ErrorIndex index,
+                                         ErrorPatternMatcher.LineMatcher lineMatcher, int[] patternHits,
+                                         int maxLines, int fetchLimit) throws IOException {
+        int end = index.size();
+        long windowStart = index.getTotalLines() - fetchLimit;
+        if (windowStart < index.getFirstLine() && end < maxLines) {
+            return null; // the newest maxLines errors of the window were not all kept
         }
-
-        // Compile all patterns
-        List<Pattern> compiledPatterns = new ArrayList<>();
-        for (String patternStr : patternsToUse) {
-            if (!StringUtils.isBlank(patternStr)) {
-                compiledPatterns.add(Pattern.compile(patternStr.trim(), Pattern.CASE_INSENSITIVE));
+        int start = Math.max(index.firstEntryFrom(windowStart), end - maxLines);
+        List<String> lines = index.readLines(logFile, charset, start, end);
+        for (int i = 0; i < lines.size(); i++) {
+            int patternId = index.getPatternId(start + i);
+            if (lineMatcher.match(lines.get(i)) != patternId) {
+                LOGGER.fine("Error index does not match the log, scanning instead");
+                return null;
             }
+            patternHits[patternId]++;
         }
+        return lines;
+    }
+
+    /**
+     * Resolves the error patterns to use for a run and looks up their compiled form.
+     * The errorPatterns parameter (newline-separated) takes priority over the job property.
+     */
+    private ErrorPatternMatcher compilePatterns(Run<?, ?> run, String errorPatterns) {
+        return ErrorPatternCache.get(resolvePatterns(run, errorPatterns));
+    }
 
-        if (compiledPatterns.isEmpty()) {
-            List<String> logLines = run.getLog(maxLines);
-            return String.join("\n", logLines);
+    static String resolvePatterns(Run<?, ?> run, String errorPatterns) {
+        if (StringUtils.isNotBlank(errorPatterns)) {
+            return errorPatterns;
         }
+        ErrorPatternProperty property = run.getParent().getProperty(ErrorPatternProperty.class);
+        return property != null ? property.getErrorPatterns() : null;
+    }
 
-        // Get a large number of log lines to ensure we have enough to parse
-        // We use 10x maxLines as a reasonable upper bound
-        int fetchLimit = Math.max(maxLines * 10, 10000);
-        List<String> allLogLines = run.getLog(fetchLimit);
-
-        // Parse bottom-up: start from the end and work backwards
-        List<String> matchedLines = new ArrayList<>();
-        for (int i = allLogLines.size() - 1; i >= 0 && matchedLines.size() < maxLines; i--) {
-            String line = allLogLines.get(i);
-
-            // Check if line matches any of the patterns
-            for (Pattern pattern : compiledPatterns) {
-                if (pattern.matcher(line).find()) {
-                    matchedLines.add(line);
-                    break; // Don't add the same line multiple times
+    /**
+     * Logs the pattern hits and adds them to hitsByPattern, if given.
+     */
+    private static void reportPatternHits(Run<?, ?> run, ErrorPatternMatcher patternMatcher, int[] patternHits,
+                                          Map<String, Integer> hitsByPattern) {
+        if (hitsByPattern != null) {
+            for (int i = 0; i < patternHits.length; i++) {
+                if (patternHits[i] > 0) {
+                    hitsByPattern.merge(patternMatcher.getPatterns().get(i), patternHits[i], Integer::sum);
                 }
             }
         }
+        if (!LOGGER.isLoggable(Level.FINE)) {
+            return;
+        }
+        StringBuilder summary = new StringBuilder("[" + run.getParent().getFullName() + " #" + run.getNumber() + "] Pattern hits:");
+        for (int i = 0; i < patternHits.length; i++) {
+            if (patternHits[i] > 0) {
+                summary.append("\n  ").append(patternHits[i]).append(" x ").append(patternMatcher.getPatterns().get(i));
+            }
+        }
+        LOGGER.fine(summary.toString());
+    }
 
-        // Reverse to restore chronological order (oldest to newest)
-        Collections.reverse(matchedLines);
-
-        return String.join("\n", matchedLines);
+    /**
+     * Fits the extracted logs to the prompt budget and asks the model about them.
+     * @param started {@link System#nanoTime()} when extraction started
+     * @param trace trace of the extraction, completed with the AI call
+     */
+    private static AnalysisResult analyze(Run<?, ?> run, GlobalConfigurationImpl config, String errorLogs, Consumer<String> onPartial,
+                                          AnalysisScheduler.Priority priority, long started,
+                                          Map<String, Integer> patternHits, AnalysisTrace.Builder trace) throws IOException {
+        AIService aiService = new AIService(config);
+        String input = aiService.fitToPromptBudget(errorLogs);
+        long extracted = System.nanoTime();
+        trace.extraction(extracted - started);
+        String analysis = aiService.analyzeError(input, onPartial, priority, trace);
+        if (Thread.currentThread().isInterrupted()) {
+            // Whatever came back from an aborted analysis must not be stored as the build's analysis
+            throw new InterruptedIOException("AI error analysis was interrupted");
+        }
+        long finished = System.nanoTime();
+        trace.total(finished - started);
+        AnalysisMetrics.analysis(run, PromptBuilder.estimateTokens(input), finished - extracted);
+        return new AnalysisResult(input, analysis, TimeUnit.NANOSECONDS.toMillis(extracted - started),
+                TimeUnit.NANOSECONDS.toMillis(finished - extracted), patternHits, trace.build());
     }
 
     /**
@@ -260,6 +391,26 @@ public class ErrorAnalyzer {
      * Used for console output error analysis with regex filtering.
      */
     public String analyzeErrorWithFiltering(Run<?, ?> run, int maxLines) throws IOException {
+        return analyzeErrorWithFiltering(run, maxLines, null);
+    }
+
+    /**
+     * Same as {@link #analyzeErrorWithFiltering(Run, int)}, passing the analysis to a listener while it is generated.
+     * A caller that joins an analysis already in flight only gets the final result.
+     */
+    public String analyzeErrorWithFiltering(Run<?, ?> run, int maxLines, Consumer<String> onPartial) throws IOException {
+        return analyzeFilteredErrors(run, maxLines, onPartial).getAnalysis();
+    }
+
+    /**
+     * Same as {@link #analyzeErrorWithFiltering(Run, int, Consumer)}, returning the logs sent to the model
+     * along with the analysis so callers can keep them without reading the log again.
+     * Configuration problems and failures are reported as {@link AnalysisResult#message(String)}.
+     * @throws AnalysisRejectedException if the {@link AnalysisScheduler} or {@link RateLimiter} turned the analysis away
+     * @throws ProviderUnavailableException if the AI provider is overloaded or down
+     */
+    public AnalysisResult analyzeFilteredErrors(Run<?, ?> run, int maxLines, Consumer<String> onPartial)
+            throws AnalysisRejectedException, ProviderUnavailableException {
         String jobInfo = run != null ? ("[" + run.getParent().getFullName() + " #" + run.getNumber() + "]") : "[unknown]";
 
         try {
@@ -267,33 +418,42 @@ public class ErrorAnalyzer {
 
             if (!config.isEnableAnalysis()) {
                 LOGGER.warning("AI error analysis is disabled in global configuration");
-                return "AI error analysis is disabled in global configuration.";
+                return AnalysisResult.message("AI error analysis is disabled in global configuration.");
             }
 
             if (config.getApiKey() == null || StringUtils.isBlank(config.getApiKey().getPlainText())) {
                 LOGGER.warning("API key is not configured");
-                return "ERROR: API key is not configured. Please configure it in Jenkins global settings.";
+                return AnalysisResult.message("ERROR: API key is not configured. Please configure it in Jenkins global settings.");
             }
 
             // Extract error logs using the same logic as the pipeline step
-            String errorLogs = extractErrorLogs(run, null, null, maxLines);
+            long started = System.nanoTime();
+            Map<String, Integer> patternHits = new LinkedHashMap<>();
+            AnalysisTrace.Builder trace = new AnalysisTrace.Builder();
+            String errorLogs = normalize(run, config, extractErrorLogs(run, null, null, maxLines, patternHits, trace));
 
             if (StringUtils.isBlank(errorLogs)) {
                 LOGGER.warning("No error logs found to explain");
-                return "No error logs found to explain.";
+                return AnalysisResult.message("No error logs found to explain.");
             }
 
-            // Get AI analysis
-            AIService aiService = new AIService(config);
-            String analysis = aiService.analyzeError(errorLogs);
+            // Get AI analysis; an identical prompt already sent by a step or another console is joined
+            AnalysisResult result = analyze(run, config, errorLogs, onPartial, AnalysisScheduler.Priority.INTERACTIVE, started, patternHits, trace);
             LOGGER.info(jobInfo + " AI error analysis succeeded.");
-            LOGGER.fine("Analysis length: " + (analysis != null ? analysis.length() : 0));
+            LOGGER.fine("Analysis length: " + (result.getAnalysis() != null ? result.getAnalysis().length() : 0)
+                    + ", extraction " + result.getExtractionMillis() + " ms, AI call " + result.getAnalysisMillis() + " ms");
 
-            return analysis;
+            return result;
+        } catch (AnalysisRejectedException | ProviderUnavailableException e) {
+            throw e;
         } catch (Exception e) {
+            if (RetryPolicy.isInterrupted(e)) {
+                LOGGER.info(jobInfo + " AI error analysis aborted");
+                return AnalysisResult.message("AI error analysis was aborted.");
+            }
             LOGGER.severe(jobInfo + " Failed to explain error: " + e.getMessage());
             e.printStackTrace();
-            return "Failed to explain error: " + e.getMessage();
+            return AnalysisResult.message("Failed to explain error: " + e.getMessage());
         }
     }
 
@@ -322,9 +482,12 @@ public class ErrorAnalyzer {
                 return "No error text provided to explain.";
             }
 
+            String text = run != null ? normalize(run, config, errorText)
+                    : config.isNormalizeLogs() ? LogNormalizer.normalize(errorText) : errorText;
+
             // Get AI analysis
             AIService aiService = new AIService(config);
-            String analysis = aiService.analyzeError(errorText);
+            String analysis = aiService.analyzeError(text);
             LOGGER.info(jobInfo + " AI error analysis succeeded.");
             LOGGER.fine("Analysis length: " + (analysis != null ? analysis.length() : 0));
 
@@ -345,6 +508,19 @@ public class ErrorAnalyzer {
      * @return filtered error logs as a string, or empty string if no matches
      */
     public String extractFilteredLogs(Run<?, ?> run, int maxLines) throws IOException {
-        return extractErrorLogs(run, null, null, maxLines);
+        return normalize(run, GlobalConfigurationImpl.get(), extractErrorLogs(run, null, null, maxLines, null, null));
+    }
+
+    /**
+     * Replaces volatile tokens unless normalization is turned off globally or for the job.
+     */
+    private static String normalize(Run<?, ?> run, GlobalConfigurationImpl config, String errorLogs) {
+        ErrorPatternProperty property = run.getParent().getProperty(ErrorPatternProperty.class);
+        if (StringUtils.isBlank(errorLogs) || !LogNormalizer.isEnabled(config, property)) {
+            return errorLogs;
+        }
+        String normalized = LogNormalizer.normalize(errorLogs);
+        LOGGER.fine("Normalized error logs from " + errorLogs.length() + " to " + normalized.length() + " chars");
+        return normalized;
     }
 }
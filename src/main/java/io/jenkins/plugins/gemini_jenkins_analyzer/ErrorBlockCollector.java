@@ -0,0 +1,117 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds error blocks with surrounding context from lines fed one at a time.
+ * Captures contextLines before and after each error; a block ends when no error
+ * has been seen for contextLines. Memory use is bounded by maxLines and contextLines.
+ */
+public class ErrorBlockCollector {
+
+    private final int maxLines;
+    private final int contextLines;
+    private final List<String> outputLines = new ArrayList<>();
+    private final ArrayDeque<String> contextBuffer = new ArrayDeque<>();
+    private int linesSinceLastError;
+    private int errorCount;
+    private int totalLinesAdded;
+
+    public ErrorBlockCollector(int maxLines, int contextLines) {
+        this.maxLines = maxLines;
+        this.contextLines = contextLines;
+        this.linesSinceLastError = contextLines + 1; // Start with no active block
+    }
+
+    /**
+     * @return true once maxLines have been emitted and further lines would be ignored
+     */
+    public boolean isFull() {
+        return totalLinesAdded >= maxLines;
+    }
+
+    /**
+     * Feeds the next log line.
+     * @param line the log line
+     * @param isError whether the line matched an error pattern
+     */
+    public void accept(String line, boolean isError) {
+        if (isError) {
+            errorCount++;
+            // If starting a new block, add buffered context first
+            if (linesSinceLastError > contextLines && !contextBuffer.isEmpty()) {
+                // Add separator for new block
+                if (!outputLines.isEmpty()) {
+                    outputLines.add("");
+                    outputLines.add("--- Error Block " + (errorCount > 1 ? "" : "---"));
+                    outputLines.add("");
+                    totalLinesAdded += 3;
+                }
+                // Add context before error
+                for (String contextLine : contextBuffer) {
+                    if (totalLinesAdded >= maxLines) {
+                        break;
+                    }
+                    outputLines.add(contextLine);
+                    totalLinesAdded++;
+                }
+            }
+
+            // Add the error line with marker
+            if (totalLinesAdded < maxLines) {
+                outputLines.add(">>> ERROR: " + line);
+                totalLinesAdded++;
+            }
+            linesSinceLastError = 0;
+            contextBuffer.clear();
+        } else {
+            linesSinceLastError++;
+
+            if (linesSinceLastError <= contextLines) {
+                // Within context window after error - add directly to output
+                if (totalLinesAdded < maxLines) {
+                    outputLines.add(line);
+                    totalLinesAdded++;
+                }
+            } else {
+                // Outside context window - buffer for potential next error
+                contextBuffer.addLast(line);
+                if (contextBuffer.size() > contextLines) {
+                    contextBuffer.removeFirst();
+                }
+            }
+        }
+    }
+
+    /**
+     * Accounts for lines that are neither errors nor context of any error, without reading them.
+     * Equivalent to feeding that many non-error lines followed by at least contextLines more.
+     * @param count number of skipped lines
+     */
+    public void skip(long count) {
+        if (count <= 0) {
+            return;
+        }
+        linesSinceLastError = (int) Math.min(Integer.MAX_VALUE, linesSinceLastError + count);
+        contextBuffer.clear();
+    }
+
+    /**
+     * @return the collected blocks with an explanation header, or an empty string if no error was seen
+     */
+    public String getResult() {
+        if (outputLines.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder result = new StringBuilder();
+        result.append("=== ERROR ANALYSIS ===\n");
+        result.append("Note: Lines marked with '>>> ERROR:' matched configured error patterns.\n");
+        result.append("Context of ").append(contextLines).append(" lines is shown before and after each error.\n");
+        result.append("\n");
+        result.append(String.join("\n", outputLines));
+        return result.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import hudson.Extension;
+import hudson.console.ConsoleLogFilter;
+import hudson.console.LineTransformationOutputStream;
+import hudson.model.AbstractBuild;
+import hudson.model.Run;
+import hudson.model.listeners.RunListener;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Matches the job's error patterns on console output while the build writes it, when enabled
+ * in the global configuration. Error lines are recorded with their byte offsets in an
+ * {@link ErrorIndex} that is written to the build directory once the log is closed, so
+ * post-build extraction reads only the error lines. The running count is shown on the console page.
+ * <p>
+ * Only freestyle and other {@link AbstractBuild}s are indexed: their decorated stream writes the
+ * log file from its first byte, so its offsets are the file's. Pipeline output reaches the log
+ * through per-step and downstream filters with offsets of their own, so live detection does
+ * nothing for Pipeline builds, and they are indexed in the background after the build instead.
+ */
+@Extension
+public class ErrorDetectionConsoleLogFilter extends ConsoleLogFilter {
+
+    private static final Logger LOGGER = Logger.getLogger(ErrorDetectionConsoleLogFilter.class.getName());
+
+    /**
+     * Indexes of builds whose log is still being written, by externalizable id.
+     */
+    private static final Map<String, ErrorIndex> LIVE = new ConcurrentHashMap<>();
+
+    @Override
+    public OutputStream decorateLogger(Run build, OutputStream logger) throws IOException, InterruptedException {
+        if (!(build instanceof AbstractBuild) || !GlobalConfigurationImpl.get().isLiveErrorDetection()) {
+            return logger;
+        }
+        ErrorPatternMatcher patternMatcher = ErrorPatternCache.get(ErrorAnalyzer.resolvePatterns(build, null));
+        if (patternMatcher.isEmpty()) {
+            return logger;
+        }
+        String runId = build.getExternalizableId();
+        ErrorIndex index = new ErrorIndex(ErrorIndex.patternHash(patternMatcher));
+        // Offsets are only meaningful for a single stream writing the log from its start
+        if (LIVE.putIfAbsent(runId, index) != null) {
+            return logger;
+        }
+        return new DetectingOutputStream(logger, runId, ErrorIndex.getFile(build), build.getCharset(), patternMatcher, index);
+    }
+
+    /**
+     * @return errors detected so far in a running build, or -1 if its log is not being indexed
+     */
+    public static int getLiveErrorCount(Run<?, ?> run) {
+        ErrorIndex index = LIVE.get(run.getExternalizableId());
+        return index != null ? (int) Math.min(index.getErrorCount(), Integer.MAX_VALUE) : -1;
+    }
+
+    /**
+     * Drops the live index of a build whose log stream was never closed, so it does not stay in memory.
+     */
+    @Extension
+    public static final class Cleanup extends RunListener<Run<?, ?>> {
+
+        @Override
+        public void onFinalized(Run<?, ?> run) {
+            LIVE.remove(run.getExternalizableId());
+        }
+
+        @Override
+        public void onDeleted(Run<?, ?> run) {
+            LIVE.remove(run.getExternalizableId());
+        }
+    }
+
+    /**
+     * Passes output through unchanged, recording the offset of each line that matches an error pattern.
+     */
+    static final class DetectingOutputStream extends LineTransformationOutputStream.Delegating {
+
+        private final String runId;
+        private final File indexFile;
+        private final Charset charset;
+        private final ErrorPatternMatcher.LineMatcher lineMatcher;
+        private final ErrorIndex index;
+        private long offset;
+        private long lineNumber;
+        private boolean closed;
+
+        DetectingOutputStream(OutputStream out, String runId, File indexFile, Charset charset,
+                              ErrorPatternMatcher patternMatcher, ErrorIndex index) {
+            super(out);
+            this.runId = runId;
+            this.indexFile = indexFile;
+            this.charset = charset;
+            this.lineMatcher = patternMatcher.newLineMatcher();
+            this.index = index;
+        }
+
+        @Override
+        protected void eol(byte[] b, int len) throws IOException {
+            out.write(b, 0, len);
+            int matched = lineMatcher.match(LogLineReader.decodeLine(b, len, charset));
+            if (matched >= 0) {
+                index.add(lineNumber, offset, matched);
+            }
+            offset += len;
+            lineNumber++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                if (!closed) {
+                    closed = true;
+                    LIVE.remove(runId, index);
+                    index.finish(offset, lineNumber);
+                    try {
+                        index.write(indexFile);
+                    } catch (IOException e) {
+                        LOGGER.log(Level.WARNING, "Could not write error index " + indexFile, e);
+                    }
+                }
+            }
+        }
+    }
+}
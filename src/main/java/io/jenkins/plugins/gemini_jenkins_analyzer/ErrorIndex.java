@@ -0,0 +1,377 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import hudson.model.Run;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+
+/**
+ * Line numbers, byte offsets and matched pattern of every error line in a build log,
+ * kept in a small binary file in the build directory. The file starts with a header
+ * (magic, format version, pattern set hash, log length, line count) followed by one
+ * fixed-size entry per error line.
+ * With it, error lines are read by seeking to their offsets instead of scanning the log.
+ * An index only applies to the log length and pattern set it was built for.
+ * <p>
+ * Only the newest {@value #DEFAULT_MAX_ENTRIES} error lines are kept by default (system property
+ * {@code io.jenkins.plugins.gemini_jenkins_analyzer.ErrorIndex.maxEntries}), which bounds the
+ * memory of a live or background build and the size of the file for logs that are nearly all errors.
+ * Extraction only looks at the end of the log, so older entries are not needed; an index that
+ * does not cover the window an extraction reads is not used for it.
+ */
+public class ErrorIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(ErrorIndex.class.getName());
+
+    static final String FILE_NAME = "gemini-error-index";
+
+    private static final int MAGIC = 0x47454958; // "GEIX"
+    private static final int VERSION = 2;
+
+    static final int DEFAULT_MAX_ENTRIES = 50000;
+
+    private static final int MAX_ENTRIES = Math.max(1,
+            SystemProperties.getInteger(ErrorIndex.class.getName() + ".maxEntries", DEFAULT_MAX_ENTRIES));
+
+    private final int patternHash;
+    private final int maxEntries;
+    private long logLength;
+    private long totalLines;
+    private long firstLine;
+    private long dropped;
+    private long[] lines;
+    private long[] offsets;
+    private int[] patternIds;
+    private volatile int size;
+
+    public ErrorIndex(int patternHash) {
+        this(patternHash, MAX_ENTRIES);
+    }
+
+    ErrorIndex(int patternHash, int maxEntries) {
+        this.patternHash = patternHash;
+        this.maxEntries = maxEntries;
+        // Room for twice the kept entries, so dropping the oldest half is a copy every maxEntries adds
+        int capacity = Math.min(16, 2 * maxEntries);
+        lines = new long[capacity];
+        offsets = new long[capacity];
+        patternIds = new int[capacity];
+    }
+
+    /**
+     * @return hash identifying the pattern set an index was built with
+     */
+    public static int patternHash(ErrorPatternMatcher patternMatcher) {
+        return patternMatcher.getPatterns().hashCode();
+    }
+
+    public static File getFile(Run<?, ?> run) {
+        return new File(run.getRootDir(), FILE_NAME);
+    }
+
+    /**
+     * Records an error line. Lines must be added in log order.
+     * Once the index is full, the oldest entries beyond the newest maxEntries are dropped.
+     */
+    public synchronized void add(long line, long offset, int patternId) {
+        if (size == lines.length) {
+            if (size >= 2 * maxEntries) {
+                drop(size - maxEntries);
+            } else {
+                int capacity = Math.min(size * 2, 2 * maxEntries);
+                lines = Arrays.copyOf(lines, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                patternIds = Arrays.copyOf(patternIds, capacity);
+            }
+        }
+        lines[size] = line;
+        offsets[size] = offset;
+        patternIds[size] = patternId;
+        size++;
+    }
+
+    /**
+     * Drops the entries before the given line, for an index whose older error lines are not all known.
+     */
+    public synchronized void dropBefore(long line) {
+        drop(firstEntryFrom(line));
+        firstLine = Math.max(firstLine, line);
+    }
+
+    private void drop(int count) {
+        if (count == 0) {
+            return;
+        }
+        firstLine = lines[count - 1] + 1;
+        dropped += count;
+        System.arraycopy(lines, count, lines, 0, size - count);
+        System.arraycopy(offsets, count, offsets, 0, size - count);
+        System.arraycopy(patternIds, count, patternIds, 0, size - count);
+        size -= count;
+    }
+
+    /**
+     * Records the size of the indexed log once it is complete.
+     */
+    public synchronized void finish(long logLength, long totalLines) {
+        this.logLength = logLength;
+        this.totalLines = totalLines;
+    }
+
+    /**
+     * @return number of error lines kept; safe to call while the log is still written
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return number of error lines recorded so far, including the dropped ones
+     */
+    public synchronized long getErrorCount() {
+        return dropped + size;
+    }
+
+    /**
+     * @return first line from which every error line has an entry, 0 unless older entries were dropped
+     */
+    public synchronized long getFirstLine() {
+        return firstLine;
+    }
+
+    public int getPatternHash() {
+        return patternHash;
+    }
+
+    public long getLogLength() {
+        return logLength;
+    }
+
+    public long getTotalLines() {
+        return totalLines;
+    }
+
+    public synchronized long getLine(int i) {
+        return lines[i];
+    }
+
+    public synchronized long getOffset(int i) {
+        return offsets[i];
+    }
+
+    public synchronized int getPatternId(int i) {
+        return patternIds[i];
+    }
+
+    /**
+     * @return index of the first entry at or after the given line, or {@link #size()} if there is none
+     */
+    public synchronized int firstEntryFrom(long line) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lines[mid] < line) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Reads the log lines of entries {@code from} (inclusive) to {@code to} (exclusive) by seeking to their offsets.
+     * Lines close to the previous one are taken from the buffer that is already read.
+     */
+    public List<String> readLines(File logFile, Charset charset, int from, int to) throws IOException {
+        List<String> result = new ArrayList<>(Math.max(0, to - from));
+        FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ);
+        try (LogLineReader reader = new LogLineReader(Channels.newInputStream(channel), charset)) {
+            for (int i = from; i < to; i++) {
+                long offset = getOffset(i);
+                if (!reader.skipToBuffered(offset, getLine(i))) {
+                    channel.position(offset);
+                    reader.reset(offset, getLine(i));
+                }
+                String line = reader.readLine();
+                result.add(line != null ? line : "");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the index next to the log, replacing any previous one atomically.
+     */
+    public synchronized void write(File file) throws IOException {
+        // A temporary file of its own, so concurrent writers of the same index do not mix their output
+        Path tmp = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(patternHash);
+                out.writeLong(logLength);
+                out.writeLong(totalLines);
+                out.writeLong(firstLine);
+                out.writeInt(size);
+                for (int i = 0; i < size; i++) {
+                    out.writeLong(lines[i]);
+                    out.writeLong(offsets[i]);
+                    out.writeInt(patternIds[i]);
+                }
+            }
+            try {
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public static ErrorIndex read(File file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file.toPath());
+             DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an error index: " + file);
+            }
+            ErrorIndex index = new ErrorIndex(in.readInt());
+            long logLength = in.readLong();
+            long totalLines = in.readLong();
+            long firstLine = in.readLong();
+            int count = in.readInt();
+            if (count < 0 || firstLine < 0) {
+                throw new IOException("Corrupt error index: " + file);
+            }
+            index.dropBefore(firstLine);
+            for (int i = 0; i < count; i++) {
+                index.add(in.readLong(), in.readLong(), in.readInt());
+            }
+            index.finish(logLength, totalLines);
+            return index;
+        }
+    }
+
+    /**
+     * Builds an index by scanning the whole log once, in parallel chunks for large logs.
+     */
+    public static ErrorIndex build(File logFile, Charset charset, ErrorPatternMatcher patternMatcher) throws IOException {
+        if (ParallelLogScanner.isEnabledFor(logFile.length())) {
+            return ParallelLogScanner.buildIndex(logFile, charset, patternMatcher);
+        }
+        return buildSequentially(logFile, charset, patternMatcher);
+    }
+
+    /**
+     * Builds an index by scanning the whole log once on the calling thread.
+     */
+    static ErrorIndex buildSequentially(File logFile, Charset charset, ErrorPatternMatcher patternMatcher) throws IOException {
+        ErrorIndex index = new ErrorIndex(patternHash(patternMatcher));
+        ErrorPatternMatcher.LineMatcher lineMatcher = patternMatcher.newLineMatcher();
+        try (LogLineReader reader = new LogLineReader(Files.newInputStream(logFile.toPath()), charset)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int matched = lineMatcher.match(line);
+                if (matched >= 0) {
+                    index.add(reader.getLineNumber(), reader.getLineStartOffset(), matched);
+                }
+            }
+            index.finish(reader.getOffset(), reader.getLineNumber() + 1);
+        }
+        return index;
+    }
+
+    /**
+     * Loads the run's index, or schedules it to be built in the background if there is none yet
+     * for the current log and pattern set. The caller falls back to its bounded tail scan meanwhile,
+     * so no extraction waits for a full scan of the log; later ones only read the error lines.
+     * @return the index, or null until one has been written for the current log
+     */
+    public static ErrorIndex loadOrBuildLater(Run<?, ?> run, File logFile, ErrorPatternMatcher patternMatcher) {
+        ErrorIndex index = load(run, logFile, patternMatcher);
+        if (index == null && !run.isBuilding()) {
+            buildLater(logFile, run.getCharset(), patternMatcher, getFile(run));
+        }
+        return index;
+    }
+
+    /**
+     * Builds and writes an index on the background executor, unless one is already being built for the file.
+     */
+    static void buildLater(File logFile, Charset charset, ErrorPatternMatcher patternMatcher, File indexFile) {
+        String key = indexFile.getAbsolutePath();
+        if (!Background.BUILDING.add(key)) {
+            return;
+        }
+        try {
+            Background.EXECUTOR.execute(() -> {
+                try {
+                    long start = System.currentTimeMillis();
+                    ErrorIndex index = build(logFile, charset, patternMatcher);
+                    index.write(indexFile);
+                    LOGGER.fine("Indexed " + index.size() + " error lines of " + logFile + " in " + (System.currentTimeMillis() - start) + " ms");
+                } catch (IOException e) {
+                    LOGGER.warning("Could not write error index " + indexFile + ": " + e.getMessage());
+                } finally {
+                    Background.BUILDING.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            Background.BUILDING.remove(key);
+        }
+    }
+
+    /**
+     * Loads the run's index if it was built for the current log file and pattern set.
+     * @return the index, or null when there is none or it is stale
+     */
+    public static ErrorIndex load(Run<?, ?> run, File logFile, ErrorPatternMatcher patternMatcher) {
+        File file = getFile(run);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            ErrorIndex index = read(file);
+            if (index.getPatternHash() != patternHash(patternMatcher) || index.getLogLength() != logFile.length()) {
+                LOGGER.fine("Ignoring stale error index " + file);
+                return null;
+            }
+            return index;
+        } catch (IOException e) {
+            LOGGER.fine("Could not read error index " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class Background {
+
+        // One at a time: each build is a full pass over a log
+        static final ExecutorService EXECUTOR = AnalysisExecutors.newPlatformExecutor("Gemini error index", 1);
+
+        static final Set<String> BUILDING = ConcurrentHashMap.newKeySet();
+    }
+}
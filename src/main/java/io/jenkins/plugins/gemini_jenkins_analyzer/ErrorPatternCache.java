@@ -0,0 +1,94 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Process-wide cache of compiled error pattern matchers.
+ * Jobs sharing the same pattern set (for example the same preset) compile it once per controller
+ * instead of once per console click or analyzeError step. Entries are keyed by the normalized
+ * pattern text plus the regex flags and evicted least-recently-used.
+ */
+public final class ErrorPatternCache {
+
+    static final int MAX_ENTRIES = 256;
+
+    private static final char FLAGS_SEPARATOR = '\0';
+
+    private static final ErrorPatternMatcher EMPTY = ErrorPatternMatcher.compile(List.of());
+
+    private static final Map<String, ErrorPatternMatcher> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ErrorPatternMatcher> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private static final AtomicLong HITS = new AtomicLong();
+    private static final AtomicLong MISSES = new AtomicLong();
+
+    private ErrorPatternCache() {
+    }
+
+    /**
+     * Returns the case-insensitive matcher for a newline-separated pattern list.
+     * @throws java.util.regex.PatternSyntaxException if one of the patterns is invalid
+     */
+    public static ErrorPatternMatcher get(String patternText) {
+        return get(patternText, Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Returns the matcher for a newline-separated pattern list compiled with the given flags.
+     * @throws java.util.regex.PatternSyntaxException if one of the patterns is invalid
+     */
+    public static ErrorPatternMatcher get(String patternText, int flags) {
+        List<String> patterns = ErrorPatternMatcher.parsePatterns(patternText);
+        if (patterns.isEmpty()) {
+            return EMPTY;
+        }
+        String key = key(patterns, flags);
+        synchronized (CACHE) {
+            ErrorPatternMatcher cached = CACHE.get(key);
+            if (cached != null) {
+                HITS.incrementAndGet();
+                return cached;
+            }
+        }
+
+        // Compile outside the lock; a concurrent miss for the same key just compiles twice
+        MISSES.incrementAndGet();
+        ErrorPatternMatcher compiled = ErrorPatternMatcher.compile(patterns, flags);
+        synchronized (CACHE) {
+            CACHE.put(key, compiled);
+        }
+        return compiled;
+    }
+
+    public static void clear() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    public static int size() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    public static long getHitCount() {
+        return HITS.get();
+    }
+
+    public static long getMissCount() {
+        return MISSES.get();
+    }
+
+    private static String key(List<String> patterns, int flags) {
+        return String.join("\n", patterns) + FLAGS_SEPARATOR + flags;
+    }
+}
@@ -0,0 +1,263 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Matches log lines against a set of error patterns in a single regex pass.
+ * All patterns are merged into one alternation where each pattern is wrapped in its
+ * own capturing group, so the group that participated in the match tells which pattern fired.
+ * Patterns that cannot be merged safely (numeric back references, clashing group names)
+ * are evaluated one by one instead.
+ * When every pattern requires some literal text, a {@link LiteralPrefilter} rejects
+ * lines containing none of those literals before any regex runs.
+ */
+public class ErrorPatternMatcher {
+
+    private static final Logger LOGGER = Logger.getLogger(ErrorPatternMatcher.class.getName());
+
+    // Power of two, one line in this many is timed
+    static final int MATCH_TIMING_SAMPLE = 64;
+
+    private final List<String> patterns;
+    private final List<Pattern> compiledPatterns;
+    private final Pattern combined;
+    private final int[] groupIndexes;
+    private final LiteralPrefilter prefilter;
+
+    private ErrorPatternMatcher(List<String> patterns, List<Pattern> compiledPatterns, Pattern combined, int[] groupIndexes,
+                                LiteralPrefilter prefilter) {
+        this.patterns = patterns;
+        this.compiledPatterns = compiledPatterns;
+        this.combined = combined;
+        this.groupIndexes = groupIndexes;
+        this.prefilter = prefilter;
+    }
+
+    /**
+     * Parses a newline-separated pattern list, ignoring blank lines.
+     */
+    public static List<String> parsePatterns(String source) {
+        List<String> patterns = new ArrayList<>();
+        if (StringUtils.isBlank(source)) {
+            return patterns;
+        }
+        for (String pattern : source.split("\\r?\\n")) {
+            if (!StringUtils.isBlank(pattern)) {
+                patterns.add(pattern.trim());
+            }
+        }
+        return patterns;
+    }
+
+    /**
+     * Compiles the given patterns case-insensitively.
+     * @throws PatternSyntaxException if one of the patterns is invalid
+     */
+    public static ErrorPatternMatcher compile(List<String> patterns) {
+        return compile(patterns, Pattern.CASE_INSENSITIVE);
+    }
+
+    /**
+     * Compiles the given patterns with the given {@link Pattern} flags.
+     * @throws PatternSyntaxException if one of the patterns is invalid
+     */
+    public static ErrorPatternMatcher compile(List<String> patterns, int flags) {
+        List<Pattern> compiledPatterns = new ArrayList<>();
+        for (String pattern : patterns) {
+            compiledPatterns.add(Pattern.compile(pattern, flags));
+        }
+
+        Pattern combined = null;
+        int[] groupIndexes = new int[patterns.size()];
+        if (patterns.size() > 1 && canMerge(patterns)) {
+            StringBuilder alternation = new StringBuilder();
+            int group = 1;
+            for (int i = 0; i < patterns.size(); i++) {
+                if (i > 0) {
+                    alternation.append('|');
+                }
+                alternation.append('(').append(patterns.get(i)).append(')');
+                groupIndexes[i] = group;
+                group += 1 + compiledPatterns.get(i).matcher("").groupCount();
+            }
+            try {
+                combined = Pattern.compile(alternation.toString(), flags);
+            } catch (PatternSyntaxException e) {
+                LOGGER.fine("Error patterns cannot be merged, matching them one by one: " + e.getMessage());
+            }
+        }
+        return new ErrorPatternMatcher(Collections.unmodifiableList(new ArrayList<>(patterns)),
+                compiledPatterns, combined, groupIndexes, createPrefilter(patterns, flags));
+    }
+
+    public boolean isEmpty() {
+        return patterns.isEmpty();
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * @return true if the patterns are evaluated as a single merged regex
+     */
+    public boolean isCombined() {
+        return combined != null;
+    }
+
+    /**
+     * @return true if lines are screened for required literals before the regexes run
+     */
+    public boolean hasPrefilter() {
+        return prefilter != null;
+    }
+
+    /**
+     * Convenience for one-off checks; use {@link #newLineMatcher()} when scanning many lines.
+     * @return index of the pattern that matched, or -1
+     */
+    public int match(CharSequence line) {
+        return newLineMatcher().match(line);
+    }
+
+    /**
+     * Creates a matcher that reuses its regex state across lines. Not thread-safe.
+     */
+    public LineMatcher newLineMatcher() {
+        return new LineMatcher();
+    }
+
+    /**
+     * Reusable per-scan matcher.
+     */
+    public final class LineMatcher {
+
+        private final Matcher combinedMatcher;
+        private final Matcher[] matchers;
+        private long lines;
+        private long matches;
+        private long sampledLines;
+        private long sampledNanos;
+
+        private LineMatcher() {
+            if (combined != null) {
+                this.combinedMatcher = combined.matcher("");
+                this.matchers = null;
+            } else {
+                this.combinedMatcher = null;
+                this.matchers = new Matcher[compiledPatterns.size()];
+                for (int i = 0; i < matchers.length; i++) {
+                    matchers[i] = compiledPatterns.get(i).matcher("");
+                }
+            }
+        }
+
+        /**
+         * Finds the pattern that matches the line. When several patterns match, the one whose
+         * match starts leftmost wins, ties going to the pattern listed first.
+         * @return index of the pattern that matched, or -1
+         */
+        public int match(CharSequence line) {
+            // Timing every line would cost about as much as the prefilter, so only a sample is timed
+            if ((lines++ & (MATCH_TIMING_SAMPLE - 1)) != 0) {
+                return count(find(line));
+            }
+            long start = System.nanoTime();
+            int matched = find(line);
+            sampledNanos += System.nanoTime() - start;
+            sampledLines++;
+            return count(matched);
+        }
+
+        /**
+         * @return number of lines passed to {@link #match}
+         */
+        public long getLines() {
+            return lines;
+        }
+
+        /**
+         * @return number of lines that matched a pattern
+         */
+        public long getMatches() {
+            return matches;
+        }
+
+        /**
+         * @return time spent in {@link #match}, estimated from every {@value ErrorPatternMatcher#MATCH_TIMING_SAMPLE}th line
+         */
+        public long getEstimatedMatchNanos() {
+            return sampledLines == 0 ? 0 : sampledNanos * lines / sampledLines;
+        }
+
+        private int count(int matched) {
+            if (matched >= 0) {
+                matches++;
+            }
+            return matched;
+        }
+
+        private int find(CharSequence line) {
+            if (prefilter != null && !prefilter.containsAny(line)) {
+                return -1;
+            }
+            if (combinedMatcher != null) {
+                if (!combinedMatcher.reset(line).find()) {
+                    return -1;
+                }
+                for (int i = 0; i < groupIndexes.length; i++) {
+                    if (combinedMatcher.start(groupIndexes[i]) != -1) {
+                        return i;
+                    }
+                }
+                return -1;
+            }
+            for (int i = 0; i < matchers.length; i++) {
+                if (matchers[i].reset(line).find()) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The prefilter folds case, so it is only safe when literals are matched case-insensitively
+     * or exactly, never with Unicode case folding or comments mode.
+     */
+    private static LiteralPrefilter createPrefilter(List<String> patterns, int flags) {
+        if ((flags & (Pattern.UNICODE_CASE | Pattern.COMMENTS | Pattern.LITERAL | Pattern.CANON_EQ)) != 0) {
+            return null;
+        }
+        return LiteralPrefilter.forPatterns(patterns);
+    }
+
+    /**
+     * Numeric back references would point at the wrong group once patterns are wrapped.
+     */
+    private static boolean canMerge(List<String> patterns) {
+        for (String pattern : patterns) {
+            for (int i = 0; i < pattern.length() - 1; i++) {
+                if (pattern.charAt(i) == '\\') {
+                    char next = pattern.charAt(i + 1);
+                    if (next >= '1' && next <= '9') {
+                        return false;
+                    }
+                    i++;
+                }
+            }
+        }
+        return true;
+    }
+}
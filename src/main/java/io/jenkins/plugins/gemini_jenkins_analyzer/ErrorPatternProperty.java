@@ -16,6 +16,7 @@ public class ErrorPatternProperty extends JobProperty<Job<?, ?>> {
 
     private String errorPatterns;
     private int contextLines;
+    private boolean disableLogNormalization;
 
     @DataBoundConstructor
     public ErrorPatternProperty() {
@@ -41,6 +42,15 @@ public class ErrorPatternProperty extends JobProperty<Job<?, ?>> {
         this.contextLines = contextLines >= 0 ? contextLines : 3;
     }
 
+    public boolean isDisableLogNormalization() {
+        return disableLogNormalization;
+    }
+
+    @DataBoundSetter
+    public void setDisableLogNormalization(boolean disableLogNormalization) {
+        this.disableLogNormalization = disableLogNormalization;
+    }
+
     @Extension
     public static class DescriptorImpl extends JobPropertyDescriptor {
 
@@ -63,6 +73,7 @@ public class ErrorPatternProperty extends JobProperty<Job<?, ?>> {
             ErrorPatternProperty property = new ErrorPatternProperty();
             property.setErrorPatterns(formData.optString("errorPatterns", ""));
             property.setContextLines(formData.optInt("contextLines", 3));
+            property.setDisableLogNormalization(formData.optBoolean("disableLogNormalization", false));
             return property;
         }
     }
@@ -0,0 +1,94 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the Gemini chat models (plain and streaming) and the AiServices proxy alive between analyses.
+ * Building them sets up an HTTP client and generates a reflection proxy; reusing them
+ * also reuses the pooled keep-alive connections of that client.
+ * Entries are keyed by everything the client is built from and dropped when the
+ * global configuration is saved.
+ */
+public final class GeminiClientCache {
+
+    private static final Logger LOGGER = Logger.getLogger(GeminiClientCache.class.getName());
+
+    static final int MAX_CLIENTS = 4;
+
+    private static final Map<String, Object> CLIENTS = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > MAX_CLIENTS;
+        }
+    };
+
+    private GeminiClientCache() {
+    }
+
+    /**
+     * Returns the cached client for the key, building it on first use.
+     * Keys of different client types must differ, see {@link #key}.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T getOrCreate(String key, Supplier<T> factory) {
+        synchronized (CLIENTS) {
+            Object client = CLIENTS.get(key);
+            if (client == null) {
+                LOGGER.fine("Building Gemini client");
+                client = factory.get();
+                CLIENTS.put(key, client);
+            }
+            return (T) client;
+        }
+    }
+
+    /**
+     * Drops all cached clients, e.g. after the API key or model changed.
+     */
+    public static void invalidate() {
+        synchronized (CLIENTS) {
+            CLIENTS.clear();
+        }
+    }
+
+    static int size() {
+        synchronized (CLIENTS) {
+            return CLIENTS.size();
+        }
+    }
+
+    /**
+     * Builds a cache key; the API key is only kept as a digest.
+     */
+    static String key(String apiKey, String baseUrl, String modelName, Duration timeout, boolean logging) {
+        return key("chat", apiKey, baseUrl, modelName, timeout, logging);
+    }
+
+    /**
+     * Builds a cache key for a given kind of client, e.g. "chat" or "streaming".
+     */
+    static String key(String kind, String apiKey, String baseUrl, String modelName, Duration timeout, boolean logging) {
+        return String.join("\u0000", kind, sha256(apiKey), String.valueOf(baseUrl), modelName,
+                String.valueOf(timeout.toMillis()), String.valueOf(logging));
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
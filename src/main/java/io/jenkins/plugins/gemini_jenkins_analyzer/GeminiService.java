@@ -3,9 +3,18 @@ package io.jenkins.plugins.gemini_jenkins_analyzer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
 import dev.langchain4j.model.googleai.GoogleAiGeminiChatModel;
+import dev.langchain4j.model.googleai.GoogleAiGeminiStreamingChatModel;
 import dev.langchain4j.service.AiServices;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * Google Gemini-specific implementation of the AI service using LangChain4j.
@@ -14,6 +23,9 @@ public class GeminiService extends BaseAIService {
 
     protected static final Logger LOGGER = Logger.getLogger(GeminiService.class.getName());
 
+    // 90 second timeout for error analysis
+    private static final Duration ANALYSIS_TIMEOUT = Duration.ofSeconds(90);
+
     // Simple interface for testing without structured output
     interface SimpleAssistant {
         String chat(String message);
@@ -23,26 +35,91 @@ public class GeminiService extends BaseAIService {
         super(config);
     }
 
+    /**
+     * Use configured model or default to gemini-2.0-flash.
+     */
+    @Override
+    protected String getModelName() {
+        return (config.getModel() != null && !config.getModel().trim().isEmpty())
+            ? config.getModel()
+            : "gemini-2.0-flash";
+    }
+
+    /**
+     * Returns the shared assistant for the current configuration, building it on first use.
+     */
     @Override
     protected Assistant createAssistant() {
         String baseUrl = determineBaseUrl("Gemini");
+        String modelName = getModelName();
 
-        // Use configured model or default to gemini-2.0-flash
-        String modelName = (config.getModel() != null && !config.getModel().trim().isEmpty())
-            ? config.getModel()
-            : "gemini-2.0-flash";
+        String apiKey = config.getApiKey().getPlainText();
+        Duration timeout = ANALYSIS_TIMEOUT;
+        boolean logging = LOGGER.getLevel() == Level.FINE;
 
-        var model = GoogleAiGeminiChatModel.builder()
+        String key = GeminiClientCache.key(apiKey, baseUrl, modelName, timeout, logging);
+        return GeminiClientCache.getOrCreate(key, () -> {
+            var model = GoogleAiGeminiChatModel.builder()
+                .baseUrl(baseUrl) // Will use default if null
+                .apiKey(apiKey)
+                .modelName(modelName)
+                .temperature(0.3)
+                .timeout(timeout)
+                .logRequests(logging)
+                .logResponses(logging)
+                .maxRetries(0) // retried by BaseAIService, which honours the provider's retry delay
+                .build();
+
+            return AiServices.create(Assistant.class, model);
+        });
+    }
+
+    /**
+     * Streams the response through the shared streaming model, so the console can show
+     * the analysis while Gemini is still generating it.
+     */
+    @Override
+    protected String streamChat(String prompt, Consumer<String> onPartial) throws Exception {
+        String baseUrl = determineBaseUrl("Gemini");
+        String modelName = getModelName();
+        String apiKey = config.getApiKey().getPlainText();
+
+        String key = GeminiClientCache.key("streaming", apiKey, baseUrl, modelName, ANALYSIS_TIMEOUT, false);
+        StreamingChatModel model = GeminiClientCache.getOrCreate(key, () -> GoogleAiGeminiStreamingChatModel.builder()
             .baseUrl(baseUrl) // Will use default if null
-            .apiKey(config.getApiKey().getPlainText())
+            .apiKey(apiKey)
             .modelName(modelName)
             .temperature(0.3)
-            .timeout(Duration.ofSeconds(90)) // 90 second timeout for error analysis
-            .logRequests(LOGGER.getLevel() == Level.FINE)
-            .logResponses(LOGGER.getLevel() == Level.FINE)
-            .build();
+            .timeout(ANALYSIS_TIMEOUT)
+            .build());
+
+        CompletableFuture<String> response = new CompletableFuture<>();
+        StringBuilder received = new StringBuilder();
+        model.chat(prompt, new StreamingChatResponseHandler() {
+            @Override
+            public void onPartialResponse(String partialResponse) {
+                received.append(partialResponse);
+                onPartial.accept(partialResponse);
+            }
+
+            @Override
+            public void onCompleteResponse(ChatResponse completeResponse) {
+                AiMessage message = completeResponse != null ? completeResponse.aiMessage() : null;
+                response.complete(message != null && message.text() != null ? message.text() : received.toString());
+            }
 
-        return AiServices.create(Assistant.class, model);
+            @Override
+            public void onError(Throwable error) {
+                response.completeExceptionally(error);
+            }
+        });
+
+        try {
+            // The model enforces its own timeout; this only guards against a handler that is never called
+            return response.get(ANALYSIS_TIMEOUT.toSeconds() + 30, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
     }
 
     /**
@@ -27,6 +27,16 @@ public class GlobalConfigurationImpl extends GlobalConfiguration {
     private String apiUrl;
     private String model;
     private boolean enableAnalysis = true;
+    private boolean normalizeLogs = true;
+    private int maxPromptTokens = 8000;
+    private int analysisCacheTtlHours = 24;
+    private int analysisCacheMaxEntries = 500;
+    private boolean liveErrorDetection;
+    private int maxConcurrentAnalyses = 4;
+    private int maxQueuedAnalyses = 100;
+    private int requestsPerMinute;
+    private int tokensPerMinute;
+    private int maxRetries = 3;
 
     public GlobalConfigurationImpl() {
         load();
@@ -61,7 +71,49 @@ public class GlobalConfigurationImpl extends GlobalConfiguration {
                 this.model = json.getString("model");
             }
 
+            if (json.has("normalizeLogs")) {
+                this.normalizeLogs = json.getBoolean("normalizeLogs");
+            }
+
+            if (json.has("maxPromptTokens")) {
+                this.maxPromptTokens = Math.max(0, json.optInt("maxPromptTokens", 8000));
+            }
+
+            if (json.has("analysisCacheTtlHours")) {
+                this.analysisCacheTtlHours = Math.max(0, json.optInt("analysisCacheTtlHours", 24));
+            }
+
+            if (json.has("analysisCacheMaxEntries")) {
+                this.analysisCacheMaxEntries = Math.max(0, json.optInt("analysisCacheMaxEntries", 500));
+            }
+
+            if (json.has("liveErrorDetection")) {
+                this.liveErrorDetection = json.getBoolean("liveErrorDetection");
+            }
+
+            if (json.has("maxConcurrentAnalyses")) {
+                this.maxConcurrentAnalyses = Math.max(0, json.optInt("maxConcurrentAnalyses", 4));
+            }
+
+            if (json.has("maxQueuedAnalyses")) {
+                this.maxQueuedAnalyses = Math.max(0, json.optInt("maxQueuedAnalyses", 100));
+            }
+
+            if (json.has("requestsPerMinute")) {
+                this.requestsPerMinute = Math.max(0, json.optInt("requestsPerMinute", 0));
+            }
+
+            if (json.has("tokensPerMinute")) {
+                this.tokensPerMinute = Math.max(0, json.optInt("tokensPerMinute", 0));
+            }
+
+            if (json.has("maxRetries")) {
+                this.maxRetries = Math.max(0, json.optInt("maxRetries", 3));
+            }
+
             save();
+            // Clients built from the previous settings are not needed anymore
+            GeminiClientCache.invalidate();
             return true;
         } catch (Exception e) {
             Logger.getLogger(GlobalConfigurationImpl.class.getName()).log(Level.SEVERE, "Configuration failed", e);
@@ -113,6 +165,126 @@ public class GlobalConfigurationImpl extends GlobalConfiguration {
         this.enableAnalysis = enableAnalysis;
     }
 
+    /**
+     * @return whether timestamps, paths, hashes and similar volatile tokens are replaced before analysis
+     */
+    public boolean isNormalizeLogs() {
+        return normalizeLogs;
+    }
+
+    @DataBoundSetter
+    public void setNormalizeLogs(boolean normalizeLogs) {
+        this.normalizeLogs = normalizeLogs;
+    }
+
+    /**
+     * @return estimated token budget for the whole prompt, 0 for no limit
+     */
+    public int getMaxPromptTokens() {
+        return maxPromptTokens;
+    }
+
+    @DataBoundSetter
+    public void setMaxPromptTokens(int maxPromptTokens) {
+        this.maxPromptTokens = Math.max(0, maxPromptTokens);
+    }
+
+    /**
+     * @return hours a cached analysis is reused for identical error logs, 0 disables the cache
+     */
+    public int getAnalysisCacheTtlHours() {
+        return analysisCacheTtlHours;
+    }
+
+    @DataBoundSetter
+    public void setAnalysisCacheTtlHours(int analysisCacheTtlHours) {
+        this.analysisCacheTtlHours = Math.max(0, analysisCacheTtlHours);
+    }
+
+    /**
+     * @return maximum number of cached analyses, 0 disables the cache
+     */
+    public int getAnalysisCacheMaxEntries() {
+        return analysisCacheMaxEntries;
+    }
+
+    @DataBoundSetter
+    public void setAnalysisCacheMaxEntries(int analysisCacheMaxEntries) {
+        this.analysisCacheMaxEntries = Math.max(0, analysisCacheMaxEntries);
+    }
+
+    /**
+     * @return whether error patterns are matched on the console output while builds run
+     */
+    public boolean isLiveErrorDetection() {
+        return liveErrorDetection;
+    }
+
+    @DataBoundSetter
+    public void setLiveErrorDetection(boolean liveErrorDetection) {
+        this.liveErrorDetection = liveErrorDetection;
+    }
+
+    /**
+     * @return maximum number of AI calls running at once, 0 for no limit
+     */
+    public int getMaxConcurrentAnalyses() {
+        return maxConcurrentAnalyses;
+    }
+
+    @DataBoundSetter
+    public void setMaxConcurrentAnalyses(int maxConcurrentAnalyses) {
+        this.maxConcurrentAnalyses = Math.max(0, maxConcurrentAnalyses);
+    }
+
+    /**
+     * @return maximum number of analyses waiting for a free slot before new ones are rejected, 0 for no limit
+     */
+    public int getMaxQueuedAnalyses() {
+        return maxQueuedAnalyses;
+    }
+
+    @DataBoundSetter
+    public void setMaxQueuedAnalyses(int maxQueuedAnalyses) {
+        this.maxQueuedAnalyses = Math.max(0, maxQueuedAnalyses);
+    }
+
+    /**
+     * @return requests per minute allowed by the API quota, 0 for no limit
+     */
+    public int getRequestsPerMinute() {
+        return requestsPerMinute;
+    }
+
+    @DataBoundSetter
+    public void setRequestsPerMinute(int requestsPerMinute) {
+        this.requestsPerMinute = Math.max(0, requestsPerMinute);
+    }
+
+    /**
+     * @return prompt tokens per minute allowed by the API quota, 0 for no limit
+     */
+    public int getTokensPerMinute() {
+        return tokensPerMinute;
+    }
+
+    @DataBoundSetter
+    public void setTokensPerMinute(int tokensPerMinute) {
+        this.tokensPerMinute = Math.max(0, tokensPerMinute);
+    }
+
+    /**
+     * @return how often a rate limited, failed or timed out AI call is retried
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    @DataBoundSetter
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = Math.max(0, maxRetries);
+    }
+
     @Override
     public String getDisplayName() {
         return "Gemini Jenkins Analyzer Configuration";
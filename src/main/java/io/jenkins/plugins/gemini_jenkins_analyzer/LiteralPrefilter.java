@@ -0,0 +1,423 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Case-insensitive Aho-Corasick automaton over the literals that error patterns require.
+ * A line that contains none of the literals cannot match any pattern, so the regexes
+ * only need to run on lines that pass this filter.
+ */
+public class LiteralPrefilter {
+
+    /**
+     * Comments mode changes what a literal is; Unicode case folding is wider than ours.
+     */
+    private static final Pattern UNSUPPORTED_FLAGS = Pattern.compile("\\(\\?[idmsuxU-]*[xuU][idmsuxU-]*[):]");
+
+    private static final int ASCII = 128;
+
+    private final int[][] asciiTransitions;
+    private final Map<Long, Integer> otherTransitions;
+    private final int[] failure;
+    private final boolean[] terminal;
+
+    private LiteralPrefilter(int[][] asciiTransitions, Map<Long, Integer> otherTransitions, int[] failure, boolean[] terminal) {
+        this.asciiTransitions = asciiTransitions;
+        this.otherTransitions = otherTransitions;
+        this.failure = failure;
+        this.terminal = terminal;
+    }
+
+    /**
+     * Builds the automaton for the given literals.
+     */
+    public static LiteralPrefilter build(Collection<String> literals) {
+        List<int[]> ascii = new ArrayList<>();
+        Map<Long, Integer> other = new HashMap<>();
+        List<Boolean> terminals = new ArrayList<>();
+        ascii.add(newAsciiRow());
+        terminals.add(false);
+
+        // Trie
+        for (String literal : literals) {
+            int state = 0;
+            for (int i = 0; i < literal.length(); i++) {
+                char c = fold(literal.charAt(i));
+                int next = c < ASCII ? ascii.get(state)[c] : other.getOrDefault(key(state, c), -1);
+                if (next <= 0) {
+                    next = ascii.size();
+                    ascii.add(newAsciiRow());
+                    terminals.add(false);
+                    if (c < ASCII) {
+                        ascii.get(state)[c] = next;
+                    } else {
+                        other.put(key(state, c), next);
+                    }
+                }
+                state = next;
+            }
+            terminals.set(state, true);
+        }
+
+        int states = ascii.size();
+        int[][] asciiTransitions = ascii.toArray(new int[0][]);
+        int[] failure = new int[states];
+        boolean[] terminal = new boolean[states];
+        for (int i = 0; i < states; i++) {
+            terminal[i] = terminals.get(i);
+        }
+
+        // Failure links in breadth-first order; ASCII transitions are completed into a DFA
+        Map<Integer, List<long[]>> otherByState = new HashMap<>();
+        for (Map.Entry<Long, Integer> entry : other.entrySet()) {
+            int from = (int) (entry.getKey() >>> 16);
+            otherByState.computeIfAbsent(from, k -> new ArrayList<>())
+                    .add(new long[] {entry.getKey() & 0xFFFF, entry.getValue()});
+        }
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ASCII; c++) {
+            int next = asciiTransitions[0][c];
+            if (next > 0) {
+                failure[next] = 0;
+                queue.add(next);
+            }
+        }
+        for (long[] edge : otherByState.getOrDefault(0, new ArrayList<>())) {
+            failure[(int) edge[1]] = 0;
+            queue.add((int) edge[1]);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            terminal[state] |= terminal[failure[state]];
+            for (int c = 0; c < ASCII; c++) {
+                int next = asciiTransitions[state][c];
+                if (next > 0) {
+                    failure[next] = asciiTransitions[failure[state]][c];
+                    queue.add(next);
+                } else {
+                    asciiTransitions[state][c] = asciiTransitions[failure[state]][c];
+                }
+            }
+            for (long[] edge : otherByState.getOrDefault(state, new ArrayList<>())) {
+                int next = (int) edge[1];
+                failure[next] = step(other, failure, failure[state], (char) edge[0]);
+                queue.add(next);
+            }
+        }
+        return new LiteralPrefilter(asciiTransitions, other, failure, terminal);
+    }
+
+    /**
+     * Builds a prefilter for a set of patterns, or returns null if any pattern has no
+     * extractable required literal (then every line has to be checked anyway).
+     */
+    public static LiteralPrefilter forPatterns(Collection<String> patterns) {
+        if (patterns.isEmpty()) {
+            return null;
+        }
+        List<String> literals = new ArrayList<>();
+        for (String pattern : patterns) {
+            List<String> required = requiredLiterals(pattern);
+            if (required == null) {
+                return null;
+            }
+            literals.addAll(required);
+        }
+        return build(literals);
+    }
+
+    /**
+     * @return true if the text contains at least one of the literals, ignoring case
+     */
+    public boolean containsAny(CharSequence text) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            state = c < ASCII ? asciiTransitions[state][c] : step(otherTransitions, failure, state, c);
+            if (terminal[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int step(Map<Long, Integer> other, int[] failure, int state, char c) {
+        while (true) {
+            Integer next = other.get(key(state, c));
+            if (next != null) {
+                return next;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failure[state];
+        }
+    }
+
+    private static int[] newAsciiRow() {
+        return new int[ASCII];
+    }
+
+    private static long key(int state, char c) {
+        return ((long) state << 16) | c;
+    }
+
+    private static char fold(char c) {
+        if (c < ASCII) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    /**
+     * Extracts literals of which at least one must appear in any line the regex matches.
+     * One literal is returned per top-level alternative, the longest fixed run in it.
+     * The analysis is conservative: anything it does not fully understand yields null.
+     *
+     * @return the required literals, or null if none could be determined
+     */
+    public static List<String> requiredLiterals(String regex) {
+        if (regex == null || UNSUPPORTED_FLAGS.matcher(regex).find()) {
+            return null;
+        }
+        List<String> branches = splitTopLevel(regex);
+        if (branches == null) {
+            return null;
+        }
+        List<String> literals = new ArrayList<>();
+        for (String branch : branches) {
+            String literal = longestLiteral(branch);
+            if (literal == null) {
+                return null;
+            }
+            literals.add(literal);
+        }
+        return literals;
+    }
+
+    private static List<String> splitTopLevel(String regex) {
+        List<String> branches = new ArrayList<>();
+        int depth = 0;
+        int start = 0;
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = skipEscape(regex, i);
+            } else if (c == '[') {
+                i = skipClass(regex, i);
+            } else {
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (c == '|' && depth == 0) {
+                    branches.add(regex.substring(start, i));
+                    start = i + 1;
+                }
+                i++;
+            }
+            if (i < 0 || depth < 0) {
+                return null;
+            }
+        }
+        branches.add(regex.substring(start));
+        return branches;
+    }
+
+    private static String longestLiteral(String branch) {
+        StringBuilder current = new StringBuilder();
+        String best = "";
+        int i = 0;
+        while (i < branch.length()) {
+            char c = branch.charAt(i);
+            String atom = null;
+            int end;
+            if (c == '\\') {
+                end = skipEscape(branch, i);
+                if (end < 0) {
+                    return null;
+                }
+                char next = branch.charAt(i + 1);
+                if (next == 'Q') {
+                    int close = branch.indexOf("\\E", i + 2);
+                    atom = branch.substring(i + 2, close < 0 ? branch.length() : close);
+                } else if (!Character.isLetterOrDigit(next)) {
+                    atom = String.valueOf(next);
+                }
+            } else if (c == '[') {
+                end = skipClass(branch, i);
+            } else if (c == '(') {
+                end = skipGroup(branch, i);
+            } else if (c == '.' || c == '^' || c == '$') {
+                end = i + 1;
+            } else if (c == ')' || c == '*' || c == '+' || c == '?' || c == '{') {
+                return null;
+            } else {
+                atom = String.valueOf(c);
+                end = i + 1;
+            }
+            if (end < 0) {
+                return null;
+            }
+
+            // Quantifier applies to the last character of the atom
+            boolean optional = false;
+            boolean repeated = false;
+            int quantifierEnd = end;
+            if (end < branch.length()) {
+                char q = branch.charAt(end);
+                if (q == '*' || q == '?') {
+                    optional = true;
+                    quantifierEnd = end + 1;
+                } else if (q == '+') {
+                    repeated = true;
+                    quantifierEnd = end + 1;
+                } else if (q == '{') {
+                    int close = branch.indexOf('}', end);
+                    if (close < 0 || !branch.substring(end + 1, close).matches("\\d+(,\\d*)?")) {
+                        return null;
+                    }
+                    optional = branch.substring(end + 1, close).matches("0+(,\\d*)?");
+                    repeated = !optional;
+                    quantifierEnd = close + 1;
+                }
+                if (quantifierEnd > end && quantifierEnd < branch.length()
+                        && (branch.charAt(quantifierEnd) == '?' || branch.charAt(quantifierEnd) == '+')) {
+                    quantifierEnd++;
+                }
+            }
+
+            if (atom == null) {
+                best = longer(best, current);
+                current.setLength(0);
+            } else if (optional) {
+                // After an empty quote the quantifier applies to the character before it
+                current.append(atom);
+                current.setLength(Math.max(0, current.length() - 1));
+                best = longer(best, current);
+                current.setLength(0);
+            } else {
+                current.append(atom);
+                if (repeated) {
+                    best = longer(best, current);
+                    current.setLength(0);
+                }
+            }
+            i = quantifierEnd;
+        }
+        best = longer(best, current);
+        return best.isEmpty() ? null : best;
+    }
+
+    private static String longer(String best, StringBuilder current) {
+        return current.length() > best.length() ? current.toString() : best;
+    }
+
+    /**
+     * @return index just past the escape sequence starting at {@code i}, or -1 if malformed
+     */
+    private static int skipEscape(String regex, int i) {
+        if (i + 1 >= regex.length()) {
+            return -1;
+        }
+        char next = regex.charAt(i + 1);
+        switch (next) {
+            case 'Q': {
+                int close = regex.indexOf("\\E", i + 2);
+                return close < 0 ? regex.length() : close + 2;
+            }
+            case 'p':
+            case 'P':
+            case 'N':
+            case 'k':
+            case 'x': {
+                if (i + 2 < regex.length() && (regex.charAt(i + 2) == '{' || regex.charAt(i + 2) == '<')) {
+                    int close = regex.indexOf(regex.charAt(i + 2) == '{' ? '}' : '>', i + 2);
+                    return close < 0 ? -1 : close + 1;
+                }
+                return Math.min(regex.length(), i + (next == 'x' ? 4 : 3));
+            }
+            case 'u':
+                return Math.min(regex.length(), i + 6);
+            case 'c':
+                return Math.min(regex.length(), i + 3);
+            case '0': {
+                int end = i + 2;
+                while (end < regex.length() && end < i + 5 && regex.charAt(end) >= '0' && regex.charAt(end) <= '7') {
+                    end++;
+                }
+                return end;
+            }
+            default:
+                return i + 2;
+        }
+    }
+
+    /**
+     * @return index just past the character class starting at {@code i}, or -1 if unterminated
+     */
+    private static int skipClass(String regex, int i) {
+        int depth = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = skipEscape(regex, i);
+                if (i < 0) {
+                    return -1;
+                }
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+            } else if (c == ']') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    /**
+     * @return index just past the group starting at {@code i}, or -1 if unterminated
+     */
+    private static int skipGroup(String regex, int i) {
+        int depth = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i = skipEscape(regex, i);
+                if (i < 0) {
+                    return -1;
+                }
+                continue;
+            }
+            if (c == '[') {
+                i = skipClass(regex, i);
+                if (i < 0) {
+                    return -1;
+                }
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+                if (depth == 0) {
+                    return i + 1;
+                }
+            }
+            i++;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,285 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import hudson.console.ConsoleNote;
+import hudson.model.Run;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads console log lines from a byte stream through a fixed-size buffer.
+ * Lines are split on '\n', carriage returns are dropped and console notes are removed,
+ * the same way {@link Run#getLog(int)} does, but only one line is held in memory at a time.
+ * The byte offset of each line is tracked so callers can seek back to it later.
+ */
+public class LogLineReader implements Closeable {
+
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Lines longer than this are truncated so a single minified blob cannot blow up the heap.
+     */
+    static final int MAX_LINE_BYTES = 1024 * 1024;
+
+    private final InputStream in;
+    private final Charset charset;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private byte[] lineBytes = new byte[256];
+    private int lineLength;
+    private long offset;
+    private long lineStartOffset;
+    private long lineNumber;
+
+    public LogLineReader(InputStream in, Charset charset) {
+        this(in, charset, 0, 0);
+    }
+
+    /**
+     * @param in stream positioned at {@code startOffset} of the log
+     * @param charset charset of the log
+     * @param startOffset byte offset of the first byte of {@code in} within the log
+     * @param startLine line number of the first line of {@code in} within the log
+     */
+    public LogLineReader(InputStream in, Charset charset, long startOffset, long startLine) {
+        this.in = in;
+        this.charset = charset;
+        this.offset = startOffset;
+        this.lineStartOffset = startOffset;
+        this.lineNumber = startLine - 1;
+    }
+
+    /**
+     * Opens a reader positioned on the last {@code maxLines} lines of the run's log.
+     * File-backed logs are seeked backwards from the end to find the window start;
+     * other log storage is streamed twice, once to count lines without decoding them.
+     * Line numbers of the returned reader are relative to the first line of the window.
+     */
+    public static LogLineReader openTail(Run<?, ?> run, int maxLines) throws IOException {
+        File logFile = ReverseLogReader.getLogFile(run);
+        if (logFile != null) {
+            return openTail(logFile, run.getCharset(), maxLines);
+        }
+
+        long totalLines;
+        try (InputStream counter = run.getLogInputStream()) {
+            totalLines = countLines(counter);
+        }
+        long skip = Math.max(0, totalLines - maxLines);
+        // Start numbering at -skip so the first line after the skipped ones is line 0
+        LogLineReader reader = new LogLineReader(run.getLogInputStream(), run.getCharset(), 0, -skip);
+        try {
+            reader.skipLines(skip);
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+        return reader;
+    }
+
+    /**
+     * Opens a reader positioned on the last {@code maxLines} lines of a log file.
+     * Line numbers of the returned reader are relative to the first line of the window.
+     */
+    public static LogLineReader openTail(File logFile, Charset charset, int maxLines) throws IOException {
+        long startOffset;
+        try (ReverseLogReader reverse = new ReverseLogReader(logFile, charset)) {
+            reverse.skipPreviousLines(maxLines);
+            startOffset = reverse.getLineStartOffset();
+        }
+        FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ);
+        try {
+            channel.position(startOffset);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new LogLineReader(Channels.newInputStream(channel), charset, startOffset, 0);
+    }
+
+    /**
+     * Counts the lines of a log without decoding them.
+     * A trailing newline does not start a new line.
+     */
+    public static long countLines(InputStream in) throws IOException {
+        byte[] buf = new byte[BUFFER_SIZE];
+        long lines = 0;
+        boolean pending = false;
+        int read;
+        while ((read = in.read(buf)) != -1) {
+            for (int i = 0; i < read; i++) {
+                if (buf[i] == '\n') {
+                    lines++;
+                    pending = false;
+                } else {
+                    pending = true;
+                }
+            }
+        }
+        return pending ? lines + 1 : lines;
+    }
+
+    /**
+     * Decodes raw line bytes the way {@link #readLine()} does: line terminators and carriage
+     * returns are dropped, overlong lines are truncated and console notes are removed.
+     */
+    public static String decodeLine(byte[] bytes, int length, Charset charset) {
+        byte[] line = new byte[Math.min(length, MAX_LINE_BYTES)];
+        int lineLength = 0;
+        for (int i = 0; i < length && lineLength < line.length; i++) {
+            if (bytes[i] != '\r' && bytes[i] != '\n') {
+                line[lineLength++] = bytes[i];
+            }
+        }
+        return ConsoleNote.removeNotes(new String(line, 0, lineLength, charset));
+    }
+
+    /**
+     * Reads the next line.
+     * @return the line with console notes removed, or null at end of stream
+     */
+    public String readLine() throws IOException {
+        lineLength = 0;
+        lineStartOffset = offset;
+        boolean sawByte = false;
+        while (true) {
+            if (position == limit && !fill()) {
+                if (!sawByte) {
+                    return null;
+                }
+                break;
+            }
+            byte b = buffer[position++];
+            offset++;
+            sawByte = true;
+            if (b == '\n') {
+                break;
+            }
+            if (b != '\r') {
+                append(b);
+            }
+        }
+        lineNumber++;
+        return ConsoleNote.removeNotes(new String(lineBytes, 0, lineLength, charset));
+    }
+
+    /**
+     * Skips lines without decoding them.
+     * @return the number of lines actually skipped
+     */
+    public long skipLines(long count) throws IOException {
+        long skipped = 0;
+        while (skipped < count) {
+            if (position == limit && !fill()) {
+                break;
+            }
+            lineStartOffset = offset;
+            boolean terminated = false;
+            while (position < limit || fill()) {
+                byte b = buffer[position++];
+                offset++;
+                if (b == '\n') {
+                    terminated = true;
+                    break;
+                }
+            }
+            skipped++;
+            lineNumber++;
+            if (!terminated) {
+                break;
+            }
+        }
+        return skipped;
+    }
+
+    /**
+     * Moves to a line whose bytes are still in the buffer, as when reading lines close to each other.
+     * @param targetOffset byte offset of the line within the log
+     * @param targetLine line number of the line within the log
+     * @return false if the line is not buffered; the reader is then unchanged
+     */
+    public boolean skipToBuffered(long targetOffset, long targetLine) {
+        long bufferStart = offset - position;
+        if (targetOffset < bufferStart || targetOffset > bufferStart + limit) {
+            return false;
+        }
+        position = (int) (targetOffset - bufferStart);
+        moveTo(targetOffset, targetLine);
+        return true;
+    }
+
+    /**
+     * Drops buffered bytes after the underlying stream was repositioned, keeping the buffer for reuse.
+     * @param startOffset byte offset the stream is now positioned at
+     * @param startLine line number of the line starting there
+     */
+    public void reset(long startOffset, long startLine) {
+        position = 0;
+        limit = 0;
+        moveTo(startOffset, startLine);
+    }
+
+    private void moveTo(long startOffset, long startLine) {
+        offset = startOffset;
+        lineStartOffset = startOffset;
+        lineNumber = startLine - 1;
+    }
+
+    /**
+     * @return byte offset of the line last returned by {@link #readLine()}
+     */
+    public long getLineStartOffset() {
+        return lineStartOffset;
+    }
+
+    /**
+     * @return zero-based number of the line last returned by {@link #readLine()}
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * @return byte offset of the next unread byte
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(buffer);
+        while (read == 0) {
+            read = in.read(buffer);
+        }
+        if (read < 0) {
+            position = 0;
+            limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    private void append(byte b) {
+        if (lineLength == MAX_LINE_BYTES) {
+            return;
+        }
+        if (lineLength == lineBytes.length) {
+            lineBytes = Arrays.copyOf(lineBytes, Math.min(lineBytes.length * 2, MAX_LINE_BYTES));
+        }
+        lineBytes[lineLength++] = b;
+    }
+}
@@ -0,0 +1,67 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites volatile tokens in extracted error logs to stable placeholders.
+ * Timestamps, workspace paths, temp dir names, hashes, PIDs, build numbers and
+ * ANSI escapes make identical failures look different; normalizing them before
+ * hashing and prompting raises analysis cache hits and saves prompt tokens.
+ */
+public final class LogNormalizer {
+
+    private static final List<Rule> RULES = List.of(
+            // ANSI color and cursor escapes carry no meaning for the model
+            new Rule("\u001B\\[[0-9;?]*[ -/]*[@-~]", ""),
+            new Rule("\\b\\d{4}-\\d{2}-\\d{2}[T ]\\d{2}:\\d{2}:\\d{2}(?:[.,]\\d+)?(?:Z|[+-]\\d{2}:?\\d{2})?", "<TIMESTAMP>"),
+            new Rule("\\b\\d{2}:\\d{2}:\\d{2}(?:[.,]\\d+)?\\b", "<TIME>"),
+            new Rule("(?i)\\b[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}\\b", "<UUID>"),
+            // Commit ids, digests and temp dir hashes: long hex runs with both letters and digits
+            new Rule("(?i)\\b(?=[0-9a-f]*[a-f])(?=[0-9a-f]*[0-9])[0-9a-f]{12,}\\b", "<HASH>"),
+            new Rule("(?:[A-Za-z]:)?[\\\\/](?:[^\\s'\"\\\\/]+[\\\\/])*workspace[\\\\/][^\\s'\"\\\\/]+", "<WORKSPACE>"),
+            new Rule("(?i)([\\\\/](?:tmp|temp)[\\\\/])[^\\s'\"\\\\/]+", "$1<TMP>"),
+            new Rule("(?i)\\b(pid|process)([\\s=:#]+)\\d+\\b", "$1$2<PID>"),
+            new Rule("(?i)\\b(BUILD_NUMBER|BUILD_ID)=\\d+\\b", "$1=<N>"),
+            new Rule("#\\d+\\b", "#<N>"));
+
+    private LogNormalizer() {
+    }
+
+    /**
+     * @return the text with volatile tokens replaced by placeholders
+     */
+    public static String normalize(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        String result = text;
+        for (Rule rule : RULES) {
+            result = rule.apply(result);
+        }
+        return result;
+    }
+
+    /**
+     * Whether logs extracted for the given job property should be normalized.
+     */
+    public static boolean isEnabled(GlobalConfigurationImpl config, ErrorPatternProperty property) {
+        return config.isNormalizeLogs() && (property == null || !property.isDisableLogNormalization());
+    }
+
+    private static final class Rule {
+        private final Pattern pattern;
+        private final String replacement;
+
+        Rule(String regex, String replacement) {
+            this.pattern = Pattern.compile(regex);
+            this.replacement = replacement;
+        }
+
+        String apply(String text) {
+            Matcher matcher = pattern.matcher(text);
+            return matcher.find() ? matcher.replaceAll(replacement) : text;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import java.util.concurrent.TimeUnit;
+import jenkins.metrics.api.Metrics;
+
+/**
+ * Records analysis metrics in the Metrics plugin registry. Only loaded when the optional
+ * Metrics plugin is active, so nothing else may refer to the Dropwizard classes.
+ */
+final class MetricsPluginSink implements AnalysisMetrics.Sink {
+
+    private final MetricRegistry registry;
+
+    private MetricsPluginSink(MetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    static MetricsPluginSink create() {
+        MetricsPluginSink sink = new MetricsPluginSink(Metrics.metricRegistry());
+        sink.gauge("queue.running", () -> AnalysisScheduler.get().getRunning());
+        sink.gauge("queue.waiting", () -> AnalysisScheduler.get().getQueued());
+        sink.gauge("queue.rejected", () -> AnalysisScheduler.get().getRejectedCount());
+        sink.gauge("circuit.open", () -> CircuitBreaker.get().getState() == CircuitBreaker.State.CLOSED ? 0 : 1);
+        return sink;
+    }
+
+    @Override
+    public void count(String name, long increment) {
+        registry.counter(name).inc(increment);
+    }
+
+    @Override
+    public void time(String name, long nanos) {
+        registry.timer(name).update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void update(String name, long value) {
+        registry.histogram(name).update(value);
+    }
+
+    private void gauge(String name, Gauge<Number> gauge) {
+        // Looked up rather than registered, so a second sink after a reload does not fail on the existing name
+        registry.gauge(AnalysisMetrics.PREFIX + name, () -> gauge);
+    }
+}
@@ -0,0 +1,211 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import jenkins.util.SystemProperties;
+
+/**
+ * Builds an {@link ErrorIndex} of a large log file by scanning byte ranges of it in parallel.
+ * The file is split into chunks that start at line starts, so every line is scanned by exactly
+ * one chunk; each chunk numbers its lines from zero, and the chunks are renumbered in file order
+ * once they are done. The result is the index a single forward scan builds, so error blocks,
+ * including context that crosses chunk boundaries, are assembled from it exactly as before.
+ * <p>
+ * Chunks run on a shared pool of {@code ParallelLogScanner.parallelism} threads (default: one per
+ * processor). Logs smaller than {@code ParallelLogScanner.minBytes} (default 64 MiB) are scanned
+ * on the calling thread; a parallelism of 1 turns parallel scanning off.
+ */
+public final class ParallelLogScanner {
+
+    static final int PARALLELISM = Math.max(1, SystemProperties.getInteger(
+            ParallelLogScanner.class.getName() + ".parallelism", Runtime.getRuntime().availableProcessors()));
+
+    static final long MIN_BYTES = SystemProperties.getLong(ParallelLogScanner.class.getName() + ".minBytes", 64L << 20);
+
+    static final long MIN_CHUNK_BYTES = 4L << 20;
+
+    // A few chunks per thread, so a chunk dense with errors does not hold up the others
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private ParallelLogScanner() {
+    }
+
+    /**
+     * @return whether a log of this size is worth scanning in parallel
+     */
+    public static boolean isEnabledFor(long logLength) {
+        return PARALLELISM > 1 && logLength >= MIN_BYTES;
+    }
+
+    /**
+     * Scans the whole log in parallel on the shared pool.
+     * @return the same index as {@link ErrorIndex#buildSequentially}
+     */
+    public static ErrorIndex buildIndex(File logFile, Charset charset, ErrorPatternMatcher patternMatcher) throws IOException {
+        long length = logFile.length();
+        long chunkBytes = Math.max(MIN_CHUNK_BYTES, length / ((long) PARALLELISM * CHUNKS_PER_THREAD));
+        return buildIndex(logFile, charset, patternMatcher, Pool.INSTANCE, chunkBytes);
+    }
+
+    static ErrorIndex buildIndex(File logFile, Charset charset, ErrorPatternMatcher patternMatcher,
+                                 ForkJoinPool pool, long chunkBytes) throws IOException {
+        long length;
+        List<Long> starts;
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+            length = channel.size();
+            starts = chunkStarts(channel, length, chunkBytes);
+        }
+
+        List<ChunkScan> scans = new ArrayList<>();
+        for (int i = 0; i < starts.size(); i++) {
+            long end = i + 1 < starts.size() ? starts.get(i + 1) : length;
+            scans.add(new ChunkScan(logFile, charset, patternMatcher, starts.get(i), end));
+        }
+        for (ChunkScan scan : scans) {
+            pool.execute(scan);
+        }
+
+        ErrorIndex index = new ErrorIndex(ErrorIndex.patternHash(patternMatcher));
+        long firstLine = 0;
+        try {
+            for (ChunkScan scan : scans) {
+                ErrorIndex chunk = scan.get();
+                if (chunk.getFirstLine() > 0) {
+                    // The chunk dropped its older entries, so nothing before its kept ones is complete
+                    index.dropBefore(firstLine + chunk.getFirstLine());
+                }
+                for (int i = 0; i < chunk.size(); i++) {
+                    index.add(firstLine + chunk.getLine(i), chunk.getOffset(i), chunk.getPatternId(i));
+                }
+                firstLine += chunk.getTotalLines();
+            }
+        } catch (InterruptedException e) {
+            cancel(scans);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while scanning " + logFile);
+        } catch (ExecutionException e) {
+            cancel(scans);
+            Throwable cause = e.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException("Could not scan " + logFile, cause);
+        }
+        index.finish(length, firstLine);
+        return index;
+    }
+
+    /**
+     * Splits the log into chunks of about chunkBytes, each starting at the start of a line.
+     * A line longer than a chunk ends up in one chunk, the next chunk starting after it.
+     * @return offsets where the chunks start, the first one 0
+     */
+    static List<Long> chunkStarts(FileChannel channel, long length, long chunkBytes) throws IOException {
+        List<Long> starts = new ArrayList<>();
+        starts.add(0L);
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long next = chunkBytes;
+        while (next < length) {
+            long start = nextLineStart(channel, buffer, next, length);
+            if (start >= length) {
+                break;
+            }
+            starts.add(start);
+            next = start + chunkBytes;
+        }
+        return starts;
+    }
+
+    /**
+     * @return the first line start at or after the offset, or length if no line starts there
+     */
+    private static long nextLineStart(FileChannel channel, ByteBuffer buffer, long offset, long length) throws IOException {
+        // A line starts at the offset if the byte before it ends a line
+        long position = offset - 1;
+        while (position < length) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return length;
+    }
+
+    private static void cancel(List<ChunkScan> scans) {
+        for (ChunkScan scan : scans) {
+            scan.cancel(false);
+        }
+    }
+
+    /**
+     * Scans the lines starting in one byte range, numbering them from zero.
+     */
+    private static final class ChunkScan extends RecursiveTask<ErrorIndex> {
+
+        private final File logFile;
+        private final Charset charset;
+        private final ErrorPatternMatcher patternMatcher;
+        private final long start;
+        private final long end;
+
+        ChunkScan(File logFile, Charset charset, ErrorPatternMatcher patternMatcher, long start, long end) {
+            this.logFile = logFile;
+            this.charset = charset;
+            this.patternMatcher = patternMatcher;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected ErrorIndex compute() {
+            ErrorIndex chunk = new ErrorIndex(0);
+            ErrorPatternMatcher.LineMatcher lineMatcher = patternMatcher.newLineMatcher();
+            try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+                channel.position(start);
+                LogLineReader reader = new LogLineReader(Channels.newInputStream(channel), charset, start, 0);
+                String line;
+                // Chunks end where the next one starts, so the last line read ends exactly at end
+                while (reader.getOffset() < end && (line = reader.readLine()) != null) {
+                    int matched = lineMatcher.match(line);
+                    if (matched >= 0) {
+                        chunk.add(reader.getLineNumber(), reader.getLineStartOffset(), matched);
+                    }
+                }
+                chunk.finish(reader.getOffset() - start, reader.getLineNumber() + 1);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return chunk;
+        }
+    }
+
+    private static final class Pool {
+
+        static final ForkJoinPool INSTANCE = new ForkJoinPool(PARALLELISM, pool -> {
+            // Worker threads are daemons, so an idle pool does not keep Jenkins from shutting down
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Gemini log scan " + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+    }
+}
@@ -0,0 +1,189 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Fits extracted error logs into a prompt token budget.
+ * Logs that already fit are left alone. Otherwise overlong lines are shortened first,
+ * then repeated blocks are collapsed, and finally blocks are kept newest first
+ * (the last failure is usually the one that broke the build) until the budget is used up.
+ * A block is an error block from context extraction, or a single line for plain filtered logs.
+ */
+public final class PromptBuilder {
+
+    /**
+     * Lines longer than this (minified stack traces, compiler command lines) are cut in the middle.
+     */
+    static final int MAX_LINE_CHARS = 500;
+
+    private static final String HEADER_START = "=== ERROR ANALYSIS ===";
+
+    private static final Pattern BLOCK_SEPARATOR = Pattern.compile("\n\n--- Error Block [^\n]*\n\n");
+
+    private PromptBuilder() {
+    }
+
+    /**
+     * Estimates tokens the way Gemini and most BPE tokenizers average out on log text,
+     * about four characters per token. Cheap enough to call on every request.
+     */
+    public static int estimateTokens(CharSequence text) {
+        return text == null ? 0 : (text.length() + 3) / 4;
+    }
+
+    /**
+     * @param errorLogs extracted error logs
+     * @param maxTokens token budget for the logs, 0 or less for no limit
+     * @return the logs, trimmed to the budget if needed
+     */
+    public static String fit(String errorLogs, int maxTokens) {
+        if (maxTokens <= 0 || errorLogs == null || estimateTokens(errorLogs) <= maxTokens) {
+            return errorLogs;
+        }
+
+        String header = "";
+        String body = errorLogs;
+        if (errorLogs.startsWith(HEADER_START)) {
+            int end = errorLogs.indexOf("\n\n");
+            if (end >= 0) {
+                header = errorLogs.substring(0, end + 2);
+                body = errorLogs.substring(end + 2);
+            }
+        }
+
+        // Split into blocks, remembering the separator so the output keeps the input's layout
+        List<String> blocks = new ArrayList<>();
+        String separator;
+        Matcher matcher = BLOCK_SEPARATOR.matcher(body);
+        if (matcher.find()) {
+            separator = matcher.group();
+            int start = 0;
+            do {
+                blocks.add(body.substring(start, matcher.start()));
+                start = matcher.end();
+            } while (matcher.find());
+            blocks.add(body.substring(start));
+        } else {
+            separator = "\n";
+            for (String line : body.split("\n", -1)) {
+                blocks.add(line);
+            }
+        }
+
+        // 1. Shorten overlong lines
+        for (int i = 0; i < blocks.size(); i++) {
+            blocks.set(i, truncateLines(blocks.get(i)));
+        }
+        int budget = maxTokens - estimateTokens(header);
+        String joined = String.join(separator, blocks);
+        if (estimateTokens(joined) <= budget) {
+            return header + joined;
+        }
+
+        // 2. Collapse repeated blocks into their last occurrence
+        blocks = dedupe(blocks, !"\n".equals(separator));
+        joined = String.join(separator, blocks);
+        if (estimateTokens(joined) <= budget) {
+            return header + joined;
+        }
+
+        // 3. Keep the newest blocks that fit, leaving room for the omission note
+        int reserve = estimateTokens(omittedNote(blocks.size())) + 1;
+        List<String> kept = new ArrayList<>();
+        int used = 0;
+        int i = blocks.size() - 1;
+        for (; i >= 0; i--) {
+            int cost = estimateTokens(blocks.get(i)) + estimateTokens(separator);
+            if (used + cost + reserve > budget) {
+                break;
+            }
+            kept.add(0, blocks.get(i));
+            used += cost;
+        }
+        if (kept.isEmpty() && i >= 0) {
+            // Not even the last block fits: keep its tail, closest to the failure
+            kept.add(tail(blocks.get(i), budget - reserve));
+            i--;
+        }
+        int omitted = i + 1;
+        return header + (omitted > 0 ? omittedNote(omitted) + "\n" : "") + String.join(separator, kept);
+    }
+
+    private static String omittedNote(int omitted) {
+        return "[" + omitted + " earlier " + (omitted == 1 ? "entry" : "entries") + " omitted to fit the prompt budget]";
+    }
+
+    private static String truncateLines(String block) {
+        if (block.length() <= MAX_LINE_CHARS) {
+            return block;
+        }
+        StringBuilder result = new StringBuilder();
+        String[] lines = block.split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            if (i > 0) {
+                result.append('\n');
+            }
+            String line = lines[i];
+            if (line.length() <= MAX_LINE_CHARS) {
+                result.append(line);
+            } else {
+                int keep = MAX_LINE_CHARS / 2;
+                result.append(line, 0, keep)
+                        .append(" ...[").append(line.length() - 2 * keep).append(" chars truncated]... ")
+                        .append(line, line.length() - keep, line.length());
+            }
+        }
+        return result.toString();
+    }
+
+    private static List<String> dedupe(List<String> blocks, boolean multiLine) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String block : blocks) {
+            counts.merge(block, 1, Integer::sum);
+        }
+        if (counts.size() == blocks.size()) {
+            return blocks;
+        }
+        Map<String, Integer> remaining = new LinkedHashMap<>(counts);
+        List<String> result = new ArrayList<>();
+        for (String block : blocks) {
+            int left = remaining.get(block) - 1;
+            remaining.put(block, left);
+            if (left > 0) {
+                continue; // keep only the last occurrence
+            }
+            int count = counts.get(block);
+            if (count == 1 || block.isEmpty()) {
+                result.add(block);
+            } else if (multiLine) {
+                result.add(block + "\n[block repeated " + count + " times]");
+            } else {
+                result.add(block + " [repeated " + count + " times]");
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return as many trailing lines of the block as fit in the budget
+     */
+    private static String tail(String block, int maxTokens) {
+        String[] lines = block.split("\n", -1);
+        List<String> kept = new ArrayList<>();
+        int used = 0;
+        for (int i = lines.length - 1; i >= 0; i--) {
+            int cost = estimateTokens(lines[i]) + 1;
+            if (used + cost > maxTokens) {
+                break;
+            }
+            kept.add(0, lines[i]);
+            used += cost;
+        }
+        return String.join("\n", kept);
+    }
+}
@@ -0,0 +1,21 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.io.IOException;
+
+/**
+ * Thrown when the AI provider is overloaded or down: it kept answering with rate limit,
+ * server or timeout errors after the retries ran out, or the {@link CircuitBreaker} is open.
+ * The failure is temporary, so it is not stored as the analysis of the build.
+ */
+public class ProviderUnavailableException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ProviderUnavailableException(String message) {
+        super(message);
+    }
+
+    public ProviderUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,110 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import jenkins.util.SystemProperties;
+
+/**
+ * Client-side token buckets for the AI provider quota: one for requests per minute and one
+ * for prompt tokens per minute. Each bucket holds at most a minute's worth and refills
+ * continuously. Callers reserve what they need and sleep until their reservation is covered,
+ * so requests are spread over the minute instead of tripping the provider's 429 limit in a burst.
+ */
+public class RateLimiter {
+
+    static final long DEFAULT_MAX_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    private static final RateLimiter INSTANCE = new RateLimiter(System::nanoTime,
+            SystemProperties.getLong(RateLimiter.class.getName() + ".maxWaitMillis", DEFAULT_MAX_WAIT_MILLIS));
+
+    private final LongSupplier nanoTime;
+    private final long maxWaitMillis;
+    private final Bucket requests = new Bucket();
+    private final Bucket tokens = new Bucket();
+
+    RateLimiter(LongSupplier nanoTime, long maxWaitMillis) {
+        this.nanoTime = nanoTime;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public static RateLimiter get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Waits until one request with the given number of prompt tokens fits the quota.
+     * The limits are taken from each call so configuration changes apply to the next caller.
+     * @param promptTokens estimated prompt tokens of the request
+     * @param requestsPerMinute request quota, 0 for no limit
+     * @param tokensPerMinute token quota, 0 for no limit
+     * @throws AnalysisRejectedException if the wait would be longer than the maximum wait
+     * @throws InterruptedIOException if the thread was interrupted while waiting
+     */
+    public void acquire(int promptTokens, int requestsPerMinute, int tokensPerMinute)
+            throws AnalysisRejectedException, InterruptedIOException {
+        long waitNanos = reserve(promptTokens, requestsPerMinute, tokensPerMinute);
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the AI rate limit");
+            }
+        }
+    }
+
+    /**
+     * Takes one request and the prompt tokens from the buckets.
+     * @return nanoseconds to wait before the reservation is covered
+     */
+    synchronized long reserve(int promptTokens, int requestsPerMinute, int tokensPerMinute)
+            throws AnalysisRejectedException {
+        long now = nanoTime.getAsLong();
+        long requestWait = requests.waitFor(1, requestsPerMinute, now);
+        long tokenWait = tokens.waitFor(promptTokens, tokensPerMinute, now);
+        long waitNanos = Math.max(requestWait, tokenWait);
+        if (waitNanos > TimeUnit.MILLISECONDS.toNanos(maxWaitMillis)) {
+            throw new AnalysisRejectedException("AI rate limit reached (" + requestsPerMinute + " requests, "
+                    + tokensPerMinute + " tokens per minute); try again in "
+                    + TimeUnit.NANOSECONDS.toSeconds(waitNanos) + "s");
+        }
+        requests.take(1, requestsPerMinute);
+        tokens.take(promptTokens, tokensPerMinute);
+        return waitNanos;
+    }
+
+    private static final class Bucket {
+
+        private int perMinute;
+        private double available;
+        private long refilledAt;
+
+        /**
+         * Refills the bucket and returns how long the amount takes to become available.
+         */
+        long waitFor(long amount, int perMinute, long now) {
+            if (perMinute <= 0) {
+                this.perMinute = 0;
+                return 0;
+            }
+            if (perMinute != this.perMinute) {
+                // New quota: start with a full bucket
+                this.perMinute = perMinute;
+                available = perMinute;
+            } else {
+                available = Math.min(perMinute, available + (now - refilledAt) * perMinute / (double) TimeUnit.MINUTES.toNanos(1));
+            }
+            refilledAt = now;
+            // A single request larger than the whole quota only waits for a full bucket
+            double missing = Math.min(amount, perMinute) - available;
+            return missing <= 0 ? 0 : (long) Math.ceil(missing * TimeUnit.MINUTES.toNanos(1) / perMinute);
+        }
+
+        void take(long amount, int perMinute) {
+            if (perMinute > 0) {
+                available -= Math.min(amount, perMinute);
+            }
+        }
+    }
+}
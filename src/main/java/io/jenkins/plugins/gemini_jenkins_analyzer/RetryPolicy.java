@@ -0,0 +1,182 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.InternalServerException;
+import dev.langchain4j.exception.NonRetriableException;
+import dev.langchain4j.exception.RateLimitException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which AI provider failures are worth retrying and how long to wait before the next attempt.
+ * Failures are recognised by the LangChain4j exception types and HTTP status codes, then by
+ * connection errors; the message is only looked at when neither tells what happened.
+ */
+public final class RetryPolicy {
+
+    static final long BASE_DELAY_MILLIS = 1000;
+
+    static final long MAX_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    /** Failure causes reported by {@link #failureCause}. */
+    public static final String RATE_LIMIT = "rate_limit";
+    public static final String SERVER_ERROR = "server_error";
+    public static final String TIMEOUT = "timeout";
+    public static final String CONNECTION = "connection";
+    public static final String OTHER = "other";
+
+    private static final Pattern TIMEOUT_MESSAGE = Pattern.compile("DEADLINE_EXCEEDED", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern RATE_LIMIT_MESSAGE = Pattern.compile("\\b429\\b|RESOURCE_EXHAUSTED", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern SERVER_ERROR_MESSAGE = Pattern.compile("\\b(500|502|503|504)\\b|UNAVAILABLE|overloaded",
+            Pattern.CASE_INSENSITIVE);
+
+    // Gemini puts the delay in a RetryInfo detail, e.g. "retryDelay": "37s"
+    private static final Pattern RETRY_DELAY = Pattern.compile("\"retryDelay\"\\s*:\\s*\"(\\d+(?:\\.\\d+)?)s\"");
+
+    private static final Pattern RETRY_AFTER = Pattern.compile("Retry-After\\s*[:=]\\s*(\\d+)", Pattern.CASE_INSENSITIVE);
+
+    private RetryPolicy() {
+    }
+
+    /**
+     * @return whether the failure is a rate limit, server error, timeout or connection failure that may go away on its own
+     */
+    public static boolean isTransient(Throwable failure) {
+        return !OTHER.equals(failureCause(failure));
+    }
+
+    /**
+     * @return {@link #RATE_LIMIT}, {@link #SERVER_ERROR}, {@link #TIMEOUT} or {@link #CONNECTION} for
+     *         transient failures, {@link #OTHER} for everything else
+     */
+    public static String failureCause(Throwable failure) {
+        boolean connection = false;
+        for (Throwable t = failure; t != null; t = next(t)) {
+            if (t instanceof dev.langchain4j.exception.TimeoutException || t instanceof SocketTimeoutException
+                    || t instanceof HttpTimeoutException || t instanceof TimeoutException) {
+                return TIMEOUT;
+            }
+            if (t instanceof RateLimitException) {
+                return RATE_LIMIT;
+            }
+            if (t instanceof InternalServerException) {
+                return SERVER_ERROR;
+            }
+            if (t instanceof HttpException) {
+                return statusCause(((HttpException) t).statusCode());
+            }
+            if (t instanceof NonRetriableException) {
+                return OTHER;
+            }
+            connection |= t instanceof IOException || t instanceof UnresolvedAddressException;
+        }
+        if (connection) {
+            return CONNECTION;
+        }
+        // Last resort for clients that report HTTP errors only in the message
+        for (Throwable t = failure; t != null; t = next(t)) {
+            String message = t.getMessage() != null ? t.getMessage() : "";
+            if (TIMEOUT_MESSAGE.matcher(message).find()) {
+                return TIMEOUT;
+            }
+            if (RATE_LIMIT_MESSAGE.matcher(message).find()) {
+                return RATE_LIMIT;
+            }
+            if (SERVER_ERROR_MESSAGE.matcher(message).find()) {
+                return SERVER_ERROR;
+            }
+        }
+        return OTHER;
+    }
+
+    /**
+     * @return whether the provider sent an HTTP response, so a failure says nothing about its availability
+     */
+    public static boolean isProviderResponse(Throwable failure) {
+        for (Throwable t = failure; t != null; t = next(t)) {
+            if (t instanceof HttpException || t instanceof NonRetriableException
+                    || t instanceof RateLimitException || t instanceof InternalServerException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the failure came from interrupting the calling thread, however the HTTP client wrapped it
+     */
+    public static boolean isInterrupted(Throwable failure) {
+        for (Throwable t = failure; t != null; t = next(t)) {
+            // A socket timeout is an InterruptedIOException too, but nobody interrupted anything
+            if (t instanceof InterruptedException || t instanceof ClosedByInterruptException
+                    || (t instanceof InterruptedIOException && !(t instanceof SocketTimeoutException))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String statusCause(int statusCode) {
+        if (statusCode == 429) {
+            return RATE_LIMIT;
+        }
+        if (statusCode == 408) {
+            return TIMEOUT;
+        }
+        return statusCode >= 500 ? SERVER_ERROR : OTHER;
+    }
+
+    private static Throwable next(Throwable t) {
+        return t.getCause() == t ? null : t.getCause();
+    }
+
+    /**
+     * @return the delay the provider asked for, in milliseconds, or 0 if it did not ask for one
+     */
+    public static long retryAfterMillis(Throwable failure) {
+        for (Throwable t = failure; t != null; t = next(t)) {
+            String message = t.getMessage();
+            if (message == null) {
+                continue;
+            }
+            Matcher matcher = RETRY_DELAY.matcher(message);
+            if (matcher.find()) {
+                return (long) Math.ceil(Double.parseDouble(matcher.group(1)) * 1000);
+            }
+            matcher = RETRY_AFTER.matcher(message);
+            if (matcher.find()) {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(matcher.group(1)));
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Exponential backoff with full jitter: a random delay up to one second, doubling with each
+     * attempt and capped at a minute, so clients that failed together do not retry together.
+     * @param attempt number of attempts made so far, starting at 1
+     */
+    public static long backoffMillis(int attempt) {
+        long ceiling = BASE_DELAY_MILLIS << Math.min(attempt - 1, 16);
+        return ThreadLocalRandom.current().nextLong(Math.min(ceiling, MAX_DELAY_MILLIS) + 1);
+    }
+
+    /**
+     * @return how long to wait before the next attempt: the provider's delay if it gave one, otherwise the backoff
+     */
+    public static long delayMillis(Throwable failure, int attempt) {
+        long retryAfter = retryAfterMillis(failure);
+        return retryAfter > 0 ? retryAfter : backoffMillis(attempt);
+    }
+}
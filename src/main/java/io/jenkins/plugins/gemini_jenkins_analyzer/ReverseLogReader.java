@@ -0,0 +1,217 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import hudson.console.ConsoleNote;
+import hudson.model.Run;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads console log lines backwards from the end of a file-backed build log.
+ * Uses positional {@link FileChannel} reads, so the cost depends on how far back
+ * the caller walks rather than on the size of the log.
+ * Lines are split and cleaned exactly like {@link LogLineReader} does.
+ */
+public class ReverseLogReader implements Closeable {
+
+    private final FileChannel channel;
+    private final Charset charset;
+    private final ByteBuffer block = ByteBuffer.allocate(LogLineReader.BUFFER_SIZE);
+    private long blockStart = -1;
+    private int blockLength;
+    private byte[] lineBytes = new byte[256];
+    private int lineLength;
+    private final long length;
+    private long position;
+    private long lineStartOffset;
+    private boolean exhausted;
+
+    public ReverseLogReader(File file, Charset charset) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.charset = charset;
+        long size = channel.size();
+        this.length = size;
+        this.position = size;
+        this.lineStartOffset = size;
+        this.exhausted = size == 0;
+        // A trailing newline does not start a new line
+        if (size > 0 && byteAt(size - 1) == '\n') {
+            this.position = size - 1;
+        }
+    }
+
+    /**
+     * Returns the plain file holding the run's console log, or null when the log
+     * is not stored as an uncompressed file in the build directory.
+     */
+    public static File getLogFile(Run<?, ?> run) {
+        File rootDir = run.getRootDir();
+        if (rootDir == null) {
+            return null;
+        }
+        File logFile = new File(rootDir, "log");
+        return logFile.isFile() ? logFile : null;
+    }
+
+    /**
+     * Opens a reverse reader on the run's log, or returns null when the log is not file-backed.
+     */
+    public static ReverseLogReader open(Run<?, ?> run) throws IOException {
+        File logFile = getLogFile(run);
+        return logFile != null ? new ReverseLogReader(logFile, run.getCharset()) : null;
+    }
+
+    /**
+     * Reads the line before the one last returned.
+     * @return the line with console notes removed, or null once the start of the log is reached
+     */
+    public String readPreviousLine() throws IOException {
+        if (exhausted) {
+            return null;
+        }
+        lineLength = 0;
+        boolean truncated = false;
+        long p = position;
+        while (p > 0) {
+            byte b = byteAt(p - 1);
+            if (b == '\n') {
+                break;
+            }
+            p--;
+            if (b != '\r') {
+                if (lineLength < LogLineReader.MAX_LINE_BYTES) {
+                    append(b);
+                } else {
+                    truncated = true;
+                }
+            }
+        }
+        advanceTo(p);
+
+        String line;
+        if (truncated) {
+            line = readHead(p);
+        } else {
+            reverse(lineBytes, lineLength);
+            line = new String(lineBytes, 0, lineLength, charset);
+        }
+        return ConsoleNote.removeNotes(line);
+    }
+
+    /**
+     * Walks back over lines without decoding them.
+     * @return the number of lines actually skipped
+     */
+    public long skipPreviousLines(long count) throws IOException {
+        long skipped = 0;
+        while (skipped < count && !exhausted) {
+            long p = position;
+            while (p > 0 && byteAt(p - 1) != '\n') {
+                p--;
+            }
+            advanceTo(p);
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * Moves the reader so the next line read or skipped is the one before the line starting at the given offset.
+     */
+    public void seek(long lineStart) {
+        advanceTo(lineStart);
+        exhausted = lineStart == 0;
+    }
+
+    /**
+     * @return byte offset of the line last returned or skipped, or the file size if none was
+     */
+    public long getLineStartOffset() {
+        return lineStartOffset;
+    }
+
+    /**
+     * @return bytes from the start of the line last read to the end of the file
+     */
+    public long getBytesRead() {
+        return length - lineStartOffset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void advanceTo(long lineStart) {
+        lineStartOffset = lineStart;
+        if (lineStart == 0) {
+            exhausted = true;
+        } else {
+            position = lineStart - 1; // skip the newline that ends the previous line
+        }
+    }
+
+    private byte byteAt(long offset) throws IOException {
+        if (offset < blockStart || offset >= blockStart + blockLength) {
+            long start = Math.max(0, offset + 1 - block.capacity());
+            block.clear();
+            block.limit((int) (offset + 1 - start));
+            while (block.hasRemaining()) {
+                if (channel.read(block, start + block.position()) < 0) {
+                    throw new IOException("Log file shrank while reading");
+                }
+            }
+            blockStart = start;
+            blockLength = block.position();
+        }
+        return block.get((int) (offset - blockStart));
+    }
+
+    /**
+     * Reads the first {@link LogLineReader#MAX_LINE_BYTES} bytes of an overlong line, matching the forward reader.
+     */
+    private String readHead(long lineStart) throws IOException {
+        lineLength = 0;
+        ByteBuffer chunk = ByteBuffer.allocate(LogLineReader.BUFFER_SIZE);
+        long p = lineStart;
+        while (lineLength < LogLineReader.MAX_LINE_BYTES) {
+            chunk.clear();
+            int read = channel.read(chunk, p);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read && lineLength < LogLineReader.MAX_LINE_BYTES; i++) {
+                byte b = chunk.get(i);
+                if (b == '\n') {
+                    return new String(lineBytes, 0, lineLength, charset);
+                }
+                if (b != '\r') {
+                    append(b);
+                }
+            }
+            p += read;
+        }
+        return new String(lineBytes, 0, lineLength, charset);
+    }
+
+    private void append(byte b) {
+        if (lineLength == lineBytes.length) {
+            byte[] grown = new byte[Math.min(lineBytes.length * 2, LogLineReader.MAX_LINE_BYTES)];
+            System.arraycopy(lineBytes, 0, grown, 0, lineLength);
+            lineBytes = grown;
+        }
+        lineBytes[lineLength++] = b;
+    }
+
+    private static void reverse(byte[] bytes, int length) {
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            byte tmp = bytes[i];
+            bytes[i] = bytes[j];
+            bytes[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collapses concurrent computations with the same key into one.
+ * The first caller runs the computation; callers arriving while it is in flight
+ * wait for it and get the same result or exception. Nothing is cached afterwards.
+ *
+ * @param <T> result type
+ */
+public class SingleFlight<T> {
+
+    private final ConcurrentMap<String, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong joinedCount = new AtomicLong();
+
+    /**
+     * Runs the computation, or joins the one already running for the key.
+     */
+    public T execute(String key, Callable<T> computation) throws Exception {
+        CompletableFuture<T> flight = new CompletableFuture<>();
+        CompletableFuture<T> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            joinedCount.incrementAndGet();
+            try {
+                return existing.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            T result = computation.call();
+            flight.complete(result);
+            return result;
+        } catch (Throwable t) {
+            flight.completeExceptionally(t);
+            throw t;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return true if a computation for the key is currently running
+     */
+    public boolean isInFlight(String key) {
+        return inFlight.containsKey(key);
+    }
+
+    /**
+     * @return how many callers joined a computation started by someone else
+     */
+    public long getJoinedCount() {
+        return joinedCount.get();
+    }
+}
@@ -65,18 +65,49 @@ document.addEventListener('DOMContentLoaded', function () {
 });
 
 function checkBuildStatusAndAddButton() {
-  checkBuildStatus(function(buildingStatus) {
+  checkBuildStatus(function(buildingStatus, errorsDetected) {
     // Build status 2 is completed and it's UNSTABLE or FAILURE
     if (buildingStatus == 2) {
       // Build is completed, show the button
+      hideLiveErrorCount();
       addAnalyzeErrorButton();
     } else if (buildingStatus == 1) {
+      if (typeof errorsDetected === 'number') {
+        showLiveErrorCount(errorsDetected);
+      }
       // Build is still running, check again after a delay
       setTimeout(checkBuildStatusAndAddButton, 5000); // Check every 5 seconds
     }
   });
 }
 
+function showLiveErrorCount(count) {
+  let counter = document.getElementById('analyzer-live-errors');
+  if (!counter) {
+    const consoleOutput =
+      document.querySelector('#out') ||
+      document.querySelector('pre.console-output') ||
+      document.querySelector('pre');
+    if (!consoleOutput || !consoleOutput.parentNode) {
+      return;
+    }
+    counter = document.createElement('div');
+    counter.id = 'analyzer-live-errors';
+    counter.style.marginBottom = '10px';
+    counter.style.fontWeight = '600';
+    consoleOutput.parentNode.insertBefore(counter, consoleOutput);
+  }
+  counter.textContent = count === 1 ? '⚠️ 1 error detected so far' : `⚠️ ${count} errors detected so far`;
+  counter.classList.toggle('jenkins-hidden', count === 0);
+}
+
+function hideLiveErrorCount() {
+  const counter = document.getElementById('analyzer-live-errors');
+  if (counter) {
+    counter.classList.add('jenkins-hidden');
+  }
+}
+
 function checkBuildStatus(callback) {
   const basePath = window.location.pathname.replace(/\/console(Full)?$/, '');
   const url = basePath + '/console-analyzer-error/checkBuildStatus';
@@ -92,7 +123,7 @@ function checkBuildStatus(callback) {
   })
   .then(response => response.json())
   .then(data => {
-    callback(data.buildingStatus);
+    callback(data.buildingStatus, data.errorsDetected);
   })
   .catch(error => {
     console.warn('Error checking build status:', error);
@@ -297,7 +328,7 @@ function sendAnalyzeRequest(forceNew = false) {
     console.warn('Could not fetch filtered logs:', error);
   });
 
-  // Then send the analysis request
+  // Then start the analysis; it runs in the background and is polled until done
   fetch(analyzeUrl, {
     method: "POST",
     headers: headers,
@@ -310,12 +341,69 @@ function sendAnalyzeRequest(forceNew = false) {
     return response.text();
   })
   .then(responseText => {
+    let jsonResponse;
     try {
-      const jsonResponse = JSON.parse(responseText);
-      showErrorAnalysis(jsonResponse);
+      jsonResponse = JSON.parse(responseText);
     } catch (e) {
       showErrorAnalysis(responseText);
+      return;
+    }
+    handleAnalysisStatus(jsonResponse, basePath);
+  })
+  .catch(error => {
+    showErrorAnalysis(`Error: ${error.message}`);
+  });
+}
+
+function handleAnalysisStatus(data, basePath) {
+  if (typeof data === 'string') {
+    showErrorAnalysis(data);
+  } else if (data.status === 'COMPLETED') {
+    showErrorAnalysis(data.result);
+  } else if (data.status === 'FAILED' || data.status === 'UNKNOWN') {
+    showErrorAnalysis(`Error: ${data.error}`);
+  } else if (data.status === 'REJECTED') {
+    showErrorAnalysis(`Analysis not started: ${data.error}`);
+  } else {
+    // Show text streamed so far; poll faster once Gemini has started answering
+    const offset = data.offset || 0;
+    if (data.partial) {
+      showPartialAnalysis(data.partial);
     }
+    setTimeout(function() {
+      pollAnalysisStatus(data.jobId, basePath, offset);
+    }, offset > 0 ? 500 : 1000);
+  }
+}
+
+function showPartialAnalysis(fragment) {
+  const container = document.getElementById('analyzer-error-container');
+  const spinner = document.getElementById('analyzer-error-spinner');
+  const content = document.getElementById('analyzer-error-content');
+  const statusText = document.getElementById('analyzer-status-text');
+
+  container.classList.remove('jenkins-hidden');
+  spinner.classList.add('jenkins-hidden');
+  content.textContent += fragment;
+
+  if (statusText) statusText.textContent = 'Receiving AI Analysis...';
+}
+
+function pollAnalysisStatus(jobId, basePath, offset = 0) {
+  const statusUrl = basePath + '/console-analyzer-error/analysisStatus';
+
+  const headers = crumb.wrap({
+    "Content-Type": "application/x-www-form-urlencoded",
+  });
+
+  fetch(statusUrl, {
+    method: "POST",
+    headers: headers,
+    body: "jobId=" + encodeURIComponent(jobId) + "&offset=" + offset
+  })
+  .then(response => response.json())
+  .then(data => {
+    handleAnalysisStatus(data, basePath);
   })
   .catch(error => {
     showErrorAnalysis(`Error: ${error.message}`);
@@ -233,4 +233,21 @@ class AIServiceUnitTest {
         assertNotEquals("No error logs provided for analysis.", result);
         assertNotNull(result);
     }
+
+    @Test
+    void testFitToPromptBudgetWithoutBudgetKeepsLogs() {
+        String errorLogs = "ERROR: one\n".repeat(1000);
+        assertSame(errorLogs, aiService.fitToPromptBudget(errorLogs));
+    }
+
+    @Test
+    void testFitToPromptBudgetIsStable() {
+        when(config.getMaxPromptTokens()).thenReturn(200);
+        String errorLogs = "ERROR: one\n".repeat(1000);
+
+        String fitted = aiService.fitToPromptBudget(errorLogs);
+
+        assertTrue(fitted.length() < errorLogs.length());
+        assertEquals(fitted, aiService.fitToPromptBudget(fitted));
+    }
 }
@@ -0,0 +1,102 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Fast unit tests for AnalysisCache that don't require Jenkins.
+ */
+class AnalysisCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testKeyDependsOnModelAndPrompt() {
+        String key = AnalysisCache.key("gemini-2.0-flash", "ERROR: build failed");
+
+        assertEquals(key, AnalysisCache.key("gemini-2.0-flash", "ERROR: build failed"));
+        assertNotEquals(key, AnalysisCache.key("gemini-2.5-pro", "ERROR: build failed"));
+        assertNotEquals(key, AnalysisCache.key("gemini-2.0-flash", "ERROR: test failed"));
+        assertEquals(64, key.length());
+    }
+
+    @Test
+    void testKeyIgnoresLineEndingsAndTrailingWhitespace() {
+        assertEquals(AnalysisCache.key("m", "line one\nline two"),
+                AnalysisCache.key("m", "line one  \r\nline two\t"));
+        assertNotEquals(AnalysisCache.key("m", "line one\nline two"),
+                AnalysisCache.key("m", "  line one\nline two"));
+    }
+
+    @Test
+    void testStoreAndLookup() {
+        AnalysisCache cache = new AnalysisCache(tempDir.toFile());
+        String key = AnalysisCache.key("m", "prompt");
+
+        assertNull(cache.lookup(key, 24));
+        cache.store(key, "Root cause: missing dependency", 10);
+
+        assertEquals("Root cause: missing dependency", cache.lookup(key, 24));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testEntriesSurviveRestart() {
+        String key = AnalysisCache.key("m", "prompt");
+        new AnalysisCache(tempDir.toFile()).store(key, "persisted analysis", 10);
+
+        AnalysisCache restarted = new AnalysisCache(tempDir.toFile());
+
+        assertEquals("persisted analysis", restarted.lookup(key, 24));
+    }
+
+    @Test
+    void testExpiredEntriesAreDropped() {
+        String key = AnalysisCache.key("m", "prompt");
+        new AnalysisCache(tempDir.toFile()).store(key, "old analysis", 10);
+        File file = new File(tempDir.toFile(), key + ".txt");
+        assertTrue(file.setLastModified(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(25)));
+
+        AnalysisCache restarted = new AnalysisCache(tempDir.toFile());
+
+        assertNull(restarted.lookup(key, 24));
+        assertFalse(file.exists());
+    }
+
+    @Test
+    void testOldestEntriesAreEvicted() {
+        AnalysisCache cache = new AnalysisCache(tempDir.toFile());
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            String key = AnalysisCache.key("m", "prompt " + i);
+            cache.store(key, "analysis " + i, 3);
+            assertTrue(new File(tempDir.toFile(), key + ".txt").setLastModified(now - TimeUnit.MINUTES.toMillis(10 - i)));
+        }
+
+        cache.store(AnalysisCache.key("m", "prompt 3"), "analysis 3", 3);
+
+        assertEquals(3, tempDir.toFile().list().length);
+        AnalysisCache restarted = new AnalysisCache(tempDir.toFile());
+        assertNull(restarted.lookup(AnalysisCache.key("m", "prompt 0"), 24));
+        assertEquals("analysis 3", restarted.lookup(AnalysisCache.key("m", "prompt 3"), 24));
+    }
+
+    @Test
+    void testClearRemovesEverything() {
+        AnalysisCache cache = new AnalysisCache(tempDir.toFile());
+        String key = AnalysisCache.key("m", "prompt");
+        cache.store(key, "analysis", 10);
+
+        cache.clear();
+
+        assertNull(cache.lookup(key, 24));
+        assertEquals(0, tempDir.toFile().list().length);
+    }
+}
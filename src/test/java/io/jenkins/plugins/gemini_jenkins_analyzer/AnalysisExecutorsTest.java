@@ -0,0 +1,93 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for AnalysisExecutors that don't require Jenkins.
+ */
+class AnalysisExecutorsTest {
+
+    /**
+     * Runs tasks that each hold their thread for a while and returns the most that ran at once.
+     */
+    private static int maxRunningAtOnce(ExecutorService executor, int tasks) throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger max = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(tasks);
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+                max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        return max.get();
+    }
+
+    @Test
+    void testVirtualThreadsAreUsedWhenTheJvmHasThem() {
+        assertEquals(Runtime.version().feature() >= 21, AnalysisExecutors.isVirtual());
+    }
+
+    @Test
+    void testLimitIsHonoured() throws Exception {
+        ExecutorService executor = AnalysisExecutors.newExecutor("test", 2);
+        try {
+            int max = maxRunningAtOnce(executor, 12);
+            assertTrue(max <= 2, "ran " + max + " at once");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testNoLimitRunsTasksAtOnce() throws Exception {
+        ExecutorService executor = AnalysisExecutors.newExecutor("test", 0);
+        CountDownLatch started = new CountDownLatch(50);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int i = 0; i < 50; i++) {
+                executor.execute(() -> {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBoundedExecutorLimitsDelegate() throws Exception {
+        ExecutorService executor = new AnalysisExecutors.BoundedExecutor(Executors.newCachedThreadPool(), 3);
+        try {
+            int max = maxRunningAtOnce(executor, 30);
+            assertTrue(max <= 3, "ran " + max + " at once");
+            assertTrue(max >= 2, "tasks should overlap");
+        } finally {
+            executor.shutdownNow();
+        }
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(executor.isShutdown());
+    }
+}
@@ -0,0 +1,167 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for AnalysisJobManager that don't require Jenkins.
+ */
+class AnalysisJobManagerTest {
+
+    private AnalysisJobManager manager;
+
+    @AfterEach
+    void tearDown() {
+        if (manager != null) {
+            manager.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmitReturnsBeforeTaskFinishes() throws Exception {
+        manager = new AnalysisJobManager(1, AnalysisJobManager.DEFAULT_RETENTION_MILLIS);
+        CountDownLatch release = new CountDownLatch(1);
+
+        AnalysisJob job = manager.submit("job#1", "key1", handle -> {
+            release.await();
+            return "analysis";
+        });
+
+        assertFalse(job.isDone());
+        assertNull(job.getResult());
+        assertSame(job, manager.getJob(job.getId()));
+
+        release.countDown();
+        assertTrue(job.await(5, TimeUnit.SECONDS));
+        assertEquals(AnalysisJob.Status.COMPLETED, job.getStatus());
+        assertEquals("analysis", job.getResult());
+        assertEquals("job#1", job.getRunId());
+    }
+
+    @Test
+    void testRejectedTaskReportsRejection() throws Exception {
+        manager = new AnalysisJobManager(1, AnalysisJobManager.DEFAULT_RETENTION_MILLIS);
+
+        AnalysisJob job = manager.submit("job#1", "key-rejected", handle -> {
+            throw new AnalysisRejectedException("AI analysis queue is full");
+        });
+
+        assertTrue(job.await(5, TimeUnit.SECONDS));
+        assertTrue(job.isDone());
+        assertEquals(AnalysisJob.Status.REJECTED, job.getStatus());
+        assertEquals("AI analysis queue is full", job.getError());
+        assertNull(job.getResult());
+    }
+
+    @Test
+    void testFailedTaskReportsError() throws Exception {
+        manager = new AnalysisJobManager(1, AnalysisJobManager.DEFAULT_RETENTION_MILLIS);
+
+        AnalysisJob job = manager.submit("job#1", "key2", handle -> {
+            throw new IllegalStateException("provider unavailable");
+        });
+
+        assertTrue(job.await(5, TimeUnit.SECONDS));
+        assertEquals(AnalysisJob.Status.FAILED, job.getStatus());
+        assertEquals("provider unavailable", job.getError());
+        assertNull(job.getResult());
+    }
+
+    @Test
+    void testQueuedJobsWaitForFreeThread() throws Exception {
+        manager = new AnalysisJobManager(1, AnalysisJobManager.DEFAULT_RETENTION_MILLIS);
+        CountDownLatch release = new CountDownLatch(1);
+
+        AnalysisJob first = manager.submit("job#1", "key3", handle -> {
+            release.await();
+            return "first";
+        });
+        AnalysisJob second = manager.submit("job#2", "key4", handle -> "second");
+
+        assertEquals(AnalysisJob.Status.QUEUED, second.getStatus());
+        release.countDown();
+        assertTrue(second.await(5, TimeUnit.SECONDS));
+        assertEquals("first", first.getResult());
+        assertEquals("second", second.getResult());
+    }
+
+    @Test
+    void testPendingJobWithSameKeyIsJoined() throws Exception {
+        manager = new AnalysisJobManager(2, AnalysisJobManager.DEFAULT_RETENTION_MILLIS);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        AnalysisJob first = manager.submit("job#1", "console:200", handle -> {
+            calls.incrementAndGet();
+            release.await();
+            return "analysis";
+        });
+        AnalysisJob joined = manager.submit("job#1", "console:200", handle -> "unused");
+        AnalysisJob otherRun = manager.submit("job#2", "console:200", handle -> "other");
+
+        assertSame(first, joined);
+        assertNotSame(first, otherRun);
+
+        release.countDown();
+        assertTrue(first.await(5, TimeUnit.SECONDS));
+        assertEquals("analysis", joined.getResult());
+        assertEquals(1, calls.get());
+
+        // Once finished, the same request starts a fresh job
+        AnalysisJob next = manager.submit("job#1", "console:200", handle -> "fresh");
+        assertNotSame(first, next);
+        assertTrue(next.await(5, TimeUnit.SECONDS));
+        assertEquals("fresh", next.getResult());
+    }
+
+    @Test
+    void testPartialResultsAreReadFromOffset() throws Exception {
+        manager = new AnalysisJobManager(1, AnalysisJobManager.DEFAULT_RETENTION_MILLIS);
+        CountDownLatch streamed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        AnalysisJob job = manager.submit("job#1", "console:200", handle -> {
+            handle.appendPartial("Root cause: ");
+            handle.appendPartial("missing SDK");
+            streamed.countDown();
+            release.await();
+            return "Root cause: missing SDK";
+        });
+
+        assertTrue(streamed.await(5, TimeUnit.SECONDS));
+        assertEquals(AnalysisJob.Status.RUNNING, job.getStatus());
+        assertEquals("Root cause: missing SDK", job.getPartial(0));
+        assertEquals("missing SDK", job.getPartial(12));
+        assertEquals("", job.getPartial(job.getPartialLength()));
+        assertEquals("", job.getPartial(-1));
+
+        release.countDown();
+        assertTrue(job.await(5, TimeUnit.SECONDS));
+        assertEquals("Root cause: missing SDK", job.getResult());
+    }
+
+    @Test
+    void testUnknownJobIdReturnsNull() {
+        manager = new AnalysisJobManager(1, AnalysisJobManager.DEFAULT_RETENTION_MILLIS);
+
+        assertNull(manager.getJob("does-not-exist"));
+        assertNull(manager.getJob(null));
+    }
+
+    @Test
+    void testFinishedJobsExpire() throws Exception {
+        manager = new AnalysisJobManager(1, 0);
+
+        AnalysisJob job = manager.submit("job#1", "key5", handle -> "analysis");
+        assertTrue(job.await(5, TimeUnit.SECONDS));
+        Thread.sleep(5);
+
+        assertNull(manager.getJob(job.getId()));
+        assertEquals(0, manager.size());
+    }
+}
@@ -0,0 +1,245 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import hudson.model.Result;
+import hudson.util.Secret;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import org.htmlunit.HttpMethod;
+import org.htmlunit.WebRequest;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+/**
+ * End-to-end load harness: drives concurrent console analyses and analyzeError steps
+ * against a {@link MockGeminiServer} and logs latency percentiles and throughput.
+ * Only runs when the number of requests is given, so a plain {@code mvn test} skips it; size it with
+ * system properties, for example
+ * {@code mvn test -Dtest=AnalysisLoadHarnessTest -DAnalysisLoadHarnessTest.requests=500 -DAnalysisLoadHarnessTest.concurrency=50 -DAnalysisLoadHarnessTest.latencyMillis=2000 -DAnalysisLoadHarnessTest.rateLimitRate=0.05}
+ */
+@WithJenkins
+@EnabledIfSystemProperty(named = "AnalysisLoadHarnessTest.requests", matches = "\\d+")
+class AnalysisLoadHarnessTest {
+
+    private static final Logger LOGGER = Logger.getLogger(AnalysisLoadHarnessTest.class.getName());
+
+    private static final String PREFIX = AnalysisLoadHarnessTest.class.getSimpleName() + ".";
+    private static final int REQUESTS = Integer.getInteger(PREFIX + "requests", 8);
+    private static final int CONCURRENCY = Integer.getInteger(PREFIX + "concurrency", 4);
+    private static final long LATENCY_MILLIS = Long.getLong(PREFIX + "latencyMillis", 100);
+    private static final double ERROR_RATE = Double.parseDouble(System.getProperty(PREFIX + "errorRate", "0"));
+    private static final double RATE_LIMIT_RATE = Double.parseDouble(System.getProperty(PREFIX + "rateLimitRate", "0"));
+
+    private static final long TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private MockGeminiServer server;
+
+    @BeforeEach
+    void setUp(JenkinsRule jenkins) throws Exception {
+        server = new MockGeminiServer(0, 42)
+                .latency(LATENCY_MILLIS)
+                .errorRate(ERROR_RATE)
+                .rateLimitRate(RATE_LIMIT_RATE)
+                .retryDelay(0.2)
+                .streaming(4, LATENCY_MILLIS / 10);
+
+        GlobalConfigurationImpl config = GlobalConfigurationImpl.get();
+        config.setApiUrl(server.getBaseUrl());
+        config.setApiKey(Secret.fromString("test-api-key"));
+        config.setModel("gemini-2.0-flash");
+        config.setEnableAnalysis(true);
+        // Every build fails differently, but keep repeated runs from measuring the cache
+        config.setAnalysisCacheTtlHours(0);
+        CircuitBreaker.get().onSuccess();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testConcurrentConsoleAnalyses(JenkinsRule jenkins) throws Exception {
+        WorkflowJob job = jenkins.createProject(WorkflowJob.class, "console-load");
+        job.setDefinition(new CpsFlowDefinition(
+                "echo \"Assets/Scripts/Build${env.BUILD_NUMBER}.cs(42,13): error CS0246: The type or namespace name 'Foo' could not be found\"\n"
+                        + "error 'Build failed'", true));
+        List<WorkflowRun> runs = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            runs.add(jenkins.assertBuildStatus(Result.FAILURE, job.scheduleBuild2(0)));
+        }
+
+        List<Callable<Outcome>> tasks = new ArrayList<>();
+        for (WorkflowRun run : runs) {
+            tasks.add(() -> analyzeFromConsole(jenkins, run));
+        }
+        Report report = runConcurrently("console analysis", tasks);
+
+        assertEquals(REQUESTS, report.total());
+        assertSucceededWithoutInjectedFailures(report);
+    }
+
+    @Test
+    void testConcurrentAnalyzeErrorSteps(JenkinsRule jenkins) throws Exception {
+        List<WorkflowJob> jobs = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            WorkflowJob job = jenkins.createProject(WorkflowJob.class, "step-load-" + i);
+            job.setDefinition(new CpsFlowDefinition(
+                    "echo 'Assets/Scripts/Player" + i + ".cs(42,13): error CS0246: The type or namespace name could not be found'\n"
+                            + "analyzeError()", true));
+            jobs.add(job);
+        }
+
+        List<Callable<Outcome>> tasks = new ArrayList<>();
+        for (WorkflowJob job : jobs) {
+            tasks.add(() -> {
+                long started = System.nanoTime();
+                WorkflowRun run = job.scheduleBuild2(0).get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                long elapsed = System.nanoTime() - started;
+                ErrorAnalysisAction action = run.getAction(ErrorAnalysisAction.class);
+                String log = JenkinsRule.getLog(run);
+                String status = action != null && action.hasValidAnalysis() ? "COMPLETED"
+                        : log.contains("AI error analysis skipped") ? "REJECTED" : "FAILED";
+                return new Outcome(status, elapsed);
+            });
+        }
+        Report report = runConcurrently("analyzeError step", tasks);
+
+        assertEquals(REQUESTS, report.total());
+        assertSucceededWithoutInjectedFailures(report);
+    }
+
+    /**
+     * Starts a console analysis over HTTP and polls it until it is done.
+     */
+    private Outcome analyzeFromConsole(JenkinsRule jenkins, WorkflowRun run) throws Exception {
+        try (JenkinsRule.WebClient client = jenkins.createWebClient()) {
+            String base = jenkins.getURL() + run.getUrl() + "console-analyzer-error/";
+            long started = System.nanoTime();
+            JsonNode response = post(client, base + "explainConsoleError?forceNew=true");
+            if (!response.isObject()) {
+                // Failures to start are reported as a plain message
+                return new Outcome("FAILED", System.nanoTime() - started);
+            }
+            String jobId = response.path("jobId").asText();
+            long deadline = started + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+            while (!isDone(response.path("status").asText()) && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+                response = post(client, base + "analysisStatus?jobId=" + jobId + "&offset=" + response.path("offset").asInt());
+            }
+            return new Outcome(response.path("status").asText(), System.nanoTime() - started);
+        }
+    }
+
+    private JsonNode post(JenkinsRule.WebClient client, String url) throws Exception {
+        WebRequest request = new WebRequest(new URL(url), HttpMethod.POST);
+        return mapper.readTree(client.getPage(client.addCrumb(request)).getWebResponse().getContentAsString());
+    }
+
+    private static boolean isDone(String status) {
+        return "COMPLETED".equals(status) || "FAILED".equals(status) || "REJECTED".equals(status);
+    }
+
+    private Report runConcurrently(String name, List<Callable<Outcome>> tasks) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+        long requestsBefore = server.getRequestCount();
+        long started = System.nanoTime();
+        List<Future<Outcome>> futures;
+        try {
+            futures = pool.invokeAll(tasks, TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+        long wallNanos = System.nanoTime() - started;
+
+        Report report = new Report();
+        for (Future<Outcome> future : futures) {
+            report.add(future.get());
+        }
+        LOGGER.info(report.format(name, wallNanos, server.getRequestCount() - requestsBefore, server.getPeakConcurrency()));
+        return report;
+    }
+
+    private void assertSucceededWithoutInjectedFailures(Report report) {
+        if (ERROR_RATE == 0 && RATE_LIMIT_RATE == 0) {
+            assertEquals(report.total(), report.count("COMPLETED"), "Not all analyses completed: " + report.statuses);
+        }
+    }
+
+    private static final class Outcome {
+
+        final String status;
+        final long nanos;
+
+        Outcome(String status, long nanos) {
+            this.status = status;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Collects end-to-end latencies and final statuses.
+     */
+    private static final class Report {
+
+        private final List<Long> latencies = new ArrayList<>();
+        private final Map<String, Integer> statuses = new TreeMap<>();
+
+        void add(Outcome outcome) {
+            latencies.add(outcome.nanos);
+            statuses.merge(outcome.status, 1, Integer::sum);
+        }
+
+        int total() {
+            return latencies.size();
+        }
+
+        int count(String status) {
+            return statuses.getOrDefault(status, 0);
+        }
+
+        /**
+         * @return the latency below which the given share of requests finished, nearest-rank method
+         */
+        long percentileMillis(double percentile) {
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            int rank = (int) Math.ceil(percentile / 100 * sorted.size());
+            return TimeUnit.NANOSECONDS.toMillis(sorted.get(Math.max(0, rank - 1)));
+        }
+
+        String format(String name, long wallNanos, long providerRequests, int peakConcurrency) {
+            double seconds = wallNanos / 1e9;
+            return String.format("%n=== Load harness: %s ===%n"
+                            + "requests=%d concurrency=%d latency=%dms errorRate=%.2f rateLimitRate=%.2f%n"
+                            + "statuses=%s%n"
+                            + "p50=%dms p90=%dms p99=%dms max=%dms%n"
+                            + "throughput=%.2f/s wall=%.1fs providerRequests=%d peakProviderConcurrency=%d%n",
+                    name, total(), CONCURRENCY, LATENCY_MILLIS, ERROR_RATE, RATE_LIMIT_RATE,
+                    statuses,
+                    percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(100),
+                    total() / seconds, seconds, providerRequests, peakConcurrency);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for AnalysisMetrics that don't require Jenkins.
+ */
+class AnalysisMetricsTest {
+
+    private final Map<String, Long> recorded = new TreeMap<>();
+
+    @BeforeEach
+    void setUp() {
+        AnalysisMetrics.reset();
+        AnalysisMetrics.setSink(new AnalysisMetrics.Sink() {
+            @Override
+            public void count(String name, long increment) {
+                recorded.merge(name, increment, Long::sum);
+            }
+
+            @Override
+            public void time(String name, long nanos) {
+                recorded.merge(name, 1L, Long::sum);
+            }
+
+            @Override
+            public void update(String name, long value) {
+                recorded.put(name, value);
+            }
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        AnalysisMetrics.reset();
+    }
+
+    private long value(String name) {
+        return recorded.getOrDefault(name, 0L);
+    }
+
+    @Test
+    void testExtractionRecordsLinesScannedAndMatched() {
+        ErrorPatternMatcher.LineMatcher lineMatcher = ErrorPatternMatcher.compile(List.of("error")).newLineMatcher();
+        for (String line : List.of("compiling", "error: missing symbol", "linking", "ERROR: link failed")) {
+            lineMatcher.match(line);
+        }
+
+        AnalysisMetrics.extraction(null, 1_000, 4_096, lineMatcher);
+
+        assertEquals(4, value("gemini-analyzer.lines.scanned"));
+        assertEquals(2, value("gemini-analyzer.lines.matched"));
+        assertEquals(4_096, value("gemini-analyzer.log.fetch.bytes"));
+        assertEquals(1, value("gemini-analyzer.log.fetch.duration"));
+        assertEquals(1, value("gemini-analyzer.pattern.match.duration"));
+        assertEquals(4_096, value("gemini-analyzer.folder.other.log.fetch.bytes"));
+    }
+
+    @Test
+    void testUnfilteredExtractionHasNoMatchMetrics() {
+        AnalysisMetrics.extraction(null, 1_000, 100, null);
+
+        assertFalse(recorded.containsKey("gemini-analyzer.lines.scanned"));
+        assertEquals(100, value("gemini-analyzer.log.fetch.bytes"));
+    }
+
+    @Test
+    void testProviderFailuresAreCountedByCause() {
+        AnalysisMetrics.providerFailure(RetryPolicy.RATE_LIMIT);
+        AnalysisMetrics.providerFailure(RetryPolicy.RATE_LIMIT);
+        AnalysisMetrics.providerFailure(RetryPolicy.TIMEOUT);
+        AnalysisMetrics.providerRetry();
+
+        assertEquals(2, value("gemini-analyzer.provider.failures.rate_limit"));
+        assertEquals(1, value("gemini-analyzer.provider.failures.timeout"));
+        assertEquals(1, value("gemini-analyzer.provider.retries"));
+    }
+
+    @Test
+    void testTimeToFirstFragmentOnlyForStreams() {
+        AnalysisMetrics.providerCall(-1, 2_000);
+        assertFalse(recorded.containsKey("gemini-analyzer.provider.ttfb"));
+
+        AnalysisMetrics.providerCall(500, 2_000);
+        assertEquals(1, value("gemini-analyzer.provider.ttfb"));
+        assertEquals(2, value("gemini-analyzer.provider.duration"));
+    }
+
+    @Test
+    void testCacheHitsAndMisses() {
+        AnalysisMetrics.cacheLookup(true);
+        AnalysisMetrics.cacheLookup(false);
+        AnalysisMetrics.cacheLookup(false);
+
+        assertEquals(1, value("gemini-analyzer.cache.hits"));
+        assertEquals(2, value("gemini-analyzer.cache.misses"));
+    }
+
+    @Test
+    void testJobsAreGroupedByTopLevelItem() {
+        assertEquals("gemini-analyzer.folder.mobile.", AnalysisMetrics.folderPrefix("mobile/ios/release"));
+        assertEquals("gemini-analyzer.folder.mobile.", AnalysisMetrics.folderPrefix("mobile/android"));
+        assertEquals("gemini-analyzer.folder.nightly.", AnalysisMetrics.folderPrefix("nightly"));
+        assertEquals("gemini-analyzer.folder.game_v2_0.", AnalysisMetrics.folderPrefix("game v2.0/build"));
+    }
+
+    @Test
+    void testFolderCountIsCapped() {
+        for (int i = 0; i < AnalysisMetrics.MAX_FOLDERS; i++) {
+            assertEquals("gemini-analyzer.folder.team" + i + ".", AnalysisMetrics.folderPrefix("team" + i + "/build"));
+        }
+
+        assertEquals("gemini-analyzer.folder.other.", AnalysisMetrics.folderPrefix("one-too-many"));
+        // Items seen before the cap keep their own metrics
+        assertEquals("gemini-analyzer.folder.team0.", AnalysisMetrics.folderPrefix("team0/deploy"));
+    }
+}
@@ -0,0 +1,167 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for AnalysisScheduler that don't require Jenkins.
+ */
+class AnalysisSchedulerTest {
+
+    private final AnalysisScheduler scheduler = new AnalysisScheduler(AnalysisScheduler.DEFAULT_MAX_WAIT_MILLIS);
+
+    /**
+     * Starts a thread that takes a slot, records its name once admitted and holds the slot until released.
+     */
+    private Thread waiter(String name, AnalysisScheduler.Priority priority, List<String> admitted,
+                          CountDownLatch release, AtomicReference<Throwable> failure) {
+        Thread thread = new Thread(() -> {
+            try (AnalysisScheduler.Permit permit = scheduler.acquire(priority, 1, 0)) {
+                admitted.add(name);
+                release.await();
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        }, name);
+        thread.start();
+        return thread;
+    }
+
+    private void awaitQueued(int queued) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.getQueued() != queued && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(queued, scheduler.getQueued());
+    }
+
+    @Test
+    void testNoLimitNeverWaits() throws Exception {
+        AnalysisScheduler.Permit first = scheduler.acquire(AnalysisScheduler.Priority.BATCH, 0, 0);
+        AnalysisScheduler.Permit second = scheduler.acquire(AnalysisScheduler.Priority.BATCH, 0, 0);
+
+        assertEquals(2, scheduler.getRunning());
+        first.close();
+        second.close();
+        assertEquals(0, scheduler.getRunning());
+    }
+
+    @Test
+    void testClosingTwiceReleasesOnce() throws Exception {
+        AnalysisScheduler.Permit permit = scheduler.acquire(AnalysisScheduler.Priority.STEP, 2, 0);
+        scheduler.acquire(AnalysisScheduler.Priority.STEP, 2, 0);
+
+        permit.close();
+        permit.close();
+
+        assertEquals(1, scheduler.getRunning());
+    }
+
+    @Test
+    void testWaitersAreAdmittedByPriority() throws Exception {
+        AnalysisScheduler.Permit holder = scheduler.acquire(AnalysisScheduler.Priority.BATCH, 1, 0);
+        List<String> admitted = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread batch = waiter("batch", AnalysisScheduler.Priority.BATCH, admitted, release, failure);
+        awaitQueued(1);
+        Thread step = waiter("step", AnalysisScheduler.Priority.STEP, admitted, release, failure);
+        awaitQueued(2);
+        Thread interactive = waiter("interactive", AnalysisScheduler.Priority.INTERACTIVE, admitted, release, failure);
+        awaitQueued(3);
+
+        release.countDown();
+        holder.close();
+        for (Thread thread : List.of(batch, step, interactive)) {
+            thread.join(5000);
+        }
+
+        assertNull(failure.get());
+        assertEquals(List.of("interactive", "step", "batch"), admitted);
+        assertEquals(0, scheduler.getRunning());
+    }
+
+    @Test
+    void testFullQueueRejectsEqualPriority() throws Exception {
+        AnalysisScheduler.Permit holder = scheduler.acquire(AnalysisScheduler.Priority.STEP, 1, 1);
+        CountDownLatch waiting = new CountDownLatch(1);
+        Thread queued = new Thread(() -> {
+            waiting.countDown();
+            try (AnalysisScheduler.Permit permit = scheduler.acquire(AnalysisScheduler.Priority.STEP, 1, 1)) {
+                // Admitted once the holder is done
+            } catch (Exception e) {
+                fail(e);
+            }
+        });
+        queued.start();
+        waiting.await();
+        awaitQueued(1);
+
+        AnalysisRejectedException e = assertThrows(AnalysisRejectedException.class,
+                () -> scheduler.acquire(AnalysisScheduler.Priority.STEP, 1, 1));
+        assertTrue(e.getMessage().contains("queue is full"));
+        assertEquals(1, scheduler.getRejectedCount());
+
+        holder.close();
+        queued.join(5000);
+        assertEquals(0, scheduler.getRunning());
+    }
+
+    @Test
+    void testHigherPriorityPushesOutLowerPriorityWaiter() throws Exception {
+        AnalysisScheduler.Permit holder = scheduler.acquire(AnalysisScheduler.Priority.STEP, 1, 1);
+        AtomicReference<Throwable> pushedOut = new AtomicReference<>();
+        Thread batch = new Thread(() -> {
+            try (AnalysisScheduler.Permit permit = scheduler.acquire(AnalysisScheduler.Priority.BATCH, 1, 1)) {
+                fail("batch work should have been pushed out");
+            } catch (Exception e) {
+                pushedOut.set(e);
+            }
+        });
+        batch.start();
+        awaitQueued(1);
+
+        AtomicInteger interactiveRuns = new AtomicInteger();
+        Thread interactive = new Thread(() -> {
+            try (AnalysisScheduler.Permit permit = scheduler.acquire(AnalysisScheduler.Priority.INTERACTIVE, 1, 1)) {
+                interactiveRuns.incrementAndGet();
+            } catch (Exception e) {
+                fail(e);
+            }
+        });
+        interactive.start();
+        batch.join(5000);
+
+        assertInstanceOf(AnalysisRejectedException.class, pushedOut.get());
+        assertTrue(pushedOut.get().getMessage().contains("pushed out"));
+
+        holder.close();
+        interactive.join(5000);
+        assertEquals(1, interactiveRuns.get());
+        assertEquals(1, scheduler.getRejectedCount());
+    }
+
+    @Test
+    void testWaitingTooLongIsRejected() throws Exception {
+        AnalysisScheduler impatient = new AnalysisScheduler(50);
+        AnalysisScheduler.Permit holder = impatient.acquire(AnalysisScheduler.Priority.STEP, 1, 0);
+
+        long started = System.nanoTime();
+        AnalysisRejectedException e = assertThrows(AnalysisRejectedException.class,
+                () -> impatient.acquire(AnalysisScheduler.Priority.INTERACTIVE, 1, 0));
+
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started) >= 40);
+        assertTrue(e.getMessage().contains("Timed out"));
+        assertEquals(0, impatient.getQueued());
+        holder.close();
+        assertEquals(0, impatient.getRunning());
+    }
+}
@@ -0,0 +1,140 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Fast unit tests for AnalysisSidecar that don't require Jenkins.
+ */
+class AnalysisSidecarTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        File dir = tempDir.toFile();
+        new AnalysisSidecar("Root cause: missing dependency", "ERROR: ünïcödé\nFAILED").write(dir);
+
+        AnalysisSidecar read = AnalysisSidecar.read(dir);
+
+        assertNotNull(read);
+        assertEquals("Root cause: missing dependency", read.getAnalysis());
+        assertEquals("ERROR: ünïcödé\nFAILED", read.getErrorLogs());
+    }
+
+    @Test
+    void testNullValuesRoundTrip() throws IOException {
+        File dir = tempDir.toFile();
+        new AnalysisSidecar(null, "logs").write(dir);
+
+        AnalysisSidecar read = AnalysisSidecar.read(dir);
+
+        assertNull(read.getAnalysis());
+        assertEquals("logs", read.getErrorLogs());
+    }
+
+    @Test
+    void testLargeLogsAreCompressed() throws IOException {
+        File dir = tempDir.toFile();
+        String logs = "ERROR: the same failure again\n".repeat(10_000);
+        new AnalysisSidecar("analysis", logs).write(dir);
+
+        assertTrue(new File(dir, AnalysisSidecar.FILE_NAME).length() < logs.length() / 10);
+    }
+
+    @Test
+    void testNoTemporaryFilesAreLeft() throws IOException {
+        File dir = tempDir.toFile();
+        new AnalysisSidecar("first", "logs").write(dir);
+        new AnalysisSidecar("second", "logs").write(dir);
+
+        assertArrayEquals(new String[] {AnalysisSidecar.FILE_NAME}, dir.list());
+    }
+
+    @Test
+    void testWriteReplacesContent() throws IOException {
+        File dir = tempDir.toFile();
+        new AnalysisSidecar("first", "logs").write(dir);
+        new AnalysisSidecar("second", "logs").write(dir);
+
+        assertEquals("second", AnalysisSidecar.read(dir).getAnalysis());
+    }
+
+    @Test
+    void testTraceRoundTrip() throws IOException {
+        File dir = tempDir.toFile();
+        AnalysisTrace trace = new AnalysisTrace("gemini-2.0-flash", 70_000, 1_200, 800, 3_000, 64_000, 2_500, 1_500,
+                4_096, 10_000, 12, 900, 150, 1, false);
+        new AnalysisSidecar("analysis", "logs", 42, trace).write(dir);
+
+        AnalysisTrace read = AnalysisSidecar.read(dir).getTrace();
+
+        assertNotNull(read);
+        assertEquals("gemini-2.0-flash", read.getModel());
+        assertEquals(70_000, read.getTotalMillis());
+        assertEquals(1_200, read.getExtractionMillis());
+        assertEquals(800, read.getMatchMillis());
+        assertEquals(3_000, read.getQueueMillis());
+        assertEquals(64_000, read.getProviderMillis());
+        assertEquals(2_500, read.getFirstFragmentMillis());
+        assertEquals(1_500, read.getBackoffMillis());
+        assertEquals(4_096, read.getBytesRead());
+        assertEquals(10_000, read.getLinesScanned());
+        assertEquals(12, read.getLinesMatched());
+        assertEquals(900, read.getPromptTokens());
+        assertEquals(150, read.getResponseTokens());
+        assertEquals(1, read.getRetries());
+        assertFalse(read.isCached());
+    }
+
+    @Test
+    void testContentWithoutTrace() throws IOException {
+        File dir = tempDir.toFile();
+        new AnalysisSidecar("analysis", "logs", 42).write(dir);
+
+        AnalysisSidecar read = AnalysisSidecar.read(dir);
+
+        assertNull(read.getTrace());
+        assertEquals(42, read.getTimestamp());
+    }
+
+    @Test
+    void testReadsVersion2Files() throws IOException {
+        File dir = tempDir.toFile();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(
+                Files.newOutputStream(new File(dir, AnalysisSidecar.FILE_NAME).toPath())))) {
+            out.writeInt(2);
+            out.writeLong(42);
+            writeString(out, "analysis");
+            writeString(out, "logs");
+        }
+
+        AnalysisSidecar read = AnalysisSidecar.read(dir);
+
+        assertEquals("analysis", read.getAnalysis());
+        assertEquals("logs", read.getErrorLogs());
+        assertEquals(42, read.getTimestamp());
+        assertNull(read.getTrace());
+    }
+
+    @Test
+    void testMissingFile() throws IOException {
+        assertNull(AnalysisSidecar.read(tempDir.toFile()));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,103 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Fast unit tests for AnalysisStore that don't require Jenkins.
+ */
+class AnalysisStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private AnalysisStore store;
+
+    @AfterEach
+    void tearDown() {
+        if (store != null) {
+            store.shutdown();
+        }
+    }
+
+    private File buildDir(String name) throws IOException {
+        return Files.createDirectories(tempDir.resolve(name)).toFile();
+    }
+
+    @Test
+    void testSavedAnalysisIsVisibleBeforeItIsWritten() throws IOException {
+        store = new AnalysisStore(60_000);
+        File dir = buildDir("1");
+
+        store.put(dir, new AnalysisSidecar("analysis", "logs", 42));
+
+        assertTrue(store.has(dir));
+        assertEquals("analysis", store.load(dir).getAnalysis());
+        assertEquals(42, store.load(dir).getTimestamp());
+        assertFalse(AnalysisSidecar.exists(dir));
+    }
+
+    @Test
+    void testFlushWritesFilesAndKeepsThemReadable() throws IOException {
+        store = new AnalysisStore(60_000);
+        File first = buildDir("1");
+        File second = buildDir("2");
+        store.put(first, new AnalysisSidecar("first", "logs 1", 1));
+        store.put(second, new AnalysisSidecar("second", "logs 2", 2));
+
+        store.flush();
+
+        assertEquals(2, store.getWriteCount());
+        assertEquals("first", AnalysisSidecar.read(first).getAnalysis());
+        assertEquals("logs 2", AnalysisSidecar.read(second).getErrorLogs());
+        assertEquals("second", store.load(second).getAnalysis());
+    }
+
+    @Test
+    void testRepeatedSavesOfOneBuildAreCoalesced() throws IOException {
+        store = new AnalysisStore(60_000);
+        File dir = buildDir("1");
+        for (int i = 0; i < 10; i++) {
+            store.put(dir, new AnalysisSidecar("analysis " + i, "logs", i));
+        }
+
+        store.flush();
+
+        assertEquals(1, store.getWriteCount());
+        assertEquals("analysis 9", AnalysisSidecar.read(dir).getAnalysis());
+    }
+
+    @Test
+    void testWritesHappenInTheBackground() throws Exception {
+        store = new AnalysisStore(10);
+        File dir = buildDir("1");
+
+        store.put(dir, new AnalysisSidecar("analysis", "logs", 1));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (store.getWriteCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, store.getWriteCount());
+        assertTrue(AnalysisSidecar.exists(dir));
+    }
+
+    @Test
+    void testLoadsFilesWrittenEarlier() throws IOException {
+        File dir = buildDir("1");
+        new AnalysisSidecar("from disk", "logs", 7).write(dir);
+        store = new AnalysisStore(60_000);
+
+        assertTrue(store.has(dir));
+        assertEquals("from disk", store.load(dir).getAnalysis());
+        assertFalse(store.has(buildDir("2")));
+        assertNull(store.load(buildDir("2")));
+    }
+}
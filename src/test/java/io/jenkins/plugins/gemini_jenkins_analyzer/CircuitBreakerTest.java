@@ -0,0 +1,106 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for CircuitBreaker that don't require Jenkins.
+ */
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final CircuitBreaker breaker = new CircuitBreaker(now::get, 3, 30_000);
+
+    private void failCalls(int times) throws Exception {
+        for (int i = 0; i < times; i++) {
+            breaker.checkAllowed();
+            breaker.onFailure(0);
+        }
+    }
+
+    @Test
+    void testOpensAfterConsecutiveFailures() throws Exception {
+        failCalls(2);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        failCalls(1);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        ProviderUnavailableException e = assertThrows(ProviderUnavailableException.class, breaker::checkAllowed);
+        assertTrue(e.getMessage().contains("30s"));
+    }
+
+    @Test
+    void testSuccessResetsFailureCount() throws Exception {
+        failCalls(2);
+        breaker.onSuccess();
+        failCalls(2);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.checkAllowed();
+    }
+
+    @Test
+    void testLetsOneTrialThroughAfterOpenPeriod() throws Exception {
+        failCalls(3);
+        now.addAndGet(30_000);
+
+        breaker.checkAllowed();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertThrows(ProviderUnavailableException.class, breaker::checkAllowed);
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.checkAllowed();
+    }
+
+    @Test
+    void testFailedTrialOpensAgain() throws Exception {
+        failCalls(3);
+        now.addAndGet(30_000);
+
+        breaker.checkAllowed();
+        breaker.onFailure(0);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(ProviderUnavailableException.class, breaker::checkAllowed);
+    }
+
+    @Test
+    void testStaysOpenForProviderRetryDelay() throws Exception {
+        failCalls(2);
+        breaker.checkAllowed();
+        breaker.onFailure(120_000);
+
+        now.addAndGet(60_000);
+        assertThrows(ProviderUnavailableException.class, breaker::checkAllowed);
+        now.addAndGet(60_000);
+        breaker.checkAllowed();
+    }
+
+    @Test
+    void testLostTrialDoesNotBlockForever() throws Exception {
+        failCalls(3);
+        now.addAndGet(30_000);
+        breaker.checkAllowed();
+
+        now.addAndGet(30_001);
+        breaker.checkAllowed();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void testAbandonedTrialLetsNextCallThrough() throws Exception {
+        assertFalse(breaker.checkAllowed());
+        failCalls(3);
+        now.addAndGet(30_000);
+
+        assertTrue(breaker.checkAllowed());
+        breaker.abandonTrial();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.checkAllowed());
+        assertThrows(ProviderUnavailableException.class, breaker::checkAllowed);
+    }
+}
@@ -4,6 +4,8 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import hudson.model.FreeStyleBuild;
 import hudson.model.FreeStyleProject;
+import hudson.model.Run;
+import java.io.File;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.JenkinsRule;
 import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
@@ -34,4 +36,56 @@ class ErrorAnalysisActionTest {
         // This doesn't throw an exception, so the interface is properly implemented
         assertTrue(true);
     }
+
+    @Test
+    void testInlineActionsFromOlderVersionsStillLoad(JenkinsRule jenkins) throws Exception {
+        FreeStyleProject project = jenkins.createFreeStyleProject("legacy");
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(project);
+
+        String xml = "<io.jenkins.plugins.gemini__jenkins__analyzer.ErrorAnalysisAction>"
+                + "<analysis>Old analysis</analysis>"
+                + "<originalErrorLogs>ERROR: old</originalErrorLogs>"
+                + "<timestamp>1700000000000</timestamp>"
+                + "</io.jenkins.plugins.gemini__jenkins__analyzer.ErrorAnalysisAction>";
+        ErrorAnalysisAction loaded = (ErrorAnalysisAction) Run.XSTREAM2.fromXML(xml);
+        loaded.onLoad(build);
+
+        assertEquals("Old analysis", loaded.getAnalysis());
+        assertEquals("ERROR: old", loaded.getOriginalErrorLogs());
+        assertTrue(loaded.hasValidAnalysis());
+        assertEquals(1700000000000L, loaded.getTimestamp());
+    }
+
+    @Test
+    void testStoredAnalysisIsShownWithoutSavingTheBuild(JenkinsRule jenkins) throws Exception {
+        FreeStyleProject project = jenkins.createFreeStyleProject("store");
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(project);
+        long buildXmlModified = new File(build.getRootDir(), "build.xml").lastModified();
+
+        AnalysisStore.get().save(build, "Stored analysis", "ERROR: stored");
+
+        ErrorAnalysisAction action = build.getAction(ErrorAnalysisAction.class);
+        assertNotNull(action);
+        assertEquals("Stored analysis", action.getAnalysis());
+        assertEquals("ERROR: stored", action.getOriginalErrorLogs());
+        assertTrue(action.hasValidAnalysis());
+        assertTrue(action.getTimestamp() > 0);
+        assertEquals(buildXmlModified, new File(build.getRootDir(), "build.xml").lastModified());
+
+        AnalysisStore.get().flush();
+        assertTrue(AnalysisSidecar.exists(build.getRootDir()));
+    }
+
+    @Test
+    void testStoringReplacesAnalysisSavedInBuildXml(JenkinsRule jenkins) throws Exception {
+        FreeStyleProject project = jenkins.createFreeStyleProject("replace");
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(project);
+        build.addOrReplaceAction(new ErrorAnalysisAction("Old analysis", "ERROR: old"));
+        build.save();
+
+        AnalysisStore.get().save(build, "New analysis", "ERROR: new");
+
+        assertEquals("New analysis", build.getAction(ErrorAnalysisAction.class).getAnalysis());
+        assertEquals(1, build.getActions(ErrorAnalysisAction.class).size());
+    }
 }
@@ -2,12 +2,16 @@ package io.jenkins.plugins.gemini_jenkins_analyzer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
 import hudson.model.FreeStyleBuild;
 import hudson.model.FreeStyleProject;
 import hudson.model.TaskListener;
 import hudson.util.Secret;
 import org.junit.jupiter.api.Test;
 import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
 import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
 
 @WithJenkins
@@ -89,4 +93,45 @@ class ErrorAnalyzerTest {
             assertEquals("No error text provided to explain.", result);
         });
     }
+
+    @Test
+    void testExtractFilteredLogsReturnsNewestMatches(JenkinsRule jenkins) throws Exception {
+        ErrorAnalyzer errorAnalyzer = new ErrorAnalyzer();
+
+        FreeStyleProject project = jenkins.createFreeStyleProject();
+        ErrorPatternProperty property = new ErrorPatternProperty();
+        property.setErrorPatterns("(?i)\\bERROR:\n\nBUILD FAILED");
+        project.addProperty(property);
+        project.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) {
+                for (int i = 0; i < 50; i++) {
+                    listener.getLogger().println("noise line " + i);
+                    if (i % 10 == 0) {
+                        listener.getLogger().println("ERROR: failure " + i);
+                    }
+                }
+                listener.getLogger().println("BUILD FAILED");
+                return true;
+            }
+        });
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(project);
+
+        assertEquals("ERROR: failure 30\nERROR: failure 40\nBUILD FAILED", errorAnalyzer.extractFilteredLogs(build, 3));
+        assertEquals("", errorAnalyzer.extractFilteredLogs(build, 0));
+    }
+
+    @Test
+    void testAnalyzeFilteredErrorsReportsMessageWithoutInput(JenkinsRule jenkins) throws Exception {
+        GlobalConfigurationImpl config = jenkins.getInstance().getDescriptorByType(GlobalConfigurationImpl.class);
+        config.setEnableAnalysis(true);
+        config.setApiKey(null);
+
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(jenkins.createFreeStyleProject());
+        AnalysisResult result = new ErrorAnalyzer().analyzeFilteredErrors(build, 100, null);
+
+        assertNull(result.getInput());
+        assertTrue(result.getAnalysis().startsWith("ERROR: API key is not configured"));
+        assertTrue(result.getPatternHits().isEmpty());
+    }
 }
@@ -0,0 +1,73 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for ErrorBlockCollector that don't require Jenkins.
+ */
+class ErrorBlockCollectorTest {
+
+    private static final String HEADER = "=== ERROR ANALYSIS ===\n"
+            + "Note: Lines marked with '>>> ERROR:' matched configured error patterns.\n"
+            + "Context of 1 lines is shown before and after each error.\n\n";
+
+    private static void feed(ErrorBlockCollector collector, String... lines) {
+        for (String line : lines) {
+            collector.accept(line, line.startsWith("ERROR"));
+        }
+    }
+
+    @Test
+    void testNoErrorsProducesEmptyResult() {
+        ErrorBlockCollector collector = new ErrorBlockCollector(100, 1);
+        feed(collector, "a", "b", "c");
+        assertEquals("", collector.getResult());
+    }
+
+    @Test
+    void testBlocksWithContext() {
+        ErrorBlockCollector collector = new ErrorBlockCollector(100, 1);
+        feed(collector, "a", "b", "ERROR one", "c", "d", "e", "ERROR two", "f");
+        assertEquals(HEADER
+                + "b\n>>> ERROR: ERROR one\nc\n"
+                + "\n--- Error Block \n\n"
+                + "e\n>>> ERROR: ERROR two\nf", collector.getResult());
+    }
+
+    @Test
+    void testAdjacentErrorsShareBlock() {
+        ErrorBlockCollector collector = new ErrorBlockCollector(100, 1);
+        feed(collector, "a", "ERROR one", "b", "ERROR two", "c");
+        assertEquals(HEADER + "a\n>>> ERROR: ERROR one\nb\n>>> ERROR: ERROR two\nc", collector.getResult());
+    }
+
+    @Test
+    void testStopsAtMaxLines() {
+        ErrorBlockCollector collector = new ErrorBlockCollector(3, 1);
+        feed(collector, "a", "ERROR one", "b");
+        assertTrue(collector.isFull());
+        assertTrue(collector.getResult().endsWith("a\n>>> ERROR: ERROR one\nb"));
+    }
+
+    @Test
+    void testZeroContextLines() {
+        ErrorBlockCollector collector = new ErrorBlockCollector(100, 0);
+        feed(collector, "a", "ERROR one", "b", "ERROR two");
+        assertTrue(collector.getResult().endsWith("\n>>> ERROR: ERROR one\n>>> ERROR: ERROR two"));
+    }
+
+    @Test
+    void testSkipEqualsFeedingUnrelatedLines() {
+        ErrorBlockCollector fed = new ErrorBlockCollector(100, 1);
+        feed(fed, "a", "ERROR one", "b", "c", "d", "e", "f", "ERROR two", "g");
+
+        ErrorBlockCollector skipped = new ErrorBlockCollector(100, 1);
+        feed(skipped, "a", "ERROR one", "b");
+        skipped.skip(3);
+        feed(skipped, "f", "ERROR two", "g");
+
+        assertEquals(fed.getResult(), skipped.getResult());
+    }
+}
@@ -0,0 +1,329 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Fast unit tests for ErrorIndex and the live detection stream that don't require Jenkins.
+ */
+class ErrorIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final ErrorPatternMatcher MATCHER =
+            ErrorPatternMatcher.compile(Arrays.asList("ERROR", "FAILED"));
+
+    /**
+     * Writes the content through a detecting stream into a log file, like a build would.
+     */
+    private ErrorIndex index(String content, File logFile, File indexFile) throws IOException {
+        ErrorIndex index = new ErrorIndex(ErrorIndex.patternHash(MATCHER));
+        try (OutputStream out = new ErrorDetectionConsoleLogFilter.DetectingOutputStream(
+                Files.newOutputStream(logFile.toPath()), "job#1", indexFile, StandardCharsets.UTF_8, MATCHER, index)) {
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            // Uneven writes, as a build would produce them
+            for (int i = 0; i < bytes.length; i += 7) {
+                out.write(bytes, i, Math.min(7, bytes.length - i));
+            }
+        }
+        return index;
+    }
+
+    @Test
+    void testOutputPassesThroughUnchanged() throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        ErrorIndex index = new ErrorIndex(ErrorIndex.patternHash(MATCHER));
+        String content = "compile\r\nERROR: broken\nno newline at end";
+        try (OutputStream out = new ErrorDetectionConsoleLogFilter.DetectingOutputStream(
+                sink, "job#1", tempDir.resolve("idx").toFile(), StandardCharsets.UTF_8, MATCHER, index)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(content, sink.toString(StandardCharsets.UTF_8));
+        assertEquals(1, index.size());
+        assertEquals(3, index.getTotalLines());
+        assertEquals(content.length(), index.getLogLength());
+    }
+
+    @Test
+    void testRecordsLineNumbersOffsetsAndPatterns() throws IOException {
+        File logFile = tempDir.resolve("log").toFile();
+        File indexFile = tempDir.resolve(ErrorIndex.FILE_NAME).toFile();
+        String content = "start\nERROR: one\nok\r\nBUILD FAILED\nüñí ERROR: two\n";
+
+        ErrorIndex index = index(content, logFile, indexFile);
+
+        assertEquals(3, index.size());
+        assertEquals(1, index.getLine(0));
+        assertEquals(6, index.getOffset(0));
+        assertEquals(0, index.getPatternId(0));
+        assertEquals(3, index.getLine(1));
+        assertEquals(1, index.getPatternId(1));
+        assertEquals(4, index.getLine(2));
+        assertEquals(5, index.getTotalLines());
+        assertEquals(logFile.length(), index.getLogLength());
+
+        List<String> lines = index.readLines(logFile, StandardCharsets.UTF_8, 0, index.size());
+        assertEquals(Arrays.asList("ERROR: one", "BUILD FAILED", "üñí ERROR: two"), lines);
+    }
+
+    @Test
+    void testWrittenIndexReadsBack() throws IOException {
+        File logFile = tempDir.resolve("log").toFile();
+        File indexFile = tempDir.resolve(ErrorIndex.FILE_NAME).toFile();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append(i % 10 == 0 ? "ERROR at step " : "step ").append(i).append('\n');
+        }
+        ErrorIndex written = index(content.toString(), logFile, indexFile);
+
+        ErrorIndex read = ErrorIndex.read(indexFile);
+
+        assertEquals(100, read.size());
+        assertEquals(written.getPatternHash(), read.getPatternHash());
+        assertEquals(written.getLogLength(), read.getLogLength());
+        assertEquals(1000, read.getTotalLines());
+        for (int i = 0; i < read.size(); i++) {
+            assertEquals(i * 10L, read.getLine(i));
+            assertEquals(written.getOffset(i), read.getOffset(i));
+        }
+        assertEquals(Arrays.asList("ERROR at step 990"), read.readLines(logFile, StandardCharsets.UTF_8, 99, 100));
+    }
+
+    @Test
+    void testConcurrentWritersLeaveOneCompleteIndex() throws Exception {
+        File indexFile = tempDir.resolve(ErrorIndex.FILE_NAME).toFile();
+        ErrorIndex small = new ErrorIndex(1);
+        small.add(0, 0, 0);
+        small.finish(10, 1);
+        ErrorIndex large = new ErrorIndex(2);
+        for (int i = 0; i < 1000; i++) {
+            large.add(i, i * 10L, 0);
+        }
+        large.finish(10000, 1000);
+
+        Thread other = new Thread(() -> {
+            try {
+                for (int i = 0; i < 50; i++) {
+                    large.write(indexFile);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        other.start();
+        for (int i = 0; i < 50; i++) {
+            small.write(indexFile);
+        }
+        other.join();
+
+        ErrorIndex read = ErrorIndex.read(indexFile);
+        assertEquals(read.getPatternHash() == 1 ? small.size() : large.size(), read.size());
+        assertArrayEquals(new String[] {ErrorIndex.FILE_NAME}, tempDir.toFile().list());
+    }
+
+    @Test
+    void testFirstEntryFrom() {
+        ErrorIndex index = new ErrorIndex(0);
+        index.add(5, 50, 0);
+        index.add(9, 90, 0);
+        index.add(20, 200, 0);
+
+        assertEquals(0, index.firstEntryFrom(-100));
+        assertEquals(1, index.firstEntryFrom(6));
+        assertEquals(1, index.firstEntryFrom(9));
+        assertEquals(3, index.firstEntryFrom(21));
+    }
+
+    @Test
+    void testKeepsNewestEntriesWhenFull() throws IOException {
+        ErrorIndex index = new ErrorIndex(0, 4);
+        for (int i = 0; i < 25; i++) {
+            index.add(i * 2L, i * 20L, 0);
+        }
+
+        assertTrue(index.size() >= 4 && index.size() <= 8, "kept " + index.size());
+        assertEquals(25, index.getErrorCount());
+        assertEquals(48, index.getLine(index.size() - 1));
+        assertEquals(index.getLine(0) - 1, index.getFirstLine());
+
+        File indexFile = tempDir.resolve(ErrorIndex.FILE_NAME).toFile();
+        index.write(indexFile);
+        ErrorIndex read = ErrorIndex.read(indexFile);
+        assertEquals(index.size(), read.size());
+        assertEquals(index.getFirstLine(), read.getFirstLine());
+    }
+
+    @Test
+    void testIndexMissingPartOfTheWindowIsNotUsed() throws IOException {
+        File logFile = tempDir.resolve("log").toFile();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            content.append(i % 2 == 0 ? "ERROR " + i : "ok " + i).append('\n');
+        }
+        Files.write(logFile.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        ErrorIndex full = ErrorIndex.build(logFile, StandardCharsets.UTF_8, MATCHER);
+        ErrorIndex index = new ErrorIndex(full.getPatternHash(), 5);
+        for (int i = 0; i < full.size(); i++) {
+            index.add(full.getLine(i), full.getOffset(i), full.getPatternId(i));
+        }
+        index.finish(full.getLogLength(), full.getTotalLines());
+
+        // The last 10 lines hold 5 errors, all kept
+        assertEquals(Arrays.asList("ERROR 94", "ERROR 96", "ERROR 98"), ErrorAnalyzer.readIndexedLines(
+                StandardCharsets.UTF_8, logFile, index, MATCHER.newLineMatcher(), new int[MATCHER.size()], 3, 10));
+        assertNotNull(ErrorAnalyzer.collectIndexedBlocks(StandardCharsets.UTF_8, logFile, index,
+                MATCHER.newLineMatcher(), new int[MATCHER.size()], 10, 0, 10));
+        // The last 100 lines hold older errors that were dropped
+        assertNull(ErrorAnalyzer.readIndexedLines(StandardCharsets.UTF_8, logFile, index,
+                MATCHER.newLineMatcher(), new int[MATCHER.size()], 50, 100));
+        assertNull(ErrorAnalyzer.collectIndexedBlocks(StandardCharsets.UTF_8, logFile, index,
+                MATCHER.newLineMatcher(), new int[MATCHER.size()], 50, 0, 100));
+    }
+
+    @Test
+    void testBuildMatchesLiveIndex() throws IOException {
+        File logFile = tempDir.resolve("log").toFile();
+        String content = "a\nERROR 1\r\n\nb\nFAILED\nERROR at end";
+        ErrorIndex live = index(content, logFile, tempDir.resolve(ErrorIndex.FILE_NAME).toFile());
+
+        ErrorIndex built = ErrorIndex.build(logFile, StandardCharsets.UTF_8, MATCHER);
+
+        assertEquals(live.size(), built.size());
+        assertEquals(live.getTotalLines(), built.getTotalLines());
+        assertEquals(live.getLogLength(), built.getLogLength());
+        for (int i = 0; i < live.size(); i++) {
+            assertEquals(live.getLine(i), built.getLine(i));
+            assertEquals(live.getOffset(i), built.getOffset(i));
+            assertEquals(live.getPatternId(i), built.getPatternId(i));
+        }
+    }
+
+    /**
+     * Reference: the tail-window scan ErrorAnalyzer does without an index.
+     */
+    private static String scanBlocks(File logFile, int maxLines, int contextLines, int fetchLimit) throws IOException {
+        long start;
+        try (ReverseLogReader reverse = new ReverseLogReader(logFile, StandardCharsets.UTF_8)) {
+            reverse.skipPreviousLines(fetchLimit);
+            start = reverse.getLineStartOffset();
+        }
+        ErrorBlockCollector collector = new ErrorBlockCollector(maxLines, contextLines);
+        ErrorPatternMatcher.LineMatcher lineMatcher = MATCHER.newLineMatcher();
+        try (InputStream in = Files.newInputStream(logFile.toPath())) {
+            in.skip(start);
+            LogLineReader reader = new LogLineReader(in, StandardCharsets.UTF_8);
+            String line;
+            while (!collector.isFull() && (line = reader.readLine()) != null) {
+                collector.accept(line, lineMatcher.match(line) >= 0);
+            }
+        }
+        return collector.getResult();
+    }
+
+    @Test
+    void testIndexedBlocksMatchScan() throws IOException {
+        Random random = new Random(42);
+        File logFile = tempDir.resolve("log").toFile();
+        for (int round = 0; round < 40; round++) {
+            StringBuilder content = new StringBuilder();
+            int lines = 1 + random.nextInt(400);
+            for (int i = 0; i < lines; i++) {
+                int kind = random.nextInt(20);
+                content.append(kind == 0 ? "ERROR: failure " + i : kind == 1 ? "BUILD FAILED" : kind == 2 ? "" : "line " + i);
+                content.append(random.nextInt(10) == 0 ? "\r\n" : "\n");
+            }
+            if (random.nextBoolean()) {
+                content.append("trailing ERROR");
+            }
+            Files.write(logFile.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+            ErrorIndex index = ErrorIndex.build(logFile, StandardCharsets.UTF_8, MATCHER);
+
+            int maxLines = 1 + random.nextInt(60);
+            int contextLines = random.nextInt(6);
+            int fetchLimit = 1 + random.nextInt(500);
+            String expected = scanBlocks(logFile, maxLines, contextLines, fetchLimit);
+            String actual = ErrorAnalyzer.collectIndexedBlocks(StandardCharsets.UTF_8, logFile, index,
+                    MATCHER.newLineMatcher(), new int[MATCHER.size()], maxLines, contextLines, fetchLimit);
+
+            assertEquals(expected, actual, "round " + round + " maxLines=" + maxLines
+                    + " contextLines=" + contextLines + " fetchLimit=" + fetchLimit);
+        }
+    }
+
+    @Test
+    void testIndexedLinesMatchBottomUpScan() throws IOException {
+        File logFile = tempDir.resolve("log").toFile();
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            content.append(i % 7 == 0 ? "ERROR " + i : "ok " + i).append('\n');
+        }
+        Files.write(logFile.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        ErrorIndex index = ErrorIndex.build(logFile, StandardCharsets.UTF_8, MATCHER);
+        int[] hits = new int[MATCHER.size()];
+
+        List<String> lines = ErrorAnalyzer.readIndexedLines(StandardCharsets.UTF_8, logFile, index,
+                MATCHER.newLineMatcher(), hits, 3, 100);
+
+        assertEquals(Arrays.asList("ERROR 280", "ERROR 287", "ERROR 294"), lines);
+        assertEquals(3, hits[0]);
+        // Only errors within the last 10 lines count
+        assertEquals(Arrays.asList("ERROR 294"), ErrorAnalyzer.readIndexedLines(StandardCharsets.UTF_8, logFile, index,
+                MATCHER.newLineMatcher(), hits, 3, 10));
+    }
+
+    @Test
+    void testStaleIndexIsDetected() throws IOException {
+        File logFile = tempDir.resolve("log").toFile();
+        Files.write(logFile.toPath(), "ERROR a\nok\nERROR b\n".getBytes(StandardCharsets.UTF_8));
+        ErrorIndex index = ErrorIndex.build(logFile, StandardCharsets.UTF_8, MATCHER);
+        // Same length, different content
+        Files.write(logFile.toPath(), "ok a\nERROR\nok b\n".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(ErrorAnalyzer.readIndexedLines(StandardCharsets.UTF_8, logFile, index,
+                MATCHER.newLineMatcher(), new int[MATCHER.size()], 10, 100));
+        assertNull(ErrorAnalyzer.collectIndexedBlocks(StandardCharsets.UTF_8, logFile, index,
+                MATCHER.newLineMatcher(), new int[MATCHER.size()], 10, 1, 100));
+    }
+
+    @Test
+    void testBuildLaterWritesIndex() throws Exception {
+        File logFile = tempDir.resolve("log").toFile();
+        Files.write(logFile.toPath(), "ok\nERROR a\nok\nBUILD FAILED\n".getBytes(StandardCharsets.UTF_8));
+        File indexFile = tempDir.resolve(ErrorIndex.FILE_NAME).toFile();
+
+        ErrorIndex.buildLater(logFile, StandardCharsets.UTF_8, MATCHER, indexFile);
+        for (int i = 0; i < 500 && !indexFile.isFile(); i++) {
+            Thread.sleep(10);
+        }
+
+        ErrorIndex index = ErrorIndex.read(indexFile);
+        assertEquals(2, index.size());
+        assertEquals(1, index.getLine(0));
+        assertEquals(3, index.getLine(1));
+        assertEquals(logFile.length(), index.getLogLength());
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        File file = tempDir.resolve("garbage").toFile();
+        Files.write(file.toPath(), "not an index at all".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> ErrorIndex.read(file));
+    }
+}
@@ -0,0 +1,81 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.regex.PatternSyntaxException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for ErrorPatternCache that don't require Jenkins.
+ */
+class ErrorPatternCacheTest {
+
+    @BeforeEach
+    void setUp() {
+        ErrorPatternCache.clear();
+    }
+
+    @Test
+    void testSamePatternSetIsCompiledOnce() {
+        long misses = ErrorPatternCache.getMissCount();
+        long hits = ErrorPatternCache.getHitCount();
+
+        ErrorPatternMatcher first = ErrorPatternCache.get("error\nFAILED");
+        ErrorPatternMatcher second = ErrorPatternCache.get("error\nFAILED");
+
+        assertSame(first, second);
+        assertEquals(misses + 1, ErrorPatternCache.getMissCount());
+        assertEquals(hits + 1, ErrorPatternCache.getHitCount());
+        assertEquals(1, ErrorPatternCache.size());
+    }
+
+    @Test
+    void testKeyIgnoresWhitespaceAndLineEndings() {
+        ErrorPatternMatcher first = ErrorPatternCache.get("error\nFAILED");
+        ErrorPatternMatcher second = ErrorPatternCache.get("  error  \r\n\r\nFAILED\n");
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void testKeyIncludesFlags() {
+        ErrorPatternMatcher insensitive = ErrorPatternCache.get("error");
+        ErrorPatternMatcher sensitive = ErrorPatternCache.get("error", 0);
+
+        assertNotSame(insensitive, sensitive);
+        assertEquals(0, insensitive.match("ERROR"));
+        assertEquals(-1, sensitive.match("ERROR"));
+    }
+
+    @Test
+    void testBlankPatternsAreNotCached() {
+        assertTrue(ErrorPatternCache.get(null).isEmpty());
+        assertTrue(ErrorPatternCache.get("  \n ").isEmpty());
+        assertEquals(0, ErrorPatternCache.size());
+    }
+
+    @Test
+    void testInvalidPatternIsNotCached() {
+        assertThrows(PatternSyntaxException.class, () -> ErrorPatternCache.get("error\n[unclosed"));
+        assertEquals(0, ErrorPatternCache.size());
+    }
+
+    @Test
+    void testLeastRecentlyUsedEntryIsEvicted() {
+        ErrorPatternMatcher oldest = ErrorPatternCache.get("pattern-0");
+        for (int i = 1; i < ErrorPatternCache.MAX_ENTRIES; i++) {
+            ErrorPatternCache.get("pattern-" + i);
+        }
+        // Touch the oldest entry so pattern-1 becomes the eviction candidate
+        assertSame(oldest, ErrorPatternCache.get("pattern-0"));
+
+        ErrorPatternCache.get("pattern-new");
+
+        assertEquals(ErrorPatternCache.MAX_ENTRIES, ErrorPatternCache.size());
+        assertSame(oldest, ErrorPatternCache.get("pattern-0"));
+        long misses = ErrorPatternCache.getMissCount();
+        ErrorPatternCache.get("pattern-1");
+        assertEquals(misses + 1, ErrorPatternCache.getMissCount());
+    }
+}
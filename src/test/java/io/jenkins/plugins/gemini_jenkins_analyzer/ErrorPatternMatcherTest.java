@@ -0,0 +1,129 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for ErrorPatternMatcher that don't require Jenkins.
+ */
+class ErrorPatternMatcherTest {
+
+    private static final List<String> SAMPLE_LINES = Arrays.asList(
+            "Building player...",
+            "Assets/Scripts/Player.cs(12,5): error CS0103: The name 'foo' does not exist",
+            "ld: error: undefined symbol: _main",
+            "** BUILD FAILED **",
+            "> Task :app:compileJava FAILED",
+            "ninja: build stopped: subcommand failed.",
+            "make[2]: *** [all] Error 2",
+            "❌ Compile error in file",
+            "NullReferenceException: Object reference not set",
+            "Everything is fine",
+            "errors: 0, warnings: 3");
+
+    private static boolean matchesIndividually(List<String> patterns, String line) {
+        for (String pattern : patterns) {
+            if (Pattern.compile(pattern, Pattern.CASE_INSENSITIVE).matcher(line).find()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void testParsePatterns() {
+        assertEquals(Arrays.asList("a", "b"), ErrorPatternMatcher.parsePatterns("  a \r\n\n   \nb"));
+        assertTrue(ErrorPatternMatcher.parsePatterns(null).isEmpty());
+        assertTrue(ErrorPatternMatcher.parsePatterns("  \n ").isEmpty());
+    }
+
+    @Test
+    void testUnityPresetMatchesLikeIndividualPatterns() {
+        List<String> patterns = ErrorPatternPreset.UNITY.getPatterns();
+        ErrorPatternMatcher matcher = ErrorPatternMatcher.compile(patterns);
+        assertTrue(matcher.isCombined());
+
+        ErrorPatternMatcher.LineMatcher lineMatcher = matcher.newLineMatcher();
+        for (String line : SAMPLE_LINES) {
+            int matched = lineMatcher.match(line);
+            assertEquals(matchesIndividually(patterns, line), matched >= 0, line);
+            if (matched >= 0) {
+                assertTrue(Pattern.compile(patterns.get(matched), Pattern.CASE_INSENSITIVE).matcher(line).find(), line);
+            }
+        }
+    }
+
+    @Test
+    void testReportsWhichPatternFired() {
+        ErrorPatternMatcher matcher = ErrorPatternMatcher.compile(Arrays.asList("(foo)(bar)", "baz", "(?<name>qux)"));
+        assertTrue(matcher.isCombined());
+        assertEquals(0, matcher.match("xx foobar"));
+        assertEquals(1, matcher.match("BAZ"));
+        assertEquals(2, matcher.match("a qux"));
+        assertEquals(-1, matcher.match("nothing"));
+    }
+
+    @Test
+    void testLeftmostMatchWins() {
+        ErrorPatternMatcher matcher = ErrorPatternMatcher.compile(Arrays.asList("second", "first"));
+        assertEquals(1, matcher.match("first then second"));
+    }
+
+    @Test
+    void testInlineFlagsStayScopedToTheirPattern() {
+        ErrorPatternMatcher matcher = ErrorPatternMatcher.compile(Arrays.asList("(?-i)STRICT", "loose"));
+        assertEquals(-1, matcher.match("strict"));
+        assertEquals(1, matcher.match("LOOSE"));
+    }
+
+    @Test
+    void testBackReferencesFallBackToIndividualPatterns() {
+        ErrorPatternMatcher matcher = ErrorPatternMatcher.compile(Arrays.asList("x", "(ab)\\1"));
+        assertFalse(matcher.isCombined());
+        assertEquals(1, matcher.match("abab"));
+        assertEquals(-1, matcher.match("abba"));
+    }
+
+    @Test
+    void testDuplicateGroupNamesFallBackToIndividualPatterns() {
+        ErrorPatternMatcher matcher = ErrorPatternMatcher.compile(Arrays.asList("(?<g>a)", "(?<g>b)"));
+        assertFalse(matcher.isCombined());
+        assertEquals(1, matcher.match("b"));
+    }
+
+    @Test
+    void testEmptyAndInvalidPatterns() {
+        ErrorPatternMatcher empty = ErrorPatternMatcher.compile(Collections.emptyList());
+        assertTrue(empty.isEmpty());
+        assertEquals(-1, empty.match("error"));
+        assertThrows(PatternSyntaxException.class, () -> ErrorPatternMatcher.compile(Arrays.asList("ok", "[broken")));
+    }
+
+    @Test
+    void testLineMatcherCountsLinesAndMatches() {
+        ErrorPatternMatcher.LineMatcher lineMatcher = ErrorPatternMatcher.compile(ErrorPatternPreset.UNITY.getPatterns()).newLineMatcher();
+        int expectedMatches = 0;
+        for (int i = 0; i < 10; i++) {
+            for (String line : SAMPLE_LINES) {
+                if (lineMatcher.match(line) >= 0) {
+                    expectedMatches++;
+                }
+            }
+        }
+
+        assertEquals(10L * SAMPLE_LINES.size(), lineMatcher.getLines());
+        assertEquals(expectedMatches, lineMatcher.getMatches());
+        assertTrue(lineMatcher.getEstimatedMatchNanos() > 0);
+    }
+
+    @Test
+    void testUnusedLineMatcherHasNoMatchTime() {
+        assertEquals(0, ErrorPatternMatcher.compile(List.of("error")).newLineMatcher().getEstimatedMatchNanos());
+    }
+}
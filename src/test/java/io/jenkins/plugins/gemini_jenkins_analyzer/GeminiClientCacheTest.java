@@ -0,0 +1,82 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for GeminiClientCache that don't require Jenkins.
+ */
+class GeminiClientCacheTest {
+
+    private final AtomicInteger built = new AtomicInteger();
+
+    private BaseAIService.Assistant newAssistant() {
+        String reply = "reply " + built.incrementAndGet();
+        return message -> reply;
+    }
+
+    @BeforeEach
+    void setUp() {
+        GeminiClientCache.invalidate();
+    }
+
+    @Test
+    void testSameSettingsReuseClient() {
+        String key = GeminiClientCache.key("secret", null, "gemini-2.0-flash", Duration.ofSeconds(90), false);
+
+        BaseAIService.Assistant first = GeminiClientCache.getOrCreate(key, this::newAssistant);
+        BaseAIService.Assistant second = GeminiClientCache.getOrCreate(key, this::newAssistant);
+
+        assertSame(first, second);
+        assertEquals(1, built.get());
+    }
+
+    @Test
+    void testChangedSettingsBuildNewClient() {
+        Duration timeout = Duration.ofSeconds(90);
+        BaseAIService.Assistant base = GeminiClientCache.getOrCreate(
+                GeminiClientCache.key("secret", null, "gemini-2.0-flash", timeout, false), this::newAssistant);
+
+        assertNotSame(base, GeminiClientCache.getOrCreate(
+                GeminiClientCache.key("other-secret", null, "gemini-2.0-flash", timeout, false), this::newAssistant));
+        assertNotSame(base, GeminiClientCache.getOrCreate(
+                GeminiClientCache.key("secret", "https://proxy.example", "gemini-2.0-flash", timeout, false), this::newAssistant));
+        assertNotSame(base, GeminiClientCache.getOrCreate(
+                GeminiClientCache.key("secret", null, "gemini-2.5-pro", timeout, false), this::newAssistant));
+        assertNotSame(base, GeminiClientCache.getOrCreate(
+                GeminiClientCache.key("secret", null, "gemini-2.0-flash", Duration.ofSeconds(30), false), this::newAssistant));
+        assertEquals(5, built.get());
+    }
+
+    @Test
+    void testKeyDoesNotContainApiKey() {
+        String key = GeminiClientCache.key("my-plain-api-key", null, "gemini-2.0-flash", Duration.ofSeconds(90), false);
+
+        assertFalse(key.contains("my-plain-api-key"));
+    }
+
+    @Test
+    void testInvalidateDropsClients() {
+        String key = GeminiClientCache.key("secret", null, "gemini-2.0-flash", Duration.ofSeconds(90), false);
+        BaseAIService.Assistant first = GeminiClientCache.getOrCreate(key, this::newAssistant);
+
+        GeminiClientCache.invalidate();
+
+        assertEquals(0, GeminiClientCache.size());
+        assertNotSame(first, GeminiClientCache.getOrCreate(key, this::newAssistant));
+    }
+
+    @Test
+    void testNumberOfClientsIsBounded() {
+        for (int i = 0; i < GeminiClientCache.MAX_CLIENTS + 3; i++) {
+            GeminiClientCache.getOrCreate(
+                    GeminiClientCache.key("secret", null, "model-" + i, Duration.ofSeconds(90), false), this::newAssistant);
+        }
+
+        assertEquals(GeminiClientCache.MAX_CLIENTS, GeminiClientCache.size());
+    }
+}
@@ -0,0 +1,86 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import hudson.util.Secret;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+/**
+ * Fast unit tests for GeminiService that don't require Jenkins.
+ * Requests go through the real Gemini client to a {@link MockGeminiServer}.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class GeminiServiceTest {
+
+    private static final String ERROR_LOGS = "ERROR: Build failed\nerror CS0246: The type or namespace name 'Foo' could not be found";
+
+    @Mock
+    private GlobalConfigurationImpl config;
+
+    private MockGeminiServer server;
+    private GeminiService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockGeminiServer();
+        when(config.getApiKey()).thenReturn(Secret.fromString("test-api-key"));
+        when(config.getModel()).thenReturn("gemini-2.0-flash");
+        when(config.getApiUrl()).thenReturn(server.getBaseUrl());
+        when(config.getMaxRetries()).thenReturn(3);
+
+        service = new GeminiService(config);
+        CircuitBreaker.get().onSuccess();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testAnalyzeErrorCallsConfiguredApiUrl() throws Exception {
+        String analysis = service.analyzeError(ERROR_LOGS);
+
+        assertEquals(MockGeminiServer.DEFAULT_RESPONSE, analysis);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void testStreamingDeliversEveryChunk() throws Exception {
+        server.streaming(5, 10);
+        StringBuilder partials = new StringBuilder();
+
+        String analysis = service.analyzeError(ERROR_LOGS, partials::append, AnalysisScheduler.Priority.INTERACTIVE);
+
+        assertEquals(MockGeminiServer.DEFAULT_RESPONSE, analysis);
+        assertEquals(MockGeminiServer.DEFAULT_RESPONSE, partials.toString());
+    }
+
+    @Test
+    void testRateLimitIsRetriedAfterRetryDelay() throws Exception {
+        server.failNext(2, 429).retryDelay(0.05);
+
+        String analysis = service.analyzeError(ERROR_LOGS);
+
+        assertEquals(MockGeminiServer.DEFAULT_RESPONSE, analysis);
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    void testPersistentOutageFailsAsUnavailable() {
+        when(config.getMaxRetries()).thenReturn(0);
+        server.errorRate(1);
+
+        assertThrows(ProviderUnavailableException.class, () -> service.analyzeError(ERROR_LOGS));
+        assertEquals(1, server.getRequestCount());
+    }
+}
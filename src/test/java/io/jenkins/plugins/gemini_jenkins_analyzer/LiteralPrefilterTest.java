@@ -0,0 +1,128 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for LiteralPrefilter that don't require Jenkins.
+ */
+class LiteralPrefilterTest {
+
+    @Test
+    void testRequiredLiterals() {
+        assertEquals(Collections.singletonList("Error"), LiteralPrefilter.requiredLiterals("(?i)\\bError\\s*:\\s*"));
+        assertEquals(Collections.singletonList("BUILD FAILED"), LiteralPrefilter.requiredLiterals("(?i)^\\s*\\*\\*\\s*BUILD FAILED\\s*\\*\\*"));
+        assertEquals(Collections.singletonList("Assets/"), LiteralPrefilter.requiredLiterals("(?i)Assets/.*\\.cs\\(\\d+,\\d+\\):\\s*error"));
+        assertEquals(Collections.singletonList("make["), LiteralPrefilter.requiredLiterals("(?i)make\\[\\d+\\]:\\s*\\*\\*\\*.*Error"));
+        assertEquals(Collections.singletonList("error:"), LiteralPrefilter.requiredLiterals("(?i)error:\\s*(?:linker command failed|Build input file cannot be found)"));
+        assertEquals(Arrays.asList("foo", "bazz"), LiteralPrefilter.requiredLiterals("foo|bar(x)?bazz"));
+        assertEquals(Collections.singletonList("a.b|c"), LiteralPrefilter.requiredLiterals("\\Qa.b|c\\E"));
+    }
+
+    @Test
+    void testQuantifiersShortenLiterals() {
+        assertEquals(Collections.singletonList("abc"), LiteralPrefilter.requiredLiterals("abcd?"));
+        assertEquals(Collections.singletonList("abc"), LiteralPrefilter.requiredLiterals("abc+d"));
+        assertEquals(Collections.singletonList("xyz"), LiteralPrefilter.requiredLiterals("ab{0,2}xyz"));
+        assertEquals(Collections.singletonList("ab"), LiteralPrefilter.requiredLiterals("abc*+"));
+    }
+
+    @Test
+    void testQuantifiedEmptyQuote() {
+        // The quantifier applies to the 'o' before the empty quote
+        assertEquals(Collections.singletonList("bar"), LiteralPrefilter.requiredLiterals("foo\\Q\\E?bar"));
+        assertEquals(Collections.singletonList("ERROR"), LiteralPrefilter.requiredLiterals("\\Q\\E*ERROR"));
+        LiteralPrefilter prefilter = LiteralPrefilter.forPatterns(Collections.singletonList("xfoo\\Q\\E?"));
+        assertTrue(Pattern.compile("xfoo\\Q\\E?").matcher("xfo").find());
+        assertTrue(prefilter.containsAny("xfo"));
+    }
+
+    @Test
+    void testPatternsWithoutLiterals() {
+        assertNull(LiteralPrefilter.requiredLiterals("\\d+\\s*"));
+        assertNull(LiteralPrefilter.requiredLiterals("[abc]+|error"));
+        assertNull(LiteralPrefilter.requiredLiterals("(?x) error # comment"));
+        assertNull(LiteralPrefilter.requiredLiterals("(?iu)error"));
+        assertNull(LiteralPrefilter.requiredLiterals("a?"));
+        assertNull(LiteralPrefilter.forPatterns(Arrays.asList("error", ".*")));
+    }
+
+    @Test
+    void testUnityPresetIsFullyPrefiltered() {
+        for (String pattern : ErrorPatternPreset.UNITY.getPatterns()) {
+            assertNotNull(LiteralPrefilter.requiredLiterals(pattern), pattern);
+        }
+        assertTrue(ErrorPatternMatcher.compile(ErrorPatternPreset.UNITY.getPatterns()).hasPrefilter());
+    }
+
+    @Test
+    void testContainsAnyIgnoresCase() {
+        LiteralPrefilter prefilter = LiteralPrefilter.build(Arrays.asList("error", "FAILED", "ninja:", "❌"));
+        assertTrue(prefilter.containsAny("Compile ERROR here"));
+        assertTrue(prefilter.containsAny("task failed"));
+        assertTrue(prefilter.containsAny("NINJA: build stopped"));
+        assertTrue(prefilter.containsAny("❌ something"));
+        assertFalse(prefilter.containsAny("Downloading dependencies..."));
+        assertFalse(prefilter.containsAny(""));
+    }
+
+    @Test
+    void testOverlappingLiterals() {
+        LiteralPrefilter prefilter = LiteralPrefilter.build(Arrays.asList("he", "she", "hers", "ünï"));
+        assertTrue(prefilter.containsAny("ushers"));
+        assertTrue(prefilter.containsAny("xsh e he"));
+        assertTrue(prefilter.containsAny("üÜNÏ"));
+        assertFalse(prefilter.containsAny("shx hx ün"));
+    }
+
+    @Test
+    void testAgreesWithNaiveSearch() {
+        Random random = new Random(7);
+        String alphabet = "abAB:éÉ";
+        for (int round = 0; round < 200; round++) {
+            List<String> literals = Arrays.asList(randomString(random, alphabet, 1, 4), randomString(random, alphabet, 1, 4));
+            LiteralPrefilter prefilter = LiteralPrefilter.build(literals);
+            for (int i = 0; i < 20; i++) {
+                String text = randomString(random, alphabet, 0, 12);
+                boolean expected = false;
+                for (String literal : literals) {
+                    expected |= text.toLowerCase(Locale.ROOT).contains(literal.toLowerCase(Locale.ROOT));
+                }
+                assertEquals(expected, prefilter.containsAny(text), literals + " in " + text);
+            }
+        }
+    }
+
+    @Test
+    void testNeverRejectsMatchingLines() {
+        List<String> lines = Arrays.asList(
+                "Assets/Scripts/A.cs(1,2): error CS1002", "** BUILD FAILED **", "make: *** [x] Error 1",
+                "ninja: build stopped: subcommand failed", "clang: error: linker command failed",
+                "ERROR: something", "> Task :lib:test FAILED", "* What went wrong:", "ok line");
+        for (String pattern : ErrorPatternPreset.UNITY.getPatterns()) {
+            LiteralPrefilter prefilter = LiteralPrefilter.forPatterns(Collections.singletonList(pattern));
+            Pattern regex = Pattern.compile(pattern, Pattern.CASE_INSENSITIVE);
+            for (String line : lines) {
+                if (regex.matcher(line).find()) {
+                    assertTrue(prefilter.containsAny(line), pattern + " / " + line);
+                }
+            }
+        }
+    }
+
+    private static String randomString(Random random, String alphabet, int min, int max) {
+        int length = min + random.nextInt(max - min + 1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,109 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for LogLineReader that don't require Jenkins.
+ */
+class LogLineReaderTest {
+
+    private static LogLineReader reader(String text) {
+        return new LogLineReader(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testReadsLinesAndOffsets() throws IOException {
+        try (LogLineReader reader = reader("first\nsecond\n\nlast")) {
+            assertEquals("first", reader.readLine());
+            assertEquals(0, reader.getLineStartOffset());
+            assertEquals(0, reader.getLineNumber());
+            assertEquals("second", reader.readLine());
+            assertEquals(6, reader.getLineStartOffset());
+            assertEquals("", reader.readLine());
+            assertEquals("last", reader.readLine());
+            assertEquals(14, reader.getLineStartOffset());
+            assertEquals(3, reader.getLineNumber());
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    void testTrailingNewlineDoesNotAddLine() throws IOException {
+        try (LogLineReader reader = reader("a\nb\n")) {
+            assertEquals("a", reader.readLine());
+            assertEquals("b", reader.readLine());
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    void testCarriageReturnsAreDropped() throws IOException {
+        try (LogLineReader reader = reader("windows\r\nline\r\n")) {
+            assertEquals("windows", reader.readLine());
+            assertEquals("line", reader.readLine());
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    void testMultiByteCharacters() throws IOException {
+        try (LogLineReader reader = reader("❌ error: ñ\n中文")) {
+            assertEquals("❌ error: ñ", reader.readLine());
+            assertEquals("中文", reader.readLine());
+        }
+    }
+
+    @Test
+    void testSkipLines() throws IOException {
+        try (LogLineReader reader = reader("1\n2\n3\n4")) {
+            assertEquals(2, reader.skipLines(2));
+            assertEquals("3", reader.readLine());
+            assertEquals(2, reader.getLineNumber());
+            assertEquals(4, reader.getLineStartOffset());
+            assertEquals(1, reader.skipLines(5));
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    void testSkipToBufferedLine() throws IOException {
+        try (LogLineReader reader = reader("first\nsecond\nthird\n")) {
+            assertEquals("first", reader.readLine());
+            assertTrue(reader.skipToBuffered(13, 2));
+            assertEquals("third", reader.readLine());
+            assertEquals(2, reader.getLineNumber());
+            assertEquals(13, reader.getLineStartOffset());
+            // Backwards within the buffer works too
+            assertTrue(reader.skipToBuffered(6, 1));
+            assertEquals("second", reader.readLine());
+            assertEquals(1, reader.getLineNumber());
+            assertFalse(reader.skipToBuffered(100, 5));
+            assertEquals(13, reader.getOffset());
+        }
+    }
+
+    @Test
+    void testCountLines() throws IOException {
+        assertEquals(0, LogLineReader.countLines(new ByteArrayInputStream(new byte[0])));
+        assertEquals(1, LogLineReader.countLines(new ByteArrayInputStream("a".getBytes(StandardCharsets.UTF_8))));
+        assertEquals(2, LogLineReader.countLines(new ByteArrayInputStream("a\nb\n".getBytes(StandardCharsets.UTF_8))));
+        assertEquals(3, LogLineReader.countLines(new ByteArrayInputStream("a\n\nb".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void testLinesLongerThanBuffer() throws IOException {
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < LogLineReader.BUFFER_SIZE * 2; i++) {
+            longLine.append('x');
+        }
+        try (LogLineReader reader = reader(longLine + "\nnext")) {
+            assertEquals(longLine.toString(), reader.readLine());
+            assertEquals("next", reader.readLine());
+        }
+    }
+}
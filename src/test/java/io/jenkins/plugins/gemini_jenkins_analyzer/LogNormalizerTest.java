@@ -0,0 +1,75 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for LogNormalizer that don't require Jenkins.
+ */
+class LogNormalizerTest {
+
+    @Test
+    void testTimestamps() {
+        assertEquals("<TIMESTAMP> ERROR: connection refused",
+                LogNormalizer.normalize("2024-11-11T10:30:00.123Z ERROR: connection refused"));
+        assertEquals("[<TIMESTAMP>] FAILED",
+                LogNormalizer.normalize("[2024-11-11 10:30:00,456] FAILED"));
+        assertEquals("[<TIME>] Task failed", LogNormalizer.normalize("[10:30:00.123] Task failed"));
+    }
+
+    @Test
+    void testAnsiEscapesAreRemoved() {
+        assertEquals("ERROR: build failed", LogNormalizer.normalize("\u001B[31mERROR:\u001B[0m build failed"));
+        assertEquals("Progress", LogNormalizer.normalize("\u001B[2K\u001B[1GProgress"));
+    }
+
+    @Test
+    void testWorkspacePaths() {
+        assertEquals("<WORKSPACE>/src/Main.java:12: error: cannot find symbol",
+                LogNormalizer.normalize("/var/jenkins_home/workspace/my-job@2/src/Main.java:12: error: cannot find symbol"));
+        assertEquals("<WORKSPACE>\\Assets\\Player.cs(3,5): error CS0103",
+                LogNormalizer.normalize("C:\\Jenkins\\workspace\\unity-build\\Assets\\Player.cs(3,5): error CS0103"));
+    }
+
+    @Test
+    void testTempDirsAndHashes() {
+        assertEquals("Could not write /tmp/<TMP>/out.log",
+                LogNormalizer.normalize("Could not write /tmp/gradle8934723/out.log"));
+        assertEquals("HEAD is now at <HASH> Fix build",
+                LogNormalizer.normalize("HEAD is now at 3f9c2a1b7e4d Fix build"));
+        assertEquals("image sha256:<HASH> not found",
+                LogNormalizer.normalize("image sha256:9b2f0c8e1d3a4b5c6d7e8f90a1b2c3d4e5f60718293a4b5c6d7e8f9a0b1c2d3e not found"));
+        assertEquals("request <UUID> failed",
+                LogNormalizer.normalize("request 123e4567-e89b-12d3-a456-426614174000 failed"));
+    }
+
+    @Test
+    void testPidsAndBuildNumbers() {
+        assertEquals("Killed process <PID> (java)", LogNormalizer.normalize("Killed process 48213 (java)"));
+        assertEquals("daemon pid=<PID> exited", LogNormalizer.normalize("daemon pid=31337 exited"));
+        assertEquals("Upstream build #<N> failed, BUILD_NUMBER=<N>",
+                LogNormalizer.normalize("Upstream build #1234 failed, BUILD_NUMBER=1234"));
+    }
+
+    @Test
+    void testPlainTextIsUnchanged() {
+        String text = ">>> ERROR: Execution failed for task ':app:compileJava'.\n"
+                + "BUILD FAILED in 2m 3s\n"
+                + "error CS0103: The name 'foo' does not exist";
+        assertEquals(text, LogNormalizer.normalize(text));
+        assertNull(LogNormalizer.normalize(null));
+        assertEquals("", LogNormalizer.normalize(""));
+    }
+
+    @Test
+    void testSameFailureFromDifferentBuildsNormalizesIdentically() {
+        String build41 = "2024-11-10T02:00:13Z /var/lib/jenkins/workspace/nightly-linux/build.sh: line 3: make: not found\n"
+                + "Build #41 finished, pid 2231";
+        String build42 = "2024-11-11T02:00:09Z /var/lib/jenkins/workspace/nightly-win/build.sh: line 3: make: not found\n"
+                + "Build #42 finished, pid 9914";
+
+        assertEquals(LogNormalizer.normalize(build41), LogNormalizer.normalize(build42));
+        assertTrue(LogNormalizer.normalize(build41).length() < build41.length());
+    }
+}
@@ -0,0 +1,354 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the Gemini API, for load and failure testing without a key or network.
+ * Answers {@code models/<model>:generateContent} and {@code models/<model>:streamGenerateContent}
+ * in the Gemini wire format, after a configurable latency, and fails a configurable share of
+ * requests with 503 or 429 (with a {@code RetryInfo} delay) the way the real service does.
+ * <p>
+ * Point the plugin at it by setting the API URL to {@link #getBaseUrl()}; any API key is accepted.
+ * It can also be run on its own for manual testing:
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=io.jenkins.plugins.gemini_jenkins_analyzer.MockGeminiServer -Dexec.args="--port 8089 --latency-ms 2000 --rate-limit-rate 0.1"}
+ */
+public class MockGeminiServer implements AutoCloseable {
+
+    private static final Pattern MODEL_METHOD = Pattern.compile("/models/([^/:]+):(generateContent|streamGenerateContent)$");
+
+    static final String DEFAULT_RESPONSE = "**Root cause:** The build failed because of a compilation error.\n\n"
+            + "**Fix:** Correct the reported source file and rebuild.";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Random random;
+
+    private volatile long latencyMillis;
+    private volatile double errorRate;
+    private volatile double rateLimitRate;
+    private volatile double retryDelaySeconds = 1;
+    private volatile int streamChunks = 4;
+    private volatile long chunkDelayMillis;
+    private volatile String responseText = DEFAULT_RESPONSE;
+
+    private final AtomicInteger failNext = new AtomicInteger();
+    private volatile int failNextStatus;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong serverErrors = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    /**
+     * Starts a server on a free local port.
+     */
+    public MockGeminiServer() throws IOException {
+        this(0, 0);
+    }
+
+    /**
+     * @param port port to listen on, 0 for a free one
+     * @param seed seed for the failure injection, so runs with the same settings fail the same requests
+     */
+    public MockGeminiServer(int port, long seed) throws IOException {
+        this.random = new Random(seed);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "Mock Gemini server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * @return the URL to configure as the API URL, in the form of the default Gemini endpoint
+     */
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/v1beta";
+    }
+
+    /**
+     * @param latencyMillis time before the response, or before the first chunk of a stream
+     */
+    public MockGeminiServer latency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * @param errorRate share of requests answered with 503 UNAVAILABLE, between 0 and 1
+     */
+    public MockGeminiServer errorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * @param rateLimitRate share of requests answered with 429 RESOURCE_EXHAUSTED, between 0 and 1
+     */
+    public MockGeminiServer rateLimitRate(double rateLimitRate) {
+        this.rateLimitRate = rateLimitRate;
+        return this;
+    }
+
+    /**
+     * @param retryDelaySeconds delay put in the RetryInfo of 429 responses
+     */
+    public MockGeminiServer retryDelay(double retryDelaySeconds) {
+        this.retryDelaySeconds = retryDelaySeconds;
+        return this;
+    }
+
+    /**
+     * @param chunks number of chunks a streamed response is split into
+     * @param delayMillis pause between chunks
+     */
+    public MockGeminiServer streaming(int chunks, long delayMillis) {
+        this.streamChunks = Math.max(1, chunks);
+        this.chunkDelayMillis = delayMillis;
+        return this;
+    }
+
+    /**
+     * @param responseText text of every successful answer
+     */
+    public MockGeminiServer respondWith(String responseText) {
+        this.responseText = responseText;
+        return this;
+    }
+
+    /**
+     * Fails the next requests with the given status regardless of the injection rates.
+     * @param count number of requests to fail
+     * @param status 429 for a rate limit, any other status for a server error
+     */
+    public MockGeminiServer failNext(int count, int status) {
+        this.failNextStatus = status;
+        this.failNext.set(count);
+        return this;
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getServerErrorCount() {
+        return serverErrors.get();
+    }
+
+    public long getRateLimitedCount() {
+        return rateLimited.get();
+    }
+
+    /**
+     * @return highest number of requests handled at once
+     */
+    public int getPeakConcurrency() {
+        return peakInFlight.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int running = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(running, Math::max);
+        try {
+            requests.incrementAndGet();
+            Matcher matcher = MODEL_METHOD.matcher(exchange.getRequestURI().getPath());
+            if (!"POST".equals(exchange.getRequestMethod()) || !matcher.find()) {
+                sendError(exchange, 404, "NOT_FOUND", "Method not found: " + exchange.getRequestURI().getPath(), false);
+                return;
+            }
+            String query = exchange.getRequestURI().getQuery();
+            if (exchange.getRequestHeaders().getFirst("x-goog-api-key") == null && (query == null || !query.contains("key="))) {
+                sendError(exchange, 400, "INVALID_ARGUMENT", "API key not valid. Please pass a valid API key.", false);
+                return;
+            }
+            JsonNode request;
+            try (InputStream in = exchange.getRequestBody()) {
+                request = mapper.readTree(in);
+            }
+
+            sleep(latencyMillis);
+            int failure = nextFailure();
+            if (failure == 429) {
+                rateLimited.incrementAndGet();
+                sendError(exchange, 429, "RESOURCE_EXHAUSTED", "Resource has been exhausted (e.g. check quota).", true);
+                return;
+            } else if (failure != 0) {
+                serverErrors.incrementAndGet();
+                sendError(exchange, failure, "UNAVAILABLE", "The model is overloaded. Please try again later.", false);
+                return;
+            }
+
+            String model = matcher.group(1);
+            int promptTokens = PromptBuilder.estimateTokens(promptText(request));
+            if ("streamGenerateContent".equals(matcher.group(2))) {
+                stream(exchange, model, promptTokens);
+            } else {
+                send(exchange, 200, "application/json", mapper.writeValueAsBytes(response(model, responseText, promptTokens, true)));
+            }
+        } finally {
+            inFlight.decrementAndGet();
+            exchange.close();
+        }
+    }
+
+    private int nextFailure() {
+        if (failNext.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+            return failNextStatus;
+        }
+        double roll = random.nextDouble();
+        if (roll < rateLimitRate) {
+            return 429;
+        }
+        return roll < rateLimitRate + errorRate ? 503 : 0;
+    }
+
+    /**
+     * Writes the answer as server-sent events, one candidate per chunk, the last one carrying the finish reason.
+     */
+    private void stream(HttpExchange exchange, String model, int promptTokens) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        String text = responseText;
+        int chunks = Math.min(streamChunks, Math.max(1, text.length()));
+        for (int i = 0; i < chunks; i++) {
+            if (i > 0) {
+                sleep(chunkDelayMillis);
+            }
+            String part = text.substring(text.length() * i / chunks, text.length() * (i + 1) / chunks);
+            ObjectNode event = response(model, part, promptTokens, i == chunks - 1);
+            out.write(("data: " + mapper.writeValueAsString(event) + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+    }
+
+    private ObjectNode response(String model, String text, int promptTokens, boolean last) {
+        ObjectNode response = mapper.createObjectNode();
+        ObjectNode candidate = response.putArray("candidates").addObject();
+        ObjectNode content = candidate.putObject("content");
+        content.put("role", "model");
+        content.putArray("parts").addObject().put("text", text);
+        if (last) {
+            candidate.put("finishReason", "STOP");
+            int responseTokens = PromptBuilder.estimateTokens(responseText);
+            ObjectNode usage = response.putObject("usageMetadata");
+            usage.put("promptTokenCount", promptTokens);
+            usage.put("candidatesTokenCount", responseTokens);
+            usage.put("totalTokenCount", promptTokens + responseTokens);
+        }
+        response.put("modelVersion", model);
+        return response;
+    }
+
+    private void sendError(HttpExchange exchange, int code, String status, String message, boolean retryInfo) throws IOException {
+        ObjectNode body = mapper.createObjectNode();
+        ObjectNode error = body.putObject("error");
+        error.put("code", code);
+        error.put("message", message);
+        error.put("status", status);
+        if (retryInfo) {
+            ArrayNode details = error.putArray("details");
+            details.addObject()
+                    .put("@type", "type.googleapis.com/google.rpc.RetryInfo")
+                    .put("retryDelay", formatSeconds(retryDelaySeconds));
+        }
+        send(exchange, code, "application/json", mapper.writeValueAsBytes(body));
+    }
+
+    private static String formatSeconds(double seconds) {
+        return (seconds == Math.rint(seconds) ? String.valueOf((long) seconds) : String.valueOf(seconds)) + "s";
+    }
+
+    private static void send(HttpExchange exchange, int code, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * @return the text of all parts of the request, to size the usage metadata
+     */
+    private static String promptText(JsonNode request) {
+        StringBuilder text = new StringBuilder();
+        for (JsonNode content : request.path("contents")) {
+            for (JsonNode part : content.path("parts")) {
+                text.append(part.path("text").asText(""));
+            }
+        }
+        return text.toString();
+    }
+
+    private static void sleep(long millis) throws IOException {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted", e);
+        }
+    }
+
+    /**
+     * Runs the server until the process is stopped.
+     * Options: {@code --port N --latency-ms N --error-rate X --rate-limit-rate X --retry-delay-s X --seed N}.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = 8089;
+        long seed = System.nanoTime();
+        long latency = 0;
+        double errors = 0;
+        double rateLimits = 0;
+        double retryDelay = 1;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--port": port = Integer.parseInt(value); break;
+                case "--latency-ms": latency = Long.parseLong(value); break;
+                case "--error-rate": errors = Double.parseDouble(value); break;
+                case "--rate-limit-rate": rateLimits = Double.parseDouble(value); break;
+                case "--retry-delay-s": retryDelay = Double.parseDouble(value); break;
+                case "--seed": seed = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        MockGeminiServer server = new MockGeminiServer(port, seed)
+                .latency(latency).errorRate(errors).rateLimitRate(rateLimits).retryDelay(retryDelay);
+        System.out.println("Mock Gemini API listening on " + server.getBaseUrl());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,148 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.exception.HttpException;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for MockGeminiServer that don't require Jenkins.
+ */
+class MockGeminiServerTest {
+
+    private static final String REQUEST = "{\"contents\":[{\"role\":\"user\",\"parts\":[{\"text\":\"error: build failed\"}]}]}";
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private MockGeminiServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new MockGeminiServer();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void testGenerateContentAnswersInGeminiFormat() throws Exception {
+        HttpResponse<String> response = post("gemini-2.0-flash:generateContent", true);
+
+        assertEquals(200, response.statusCode());
+        JsonNode body = mapper.readTree(response.body());
+        assertEquals(MockGeminiServer.DEFAULT_RESPONSE, body.at("/candidates/0/content/parts/0/text").asText());
+        assertEquals("STOP", body.at("/candidates/0/finishReason").asText());
+        assertTrue(body.at("/usageMetadata/promptTokenCount").asInt() > 0);
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    void testStreamGenerateContentSendsChunksAsServerSentEvents() throws Exception {
+        server.respondWith("one two three four").streaming(3, 0);
+
+        HttpResponse<String> response = post("gemini-2.0-flash:streamGenerateContent?alt=sse", true);
+
+        assertEquals(200, response.statusCode());
+        assertEquals("text/event-stream", response.headers().firstValue("Content-Type").orElse(null));
+        StringBuilder text = new StringBuilder();
+        List<String> finishReasons = new ArrayList<>();
+        for (String line : response.body().split("\r\n")) {
+            if (line.startsWith("data: ")) {
+                JsonNode event = mapper.readTree(line.substring("data: ".length()));
+                text.append(event.at("/candidates/0/content/parts/0/text").asText());
+                finishReasons.add(event.at("/candidates/0/finishReason").asText(""));
+            }
+        }
+        assertEquals("one two three four", text.toString());
+        assertEquals(List.of("", "", "STOP"), finishReasons);
+    }
+
+    @Test
+    void testMissingApiKeyIsRejected() throws Exception {
+        HttpResponse<String> response = post("gemini-2.0-flash:generateContent", false);
+
+        assertEquals(400, response.statusCode());
+        assertTrue(response.body().contains("INVALID_ARGUMENT"));
+    }
+
+    @Test
+    void testUnknownMethodIsNotFound() throws Exception {
+        assertEquals(404, post("gemini-2.0-flash:countTokens", true).statusCode());
+    }
+
+    @Test
+    void testRateLimitCarriesRetryDelay() throws Exception {
+        server.rateLimitRate(1).retryDelay(2.5);
+
+        HttpResponse<String> response = post("gemini-2.0-flash:generateContent", true);
+
+        assertEquals(429, response.statusCode());
+        HttpException failure = new HttpException(response.statusCode(), response.body());
+        assertEquals(RetryPolicy.RATE_LIMIT, RetryPolicy.failureCause(failure));
+        assertEquals(2500, RetryPolicy.retryAfterMillis(failure));
+        assertEquals(1, server.getRateLimitedCount());
+    }
+
+    @Test
+    void testErrorRateAnswersUnavailable() throws Exception {
+        server.errorRate(1);
+
+        HttpResponse<String> response = post("gemini-2.0-flash:generateContent", true);
+
+        assertEquals(503, response.statusCode());
+        assertEquals(RetryPolicy.SERVER_ERROR,
+                RetryPolicy.failureCause(new HttpException(response.statusCode(), response.body())));
+        assertEquals(1, server.getServerErrorCount());
+    }
+
+    @Test
+    void testFailNextOnlyFailsThatManyRequests() throws Exception {
+        server.failNext(2, 500);
+
+        assertEquals(500, post("gemini-2.0-flash:generateContent", true).statusCode());
+        assertEquals(500, post("gemini-2.0-flash:generateContent", true).statusCode());
+        assertEquals(200, post("gemini-2.0-flash:generateContent", true).statusCode());
+    }
+
+    @Test
+    void testConcurrentRequestsAreServedTogether() throws Exception {
+        server.latency(300);
+
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            responses.add(client.sendAsync(request("gemini-2.0-flash:generateContent", true), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.get().statusCode());
+        }
+        assertTrue(server.getPeakConcurrency() > 1, "Requests were served one at a time");
+    }
+
+    private HttpResponse<String> post(String method, boolean withKey) throws Exception {
+        return client.send(request(method, withKey), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String method, boolean withKey) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(server.getBaseUrl() + "/models/" + method))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(REQUEST));
+        if (withKey) {
+            builder.header("x-goog-api-key", "test-api-key");
+        }
+        return builder.build();
+    }
+}
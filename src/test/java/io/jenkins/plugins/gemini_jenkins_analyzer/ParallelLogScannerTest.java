@@ -0,0 +1,146 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Fast unit tests for ParallelLogScanner that don't require Jenkins.
+ */
+class ParallelLogScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static final ErrorPatternMatcher MATCHER =
+            ErrorPatternMatcher.compile(Arrays.asList("ERROR", "FAILED"));
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Random log with errors, blank lines, CRLF endings, lines longer than a chunk and an optional unterminated last line.
+     */
+    private static String randomLog(Random random) {
+        StringBuilder content = new StringBuilder();
+        int lines = random.nextInt(400);
+        for (int i = 0; i < lines; i++) {
+            int kind = random.nextInt(20);
+            content.append(kind == 0 ? "ERROR: failure " + i : kind == 1 ? "BUILD FAILED" : kind == 2 ? ""
+                    : kind == 3 ? "long " + "x".repeat(random.nextInt(300)) + (random.nextBoolean() ? " ERROR" : "")
+                    : "line " + i);
+            content.append(random.nextInt(10) == 0 ? "\r\n" : "\n");
+        }
+        if (random.nextBoolean()) {
+            content.append("trailing ERROR");
+        }
+        return content.toString();
+    }
+
+    private File write(String content) throws IOException {
+        File logFile = tempDir.resolve("log").toFile();
+        Files.write(logFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return logFile;
+    }
+
+    private static void assertSameIndex(ErrorIndex expected, ErrorIndex actual, String message) {
+        assertEquals(expected.getPatternHash(), actual.getPatternHash(), message);
+        assertEquals(expected.getLogLength(), actual.getLogLength(), message);
+        assertEquals(expected.getTotalLines(), actual.getTotalLines(), message);
+        assertEquals(expected.size(), actual.size(), message);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.getLine(i), actual.getLine(i), message + " entry " + i);
+            assertEquals(expected.getOffset(i), actual.getOffset(i), message + " entry " + i);
+            assertEquals(expected.getPatternId(i), actual.getPatternId(i), message + " entry " + i);
+        }
+    }
+
+    @Test
+    void testMatchesSequentialIndex() throws IOException {
+        Random random = new Random(42);
+        for (int round = 0; round < 60; round++) {
+            File logFile = write(randomLog(random));
+            long chunkBytes = 1 + random.nextInt(200);
+
+            ErrorIndex expected = ErrorIndex.buildSequentially(logFile, StandardCharsets.UTF_8, MATCHER);
+            ErrorIndex actual = ParallelLogScanner.buildIndex(logFile, StandardCharsets.UTF_8, MATCHER, pool, chunkBytes);
+
+            assertSameIndex(expected, actual, "round " + round + " chunkBytes=" + chunkBytes);
+        }
+    }
+
+    @Test
+    void testBlocksAcrossChunkBoundariesMatchScan() throws IOException {
+        Random random = new Random(7);
+        for (int round = 0; round < 60; round++) {
+            File logFile = write(randomLog(random));
+            ErrorIndex index = ParallelLogScanner.buildIndex(logFile, StandardCharsets.UTF_8, MATCHER, pool,
+                    1 + random.nextInt(100));
+
+            int maxLines = 1 + random.nextInt(60);
+            int contextLines = random.nextInt(6);
+            int fetchLimit = 1 + random.nextInt(500);
+            String expected;
+            try (LogLineReader reader = LogLineReader.openTail(logFile, StandardCharsets.UTF_8, fetchLimit)) {
+                expected = ErrorAnalyzer.collectBlocks(reader, MATCHER.newLineMatcher(), new int[MATCHER.size()],
+                        maxLines, contextLines);
+            }
+            String actual = ErrorAnalyzer.collectIndexedBlocks(StandardCharsets.UTF_8, logFile, index,
+                    MATCHER.newLineMatcher(), new int[MATCHER.size()], maxLines, contextLines, fetchLimit);
+
+            assertEquals(expected, actual, "round " + round + " maxLines=" + maxLines
+                    + " contextLines=" + contextLines + " fetchLimit=" + fetchLimit);
+        }
+    }
+
+    @Test
+    void testChunksStartAtLineStarts() throws IOException {
+        String content = "short\n" + "x".repeat(100) + "\nERROR here\n\nlast";
+        File logFile = write(content);
+
+        List<Long> starts;
+        try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.READ)) {
+            starts = ParallelLogScanner.chunkStarts(channel, logFile.length(), 10);
+        }
+
+        // The first chunk runs to the end of the 100 byte line it ends in
+        assertEquals(Arrays.asList(0L, 107L, 118L), starts);
+        for (long start : starts) {
+            assertTrue(start == 0 || content.charAt((int) start - 1) == '\n', "chunk at " + start);
+        }
+    }
+
+    @Test
+    void testEmptyLog() throws IOException {
+        File logFile = write("");
+
+        ErrorIndex index = ParallelLogScanner.buildIndex(logFile, StandardCharsets.UTF_8, MATCHER, pool, 16);
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.getTotalLines());
+        assertEquals(0, index.getLogLength());
+    }
+
+    @Test
+    void testSmallLogsAreScannedSequentially() {
+        assertFalse(ParallelLogScanner.isEnabledFor(ParallelLogScanner.MIN_BYTES - 1));
+        assertEquals(ParallelLogScanner.PARALLELISM > 1, ParallelLogScanner.isEnabledFor(ParallelLogScanner.MIN_BYTES));
+    }
+}
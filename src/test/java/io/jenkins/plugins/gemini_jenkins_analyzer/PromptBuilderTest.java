@@ -0,0 +1,121 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for PromptBuilder that don't require Jenkins.
+ */
+class PromptBuilderTest {
+
+    private static final String HEADER = "=== ERROR ANALYSIS ===\n"
+            + "Note: Lines marked with '>>> ERROR:' matched configured error patterns.\n"
+            + "Context of 1 lines is shown before and after each error.\n"
+            + "\n";
+
+    private static final String SEPARATOR = "\n\n--- Error Block \n\n";
+
+    private static String block(String name) {
+        return "compiling " + name + "\n>>> ERROR: " + name + " failed\nstopping";
+    }
+
+    @Test
+    void testEstimateTokens() {
+        assertEquals(0, PromptBuilder.estimateTokens(null));
+        assertEquals(0, PromptBuilder.estimateTokens(""));
+        assertEquals(1, PromptBuilder.estimateTokens("abcd"));
+        assertEquals(2, PromptBuilder.estimateTokens("abcde"));
+    }
+
+    @Test
+    void testLogsWithinBudgetAreUnchanged() {
+        String logs = HEADER + block("a") + SEPARATOR + block("b");
+
+        assertSame(logs, PromptBuilder.fit(logs, 10_000));
+        assertSame(logs, PromptBuilder.fit(logs, 0));
+        assertNull(PromptBuilder.fit(null, 10));
+    }
+
+    @Test
+    void testLongLinesAreTruncatedInTheMiddle() {
+        String longLine = "ERROR: javac " + "x".repeat(5000) + " exited with 1";
+        String logs = "BUILD FAILED\n" + longLine;
+
+        String fitted = PromptBuilder.fit(logs, 500);
+
+        assertTrue(fitted.startsWith("BUILD FAILED\nERROR: javac "));
+        assertTrue(fitted.endsWith(" exited with 1"));
+        assertTrue(fitted.contains("chars truncated"));
+        assertTrue(PromptBuilder.estimateTokens(fitted) <= 500);
+    }
+
+    @Test
+    void testRepeatedBlocksAreCollapsed() {
+        StringBuilder logs = new StringBuilder(HEADER);
+        for (int i = 0; i < 40; i++) {
+            logs.append(block("flaky-test")).append(SEPARATOR);
+        }
+        logs.append(block("linker"));
+
+        String fitted = PromptBuilder.fit(logs.toString(), 200);
+
+        assertTrue(fitted.startsWith(HEADER));
+        assertTrue(fitted.contains("[block repeated 40 times]"));
+        assertTrue(fitted.endsWith(block("linker")));
+        assertEquals(fitted.indexOf("flaky-test failed"), fitted.lastIndexOf("flaky-test failed"));
+    }
+
+    @Test
+    void testNewestBlocksAreKept() {
+        StringBuilder logs = new StringBuilder(HEADER);
+        for (int i = 0; i < 50; i++) {
+            if (i > 0) {
+                logs.append(SEPARATOR);
+            }
+            logs.append(block("step-" + i));
+        }
+
+        String fitted = PromptBuilder.fit(logs.toString(), 150);
+
+        assertTrue(PromptBuilder.estimateTokens(fitted) <= 150);
+        assertTrue(fitted.startsWith(HEADER + "["));
+        assertTrue(fitted.contains("earlier entries omitted to fit the prompt budget]"));
+        assertTrue(fitted.endsWith(block("step-49")));
+        assertTrue(fitted.contains(block("step-48")));
+        assertFalse(fitted.contains("step-0 failed"));
+    }
+
+    @Test
+    void testPlainLinesKeepNewestAndCollapseDuplicates() {
+        StringBuilder logs = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            logs.append("ERROR: timeout waiting for agent\n");
+            logs.append("ERROR: step ").append(i).append(" failed\n");
+        }
+        logs.append("BUILD FAILED");
+
+        String fitted = PromptBuilder.fit(logs.toString(), 60);
+
+        assertTrue(PromptBuilder.estimateTokens(fitted) <= 60);
+        assertTrue(fitted.endsWith("ERROR: step 99 failed\nBUILD FAILED"));
+        assertTrue(fitted.contains("ERROR: timeout waiting for agent [repeated 100 times]"));
+    }
+
+    @Test
+    void testOversizedLastBlockKeepsItsTail() {
+        StringBuilder block = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            block.append("at com.example.Frame").append(i).append(".run(Frame.java:").append(i).append(")\n");
+        }
+        block.append(">>> ERROR: java.lang.OutOfMemoryError");
+        String logs = HEADER + block("earlier") + SEPARATOR + block;
+
+        String fitted = PromptBuilder.fit(logs, 200);
+
+        assertTrue(PromptBuilder.estimateTokens(fitted) <= 200);
+        assertTrue(fitted.endsWith(">>> ERROR: java.lang.OutOfMemoryError"));
+        assertTrue(fitted.contains("[1 earlier entry omitted to fit the prompt budget]"));
+        assertFalse(fitted.contains("Frame0.run"));
+    }
+}
@@ -0,0 +1,79 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for RateLimiter that don't require Jenkins.
+ */
+class RateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final RateLimiter limiter = new RateLimiter(now::get, TimeUnit.MINUTES.toMillis(2));
+
+    @Test
+    void testNoLimitNeverWaits() throws Exception {
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0, limiter.reserve(10_000, 0, 0));
+        }
+    }
+
+    @Test
+    void testRequestsWithinQuotaDoNotWait() throws Exception {
+        for (int i = 0; i < 60; i++) {
+            assertEquals(0, limiter.reserve(100, 60, 0));
+        }
+        // The 61st request waits for one second's refill
+        assertEquals(TimeUnit.SECONDS.toNanos(1), limiter.reserve(100, 60, 0));
+    }
+
+    @Test
+    void testBucketRefillsOverTime() throws Exception {
+        for (int i = 0; i < 60; i++) {
+            limiter.reserve(0, 60, 0);
+        }
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, limiter.reserve(0, 60, 0));
+        }
+        assertTrue(limiter.reserve(0, 60, 0) > 0);
+    }
+
+    @Test
+    void testTokenQuotaSpacesLargePrompts() throws Exception {
+        assertEquals(0, limiter.reserve(6_000, 0, 10_000));
+        // 2,000 tokens are missing, which takes 12 seconds at 10,000 per minute
+        assertEquals(TimeUnit.SECONDS.toNanos(12), limiter.reserve(6_000, 0, 10_000));
+    }
+
+    @Test
+    void testPromptLargerThanQuotaWaitsForFullBucket() throws Exception {
+        assertEquals(0, limiter.reserve(50_000, 0, 10_000));
+        assertEquals(TimeUnit.MINUTES.toNanos(1), limiter.reserve(50_000, 0, 10_000));
+    }
+
+    @Test
+    void testTooLongWaitIsRejected() throws Exception {
+        RateLimiter impatient = new RateLimiter(now::get, 500);
+        impatient.reserve(0, 1, 0);
+
+        AnalysisRejectedException e = assertThrows(AnalysisRejectedException.class, () -> impatient.reserve(0, 1, 0));
+        assertTrue(e.getMessage().contains("rate limit"));
+
+        // A rejected caller takes nothing from the bucket
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertEquals(0, impatient.reserve(0, 1, 0));
+    }
+
+    @Test
+    void testChangedQuotaStartsWithFullBucket() throws Exception {
+        limiter.reserve(0, 1, 0);
+        assertTrue(limiter.reserve(0, 1, 0) > 0);
+
+        assertEquals(0, limiter.reserve(0, 100, 0));
+    }
+}
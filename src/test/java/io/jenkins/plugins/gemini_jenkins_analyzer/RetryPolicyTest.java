@@ -0,0 +1,113 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import dev.langchain4j.exception.AuthenticationException;
+import dev.langchain4j.exception.HttpException;
+import dev.langchain4j.exception.InternalServerException;
+import dev.langchain4j.exception.InvalidRequestException;
+import dev.langchain4j.exception.RateLimitException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.channels.ClosedByInterruptException;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for RetryPolicy that don't require Jenkins.
+ */
+class RetryPolicyTest {
+
+    private static final String RATE_LIMITED = "{\"error\": {\"code\": 429, \"message\": \"Resource has been exhausted\","
+            + " \"status\": \"RESOURCE_EXHAUSTED\", \"details\": [{\"@type\": \"type.googleapis.com/google.rpc.RetryInfo\","
+            + " \"retryDelay\": \"37s\"}]}}";
+
+    @Test
+    void testRateLimitAndServerErrorsAreTransient() {
+        assertTrue(RetryPolicy.isTransient(new RuntimeException(RATE_LIMITED)));
+        assertTrue(RetryPolicy.isTransient(new RuntimeException("{\"error\": {\"code\": 503, \"status\": \"UNAVAILABLE\"}}")));
+        assertTrue(RetryPolicy.isTransient(new RuntimeException("The model is overloaded. Please try again later.")));
+        assertTrue(RetryPolicy.isTransient(new RuntimeException("request failed", new SocketTimeoutException("Read timed out"))));
+    }
+
+    @Test
+    void testClientErrorsAreNotTransient() {
+        assertFalse(RetryPolicy.isTransient(new RuntimeException("{\"error\": {\"code\": 400, \"message\": \"API key not valid\","
+                + " \"status\": \"INVALID_ARGUMENT\"}}")));
+        assertFalse(RetryPolicy.isTransient(new RuntimeException((String) null)));
+    }
+
+    @Test
+    void testTypedExceptionsWinOverMessages() {
+        assertEquals(RetryPolicy.RATE_LIMIT, RetryPolicy.failureCause(new RateLimitException("quota")));
+        assertEquals(RetryPolicy.SERVER_ERROR, RetryPolicy.failureCause(new InternalServerException("oops")));
+        assertEquals(RetryPolicy.TIMEOUT, RetryPolicy.failureCause(new dev.langchain4j.exception.TimeoutException("slow")));
+        assertEquals(RetryPolicy.SERVER_ERROR, RetryPolicy.failureCause(new HttpException(502, "bad gateway")));
+        assertEquals(RetryPolicy.RATE_LIMIT, RetryPolicy.failureCause(new HttpException(429, "slow down")));
+        // Client errors that happen to mention a server status are not retried
+        assertEquals(RetryPolicy.OTHER, RetryPolicy.failureCause(new InvalidRequestException("field 500 is UNAVAILABLE")));
+        assertEquals(RetryPolicy.OTHER, RetryPolicy.failureCause(new HttpException(403, "limit of 500 requests")));
+        assertEquals(RetryPolicy.OTHER, RetryPolicy.failureCause(
+                new RuntimeException("wrapped", new AuthenticationException("503 UNAVAILABLE"))));
+    }
+
+    @Test
+    void testConnectionFailuresAreTransient() {
+        assertEquals(RetryPolicy.CONNECTION, RetryPolicy.failureCause(
+                new RuntimeException("request failed", new ConnectException("Connection refused"))));
+        assertEquals(RetryPolicy.CONNECTION, RetryPolicy.failureCause(new UnknownHostException("generativelanguage.googleapis.com")));
+        assertEquals(RetryPolicy.CONNECTION, RetryPolicy.failureCause(new IOException("Connection reset")));
+        assertFalse(RetryPolicy.isProviderResponse(new ConnectException("Connection refused")));
+    }
+
+    @Test
+    void testProviderResponses() {
+        assertTrue(RetryPolicy.isProviderResponse(new RuntimeException("wrapped", new HttpException(400, "bad request"))));
+        assertTrue(RetryPolicy.isProviderResponse(new InvalidRequestException("API key not valid")));
+        assertFalse(RetryPolicy.isProviderResponse(new RuntimeException("API key not valid")));
+    }
+
+    @Test
+    void testInterruptsAreRecognizedWhenWrapped() {
+        assertTrue(RetryPolicy.isInterrupted(new RuntimeException(new InterruptedException())));
+        assertTrue(RetryPolicy.isInterrupted(new RuntimeException(new IOException(new InterruptedIOException()))));
+        assertTrue(RetryPolicy.isInterrupted(new ClosedByInterruptException()));
+        assertFalse(RetryPolicy.isInterrupted(new RuntimeException(new SocketTimeoutException("Read timed out"))));
+        assertFalse(RetryPolicy.isInterrupted(new RuntimeException("java.lang.InterruptedException")));
+    }
+
+    @Test
+    void testRetryAfterIsTakenFromTheResponse() {
+        assertEquals(37_000, RetryPolicy.retryAfterMillis(new RuntimeException("wrapped", new RuntimeException(RATE_LIMITED))));
+        assertEquals(1_500, RetryPolicy.retryAfterMillis(new RuntimeException("\"retryDelay\": \"1.5s\"")));
+        assertEquals(20_000, RetryPolicy.retryAfterMillis(new RuntimeException("HTTP 429, Retry-After: 20")));
+        assertEquals(0, RetryPolicy.retryAfterMillis(new RuntimeException("HTTP 503")));
+        assertEquals(37_000, RetryPolicy.delayMillis(new RuntimeException(RATE_LIMITED), 1));
+    }
+
+    @Test
+    void testBackoffGrowsWithJitterAndIsCapped() {
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(RetryPolicy.backoffMillis(1) <= RetryPolicy.BASE_DELAY_MILLIS);
+            assertTrue(RetryPolicy.backoffMillis(3) <= 4 * RetryPolicy.BASE_DELAY_MILLIS);
+            long capped = RetryPolicy.backoffMillis(40);
+            assertTrue(capped >= 0 && capped <= RetryPolicy.MAX_DELAY_MILLIS);
+        }
+        long max = 0;
+        for (int i = 0; i < 1000; i++) {
+            max = Math.max(max, RetryPolicy.backoffMillis(4));
+        }
+        assertTrue(max > RetryPolicy.BASE_DELAY_MILLIS, "later attempts wait longer");
+    }
+
+    @Test
+    void testFailuresAreClassifiedByCause() {
+        assertEquals(RetryPolicy.RATE_LIMIT, RetryPolicy.failureCause(new RuntimeException(RATE_LIMITED)));
+        assertEquals(RetryPolicy.SERVER_ERROR, RetryPolicy.failureCause(new RuntimeException("The model is overloaded")));
+        assertEquals(RetryPolicy.TIMEOUT, RetryPolicy.failureCause(new RuntimeException("wrapped", new java.net.SocketTimeoutException())));
+        assertEquals(RetryPolicy.TIMEOUT, RetryPolicy.failureCause(new RuntimeException("{\"status\": \"DEADLINE_EXCEEDED\"}")));
+        assertEquals(RetryPolicy.OTHER, RetryPolicy.failureCause(new RuntimeException("API key not valid")));
+    }
+}
@@ -0,0 +1,108 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Fast unit tests for ReverseLogReader that don't require Jenkins.
+ */
+class ReverseLogReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File write(String content) throws IOException {
+        Path file = tempDir.resolve("log");
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file.toFile();
+    }
+
+    private static List<String> readForward(String content) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (LogLineReader reader = new LogLineReader(
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private List<String> readBackward(String content) throws IOException {
+        List<String> lines = new ArrayList<>();
+        try (ReverseLogReader reader = new ReverseLogReader(write(content), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readPreviousLine()) != null) {
+                lines.add(line);
+            }
+        }
+        Collections.reverse(lines);
+        return lines;
+    }
+
+    @Test
+    void testReadsLinesBackwards() throws IOException {
+        try (ReverseLogReader reader = new ReverseLogReader(write("first\nsecond\r\nlast\n"), StandardCharsets.UTF_8)) {
+            assertEquals("last", reader.readPreviousLine());
+            assertEquals(14, reader.getLineStartOffset());
+            assertEquals("second", reader.readPreviousLine());
+            assertEquals(6, reader.getLineStartOffset());
+            assertEquals("first", reader.readPreviousLine());
+            assertEquals(0, reader.getLineStartOffset());
+            assertNull(reader.readPreviousLine());
+        }
+    }
+
+    @Test
+    void testEmptyFile() throws IOException {
+        try (ReverseLogReader reader = new ReverseLogReader(write(""), StandardCharsets.UTF_8)) {
+            assertNull(reader.readPreviousLine());
+            assertEquals(0, reader.skipPreviousLines(3));
+        }
+    }
+
+    @Test
+    void testStripsConsoleNotes() throws IOException {
+        String note = "\u001B[8mha:AAAAWB+LCAAAAAAAAP9b\u001B[0m";
+        try (ReverseLogReader reader = new ReverseLogReader(write("plain\n" + note + "ERROR: boom\n"), StandardCharsets.UTF_8)) {
+            assertEquals("ERROR: boom", reader.readPreviousLine());
+            assertEquals("plain", reader.readPreviousLine());
+        }
+    }
+
+    @Test
+    void testSkipPreviousLinesFindsWindowStart() throws IOException {
+        try (ReverseLogReader reader = new ReverseLogReader(write("a\nbb\nccc\ndddd\n"), StandardCharsets.UTF_8)) {
+            assertEquals(2, reader.skipPreviousLines(2));
+            assertEquals(5, reader.getLineStartOffset());
+            assertEquals("bb", reader.readPreviousLine());
+        }
+    }
+
+    @Test
+    void testMatchesForwardReaderAcrossBlocks() throws IOException {
+        Random random = new Random(42);
+        String[] pieces = {"", "\n", "\r\n", "error: x", "❌ failed", "\u001B[8mha:note\u001B[0m", "noise"};
+        for (int round = 0; round < 5; round++) {
+            StringBuilder content = new StringBuilder();
+            while (content.length() < LogLineReader.BUFFER_SIZE * 3) {
+                content.append(pieces[random.nextInt(pieces.length)]);
+            }
+            String text = content.toString();
+            assertEquals(readForward(text), readBackward(text));
+        }
+    }
+}
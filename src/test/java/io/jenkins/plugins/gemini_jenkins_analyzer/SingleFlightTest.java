@@ -0,0 +1,95 @@
+package io.jenkins.plugins.gemini_jenkins_analyzer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Fast unit tests for SingleFlight that don't require Jenkins.
+ */
+class SingleFlightTest {
+
+    @Test
+    void testConcurrentCallersShareOneComputation() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(pool.submit(() -> flight.execute("run#1", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                release.await();
+                return "analysis";
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(pool.submit(() -> flight.execute("run#1", () -> {
+                    calls.incrementAndGet();
+                    return "duplicate";
+                })));
+            }
+            // Wait until every joiner is parked on the in-flight computation
+            while (flight.getJoinedCount() < 3) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("analysis", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertFalse(flight.isInFlight("run#1"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testDifferentKeysRunIndependently() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>();
+
+        assertEquals("a", flight.execute("run#1", () -> "a"));
+        assertEquals("b", flight.execute("run#2", () -> "b"));
+        assertEquals(0, flight.getJoinedCount());
+    }
+
+    @Test
+    void testResultIsNotCachedAfterCompletion() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>();
+
+        assertEquals("first", flight.execute("run#1", () -> "first"));
+        assertEquals("second", flight.execute("run#1", () -> "second"));
+    }
+
+    @Test
+    void testNullResultIsShared() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>();
+
+        assertNull(flight.execute("run#1", () -> null));
+    }
+
+    @Test
+    void testFailureIsPropagatedAndNotRemembered() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>();
+
+        IOException thrown = assertThrows(IOException.class,
+                () -> flight.execute("run#1", () -> {
+                    throw new IOException("log unavailable");
+                }));
+        assertEquals("log unavailable", thrown.getMessage());
+        assertFalse(flight.isInFlight("run#1"));
+        assertEquals("retry", flight.execute("run#1", () -> "retry"));
+    }
+}